@@ -0,0 +1,76 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.tools.SyntheticDataGenerator;
+import edu.univ.erp.util.DbUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded stand-in for the MySQL databases: one in-memory H2 database in MySQL mode with
+ * the univ_auth / univ_erp schemas, seeded once per benchmark JVM.
+ *
+ * DbUtil is pointed at it through system properties, so this must run before anything
+ * else touches DbUtil (all benchmark states call {@link #ensureReady()} in their setup).
+ */
+public final class BenchDatabase {
+
+    private static final String H2_URL = "jdbc:h2:mem:univ_bench;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+            + "LOCK_TIMEOUT=10000;NON_KEYWORDS=YEAR,KEY,VALUE;"
+            + "INIT=CREATE SCHEMA IF NOT EXISTS univ_auth\\;CREATE SCHEMA IF NOT EXISTS univ_erp\\;SET SCHEMA ";
+
+    private static SyntheticDataGenerator university;
+
+    private BenchDatabase() {
+    }
+
+    /** Creates and seeds the database on first call; later calls return the same university. */
+    public static synchronized SyntheticDataGenerator ensureReady() throws Exception {
+        if (university == null) {
+            configureDataSources();
+            createSchema();
+            university = SyntheticDataGenerator.generate(SyntheticDataGenerator.Config.fromSystemProperties("bench."));
+        }
+        return university;
+    }
+
+    private static void configureDataSources() {
+        setDefault("auth.jdbc.url", H2_URL + "univ_auth");
+        setDefault("erp.jdbc.url", H2_URL + "univ_erp");
+        for (String db : new String[]{"auth", "erp"}) {
+            setDefault(db + ".jdbc.user", "sa");
+            setDefault(db + ".jdbc.password", "");
+            setDefault(db + ".pool.minSize", "0");
+            setDefault(db + ".pool.maxSize", "32");
+        }
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static void createSchema() throws IOException, SQLException {
+        String script;
+        try (InputStream in = BenchDatabase.class.getClassLoader().getResourceAsStream("bench-schema.sql")) {
+            if (in == null) throw new IOException("bench-schema.sql not found in classpath");
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        try (Connection c = DbUtil.getErpConnection();
+             Statement st = c.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!sql.isBlank()) st.execute(sql);
+            }
+            st.execute("CREATE ALIAS IF NOT EXISTS univ_erp.DATE_FORMAT FOR '"
+                    + H2Functions.class.getName() + ".dateFormat'");
+            st.execute("CREATE ALIAS IF NOT EXISTS univ_erp.FIELD FOR '"
+                    + H2Functions.class.getName() + ".field'");
+        }
+    }
+}
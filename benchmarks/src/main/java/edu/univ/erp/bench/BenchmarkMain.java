@@ -0,0 +1,49 @@
+package edu.univ.erp.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line, but results are always
+ * written as JSON (default jmh-result.json) unless -rf / -rff say otherwise.
+ *
+ * Examples:
+ *   java -jar benchmarks.jar                                   (everything)
+ *   java -jar benchmarks.jar Gradebook -p sectionSize=500      (one suite, one size)
+ *   java -Dbench.students=20000 -jar benchmarks.jar Catalog    (bigger university)
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            options.result("jmh-result.json");
+        }
+
+        // forked benchmark JVMs need the -Dbench.* sizing too
+        String[] sizing = System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("bench."))
+                .map(key -> "-D" + key + "=" + System.getProperty(key))
+                .toArray(String[]::new);
+        if (sizing.length > 0) {
+            options.jvmArgsAppend(sizing);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.CatalogDao;
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.domain.CatalogPage;
+import edu.univ.erp.domain.CatalogSectionRow;
+import edu.univ.erp.domain.Role;
+import edu.univ.erp.service.StudentService;
+import edu.univ.erp.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads: full listing (cached / cold), keyset pages, filtered pages,
+ * and a student's registrations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final CatalogDao catalogDao = new CatalogDao();
+    private StudentService studentService;
+    private SessionContext student;
+    private CatalogPage.Cursor middleCursor;
+    private CatalogFilter currentTermWithSeats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SyntheticDataGenerator university = BenchDatabase.ensureReady();
+        studentService = new StudentService();
+        student = new SessionContext(university.studentId(0), university.studentUsername(0), Role.STUDENT);
+        currentTermWithSeats = new CatalogFilter(university.config().semester(), university.config().year(),
+                null, null, null, true);
+
+        // cursor roughly half-way through the catalog, to measure a deep page
+        CatalogPage.Cursor cursor = null;
+        for (int i = 0; i < university.sectionCount() / PAGE_SIZE / 2; i++) {
+            cursor = catalogDao.findCatalogPage(CatalogFilter.all(), cursor, PAGE_SIZE).next();
+        }
+        middleCursor = cursor;
+    }
+
+    @Benchmark
+    public List<CatalogSectionRow> listCatalogCached() throws Exception {
+        return catalogDao.listCatalog();
+    }
+
+    @Benchmark
+    public List<CatalogSectionRow> listCatalogCold() throws Exception {
+        CatalogCache.getInstance().invalidate();
+        return catalogDao.listCatalog();
+    }
+
+    @Benchmark
+    public CatalogPage firstPage() throws Exception {
+        return catalogDao.findCatalogPage(CatalogFilter.all(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CatalogPage middlePage() throws Exception {
+        return catalogDao.findCatalogPage(CatalogFilter.all(), middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CatalogPage filteredPage() throws Exception {
+        return catalogDao.findCatalogPage(currentTermWithSeats, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<CatalogSectionRow> myRegistrations() throws Exception {
+        return studentService.viewMyRegistrations(student);
+    }
+}
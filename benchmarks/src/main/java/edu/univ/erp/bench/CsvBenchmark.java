@@ -0,0 +1,90 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.StudentGradeRow;
+import edu.univ.erp.util.CsvUtil;
+import edu.univ.erp.util.GradeCsvUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV export / import of {@code rows} grade rows (no database involved).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    @Param({"1000", "20000"})
+    public int rows;
+
+    private List<GradeRow> gradeRows;
+    private List<StudentGradeRow> transcriptRows;
+    private File exportFile;
+    private File importFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        gradeRows = new ArrayList<>(rows);
+        transcriptRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            GradeRow g = new GradeRow();
+            g.setEnrollmentId(i + 1);
+            g.setRollNo(String.format("R%07d", i));
+            g.setStudentName("stu" + i);
+            g.setQuizScore(40 + (i * 37) % 61 + 0.25);
+            g.setMidtermScore(40 + (i * 53) % 61 + 0.5);
+            g.setEndsemScore(40 + (i * 71) % 61 + 0.75);
+            g.setFinalScore(0.2 * g.getQuizScore() + 0.3 * g.getMidtermScore() + 0.5 * g.getEndsemScore());
+            gradeRows.add(g);
+
+            StudentGradeRow t = new StudentGradeRow();
+            t.setCourseCode("CS" + (100 + i % 400));
+            t.setCourseTitle("Course " + i);
+            t.setSemester(i % 2 == 0 ? "MONSOON" : "WINTER");
+            t.setYear(2020 + i % 6);
+            t.setQuizScore(g.getQuizScore());
+            t.setMidtermScore(g.getMidtermScore());
+            t.setEndsemScore(g.getEndsemScore());
+            t.setFinalScore(g.getFinalScore());
+            t.setFinalGradeText(String.format("%.1f", g.getFinalScore()));
+            transcriptRows.add(t);
+        }
+
+        exportFile = Files.createTempFile("bench-export", ".csv").toFile();
+        importFile = Files.createTempFile("bench-import", ".csv").toFile();
+        GradeCsvUtil.writeGrades(gradeRows, importFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exportFile.delete();
+        importFile.delete();
+    }
+
+    @Benchmark
+    public long exportGrades() throws Exception {
+        GradeCsvUtil.writeGrades(gradeRows, exportFile);
+        return exportFile.length();
+    }
+
+    @Benchmark
+    public List<GradeRow> importGrades() throws Exception {
+        GradeCsvUtil.readGrades(importFile, gradeRows);
+        return gradeRows;
+    }
+
+    @Benchmark
+    public long exportTranscript() throws Exception {
+        CsvUtil.writeTranscriptCsv(transcriptRows, exportFile);
+        return exportFile.length();
+    }
+}
@@ -0,0 +1,120 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.data.GradebookDao;
+import edu.univ.erp.data.SectionStatsCache;
+import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.domain.Role;
+import edu.univ.erp.domain.SectionStats;
+import edu.univ.erp.service.InstructorService;
+import edu.univ.erp.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradebook load and save for one section of {@code sectionSize} graded students.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradebookBenchmark {
+
+    @Param({"100", "500", "2000"})
+    public int sectionSize;
+
+    private final GradebookDao gradebookDao = new GradebookDao();
+    private final InstructorService instructorService = new InstructorService();
+
+    private SessionContext instructor;
+    private int sectionId;
+    private List<GradeRow> rows;
+    private boolean flip;
+    private File exportFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SyntheticDataGenerator university = BenchDatabase.ensureReady();
+        sectionId = university.createSection(sectionSize, sectionSize, true);
+        // createSection assigns the first instructor
+        instructor = new SessionContext(university.instructorId(0), university.instructorUsername(0), Role.INSTRUCTOR);
+        rows = gradebookDao.getGradebookForSection(sectionId);
+        exportFile = Files.createTempFile("bench-gradebook", ".csv").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exportFile.delete();
+    }
+
+    /** Changes every component score, alternating between two values. */
+    private void touchAllScores() {
+        double delta = flip ? 0.5 : -0.5;
+        flip = !flip;
+        for (GradeRow row : rows) {
+            row.setQuizScore(row.getQuizScore() + delta);
+            row.setMidtermScore(row.getMidtermScore() + delta);
+            row.setEndsemScore(row.getEndsemScore() + delta);
+        }
+    }
+
+    @Benchmark
+    public List<GradeRow> loadGradebook() throws Exception {
+        return gradebookDao.getGradebookForSection(sectionId);
+    }
+
+    @Benchmark
+    public GradebookSaveResult saveAllChanged() throws Exception {
+        touchAllScores();
+        return gradebookDao.saveSectionGrades(sectionId, rows);
+    }
+
+    @Benchmark
+    public GradebookSaveResult saveNothingChanged() throws Exception {
+        return gradebookDao.saveSectionGrades(sectionId, rows);
+    }
+
+    /** Streaming export: result set straight to the CSV file. */
+    @Benchmark
+    public long exportGradebookCsv() throws Exception {
+        instructorService.exportGradesCsv(instructor, sectionId, exportFile);
+        return exportFile.length();
+    }
+
+    /** Full instructor path: access checks, final score computation, save. */
+    @Benchmark
+    public GradebookSaveResult saveAndComputeFinal() throws Exception {
+        touchAllScores();
+        return instructorService.saveScoresAndComputeFinal(instructor, sectionId, rows);
+    }
+
+    /** Statistics as the dashboard sees them between grade writes (cached). */
+    @Benchmark
+    public SectionStats sectionStats() throws Exception {
+        return instructorService.getSectionStats(instructor, sectionId);
+    }
+
+    /** Statistics right after a grade write: one grades query plus the computation. */
+    @Benchmark
+    public SectionStats sectionStatsAfterWrite() throws Exception {
+        SectionStatsCache.getInstance().invalidate(sectionId);
+        return instructorService.getSectionStats(instructor, sectionId);
+    }
+
+    /** Scheme change: store it, then recompute and save every final of the section. */
+    @Benchmark
+    public GradebookSaveResult changeGradingScheme() throws Exception {
+        flip = !flip;
+        GradingScheme curved = new GradingScheme(GradingScheme.DEFAULT.components(), GradingScheme.DEFAULT.cutoffs(),
+                GradingScheme.Curve.SCALE_MAX, flip ? 99 : 100);
+        return instructorService.saveGradingScheme(instructor, sectionId, curved);
+    }
+}
@@ -0,0 +1,65 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.service.GradingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GradingEngine over one section of {@code students} (no database involved): the default
+ * scheme, and a five-component scheme with a mean-shift curve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int students;
+
+    private static final GradingScheme CURVED = new GradingScheme(
+            List.of(new GradingScheme.Component("QUIZ", 10, 20),
+                    new GradingScheme.Component("LAB", 15, 50),
+                    new GradingScheme.Component("PROJECT", 15, 100),
+                    new GradingScheme.Component("MIDTERM", 20, 60),
+                    new GradingScheme.Component("ENDSEM", 40, 100)),
+            GradingScheme.DEFAULT.cutoffs(),
+            GradingScheme.Curve.SHIFT_MEAN,
+            75);
+
+    private double[][] defaultScores;
+    private double[][] curvedScores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        defaultScores = scores(GradingScheme.DEFAULT);
+        curvedScores = scores(CURVED);
+    }
+
+    private double[][] scores(GradingScheme scheme) {
+        List<GradingScheme.Component> components = scheme.components();
+        double[][] scores = new double[components.size()][students];
+        for (int c = 0; c < components.size(); c++) {
+            double max = components.get(c).maxScore();
+            for (int i = 0; i < students; i++) {
+                scores[c][i] = max * (0.4 + ((i * 37 + c * 11) % 61) / 100.0);
+            }
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public GradingEngine.Result defaultScheme() {
+        return GradingEngine.grade(GradingScheme.DEFAULT, defaultScores, students);
+    }
+
+    @Benchmark
+    public GradingEngine.Result curvedScheme() {
+        return GradingEngine.grade(CURVED, curvedScores, students);
+    }
+}
@@ -0,0 +1,35 @@
+package edu.univ.erp.bench;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * MySQL functions used by the DAOs that H2 does not provide; registered as H2 aliases
+ * by {@link BenchDatabase}.
+ */
+public final class H2Functions {
+
+    private static final DateTimeFormatter HOUR_MINUTE = DateTimeFormatter.ofPattern("HH:mm");
+
+    private H2Functions() {
+    }
+
+    /** DATE_FORMAT(time, '%H:%i'), the only format the DAOs use. */
+    public static String dateFormat(java.sql.Time time, String format) {
+        if (time == null) return null;
+        if (!"%H:%i".equals(format)) {
+            throw new IllegalArgumentException("Unsupported DATE_FORMAT pattern in benchmarks: " + format);
+        }
+        LocalTime t = time.toLocalTime();
+        return HOUR_MINUTE.format(t);
+    }
+
+    /** FIELD(value, a, b, ...): 1-based position of value in the list, 0 when absent. */
+    public static int field(String value, String... list) {
+        for (int i = 0; i < list.length; i++) {
+            if (Objects.equals(value, list[i])) return i + 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,53 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.auth.PasswordHasher;
+import edu.univ.erp.data.AuthDao;
+import edu.univ.erp.domain.UserAuth;
+import edu.univ.erp.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login cost: the bcrypt verify alone, and user lookup + verify (what every login does
+ * before the session is created), single-threaded and with concurrent logins.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private final AuthDao authDao = new AuthDao();
+    private SyntheticDataGenerator university;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        university = BenchDatabase.ensureReady();
+        storedHash = authDao.getUserAuth(university.studentUsername(0)).getPasswordHash();
+    }
+
+    @Benchmark
+    public boolean verifyOnly() {
+        return PasswordHasher.verify(SyntheticDataGenerator.PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public boolean lookupAndVerify() throws Exception {
+        return lookupAndVerify(university.studentUsername(7));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean lookupAndVerifyConcurrent() throws Exception {
+        return lookupAndVerify(university.studentUsername((int) Thread.currentThread().getId()));
+    }
+
+    private boolean lookupAndVerify(String username) throws Exception {
+        UserAuth user = authDao.getUserAuth(username);
+        return user != null && PasswordHasher.verify(SyntheticDataGenerator.PASSWORD, user.getPasswordHash());
+    }
+}
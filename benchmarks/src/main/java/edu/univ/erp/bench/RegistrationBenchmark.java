@@ -0,0 +1,80 @@
+package edu.univ.erp.bench;
+
+import edu.univ.erp.access.AccessDeniedException;
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.Role;
+import edu.univ.erp.service.StudentService;
+import edu.univ.erp.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StudentService.register / drop under contention. Every thread is its own student;
+ * all of them hit one "hot" section, so registrations queue on its row lock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+
+    private final StudentService studentService = new StudentService();
+    private final AtomicInteger nextStudent = new AtomicInteger();
+
+    private SyntheticDataGenerator university;
+    private int hotSectionId;
+    private int fullSectionId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        university = BenchDatabase.ensureReady();
+        hotSectionId = university.createSection(10_000, 0, false);
+        fullSectionId = university.createSection(10, 10, false);
+    }
+
+    @State(Scope.Thread)
+    public static class StudentState {
+        SessionContext session;
+
+        @Setup(Level.Trial)
+        public void setUp(RegistrationBenchmark bench) {
+            // students from the back of the range: never enrolled in the benchmark sections
+            int index = bench.university.studentCount() - 1 - bench.nextStudent.getAndIncrement();
+            session = new SessionContext(bench.university.studentId(index),
+                    bench.university.studentUsername(index), Role.STUDENT);
+        }
+    }
+
+    private void registerThenDrop(StudentState state) throws Exception {
+        studentService.register(state.session, hotSectionId);
+        studentService.drop(state.session, hotSectionId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void registerDropUncontended(StudentState state) throws Exception {
+        registerThenDrop(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void registerDropContended(StudentState state) throws Exception {
+        registerThenDrop(state);
+    }
+
+    /** Rejected registrations (section full) still take the section lock. */
+    @Benchmark
+    @Threads(8)
+    public boolean registerFullSection(StudentState state) throws Exception {
+        try {
+            studentService.register(state.session, fullSectionId);
+            return true;
+        } catch (AccessDeniedException expected) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+-- Schema for the H2 benchmark database (MySQL mode).
+-- Mirrors the production univ_auth / univ_erp tables after db/erp/V1..V6.
+
+CREATE SCHEMA IF NOT EXISTS univ_auth;
+CREATE SCHEMA IF NOT EXISTS univ_erp;
+
+CREATE TABLE univ_auth.users_auth (
+    user_id         INT AUTO_INCREMENT PRIMARY KEY,
+    username        VARCHAR(50) NOT NULL UNIQUE,
+    role            VARCHAR(20) NOT NULL,
+    password_hash   VARCHAR(100) NOT NULL,
+    status          VARCHAR(20) DEFAULT 'ACTIVE',
+    failed_attempts INT DEFAULT 0,
+    last_login      TIMESTAMP NULL,
+    lock_until      TIMESTAMP NULL,
+    logged_in       TINYINT DEFAULT 0
+);
+
+CREATE TABLE univ_erp.students (
+    user_id INT PRIMARY KEY,
+    roll_no VARCHAR(20) UNIQUE,
+    program VARCHAR(50),
+    year    INT
+);
+
+CREATE TABLE univ_erp.instructors (
+    user_id    INT PRIMARY KEY,
+    department VARCHAR(50)
+);
+
+CREATE TABLE univ_erp.courses (
+    course_id INT AUTO_INCREMENT PRIMARY KEY,
+    code      VARCHAR(20) NOT NULL UNIQUE,
+    title     VARCHAR(100),
+    credits   INT
+);
+
+CREATE TABLE univ_erp.sections (
+    section_id            INT AUTO_INCREMENT PRIMARY KEY,
+    course_id             INT NOT NULL,
+    instructor_id         INT NOT NULL,
+    day_of_week           VARCHAR(3),
+    start_time            TIME,
+    end_time              TIME,
+    room                  VARCHAR(20),
+    capacity              INT NOT NULL,
+    enrolled_count        INT NOT NULL DEFAULT 0,
+    semester              VARCHAR(10),
+    year                  INT,
+    registration_deadline TIMESTAMP NULL,
+    drop_deadline         TIMESTAMP NULL
+);
+CREATE INDEX idx_sections_term ON univ_erp.sections (semester, year, section_id);
+CREATE INDEX idx_sections_course ON univ_erp.sections (course_id, section_id);
+CREATE INDEX idx_sections_instructor ON univ_erp.sections (instructor_id, section_id);
+
+CREATE TABLE univ_erp.enrollments (
+    enrollment_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id    INT NOT NULL,
+    section_id    INT NOT NULL,
+    status        VARCHAR(10) NOT NULL,
+    UNIQUE (student_id, section_id)
+);
+CREATE INDEX idx_enrollments_section_status ON univ_erp.enrollments (section_id, status, student_id);
+CREATE INDEX idx_enrollments_student_status ON univ_erp.enrollments (student_id, status, section_id);
+
+CREATE TABLE univ_erp.grades (
+    grade_id      INT AUTO_INCREMENT PRIMARY KEY,
+    enrollment_id INT NOT NULL,
+    component     VARCHAR(20) NOT NULL,
+    score         DOUBLE,
+    final_grade   VARCHAR(10),
+    CONSTRAINT uq_grades_enrollment_component UNIQUE (enrollment_id, component)
+);
+
+CREATE TABLE univ_erp.grade_summaries (
+    enrollment_id  INT PRIMARY KEY,
+    quiz_score     DOUBLE,
+    midterm_score  DOUBLE,
+    endsem_score   DOUBLE,
+    final_score    DOUBLE,
+    final_grade    VARCHAR(10),
+    updated_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE univ_erp.grading_schemes (
+    section_id    INT PRIMARY KEY,
+    curve         VARCHAR(16) NOT NULL DEFAULT 'NONE',
+    curve_target  DOUBLE NOT NULL DEFAULT 0,
+    updated_at    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE univ_erp.grading_scheme_components (
+    section_id  INT NOT NULL,
+    position    INT NOT NULL,
+    component   VARCHAR(20) NOT NULL,
+    weight      DOUBLE NOT NULL,
+    max_score   DOUBLE NOT NULL DEFAULT 100,
+    PRIMARY KEY (section_id, position),
+    UNIQUE (section_id, component)
+);
+
+CREATE TABLE univ_erp.grading_scheme_cutoffs (
+    section_id  INT NOT NULL,
+    letter      VARCHAR(4) NOT NULL,
+    min_score   DOUBLE NOT NULL,
+    PRIMARY KEY (section_id, letter)
+);
+
+CREATE TABLE univ_erp.settings (
+    `key`   VARCHAR(50) PRIMARY KEY,
+    `value` VARCHAR(100)
+);
@@ -1,13 +1,32 @@
 package edu.univ.erp;
 
 import com.formdev.flatlaf.FlatLightLaf;
+import edu.univ.erp.service.SeatCountReconciler;
 import edu.univ.erp.ui.LoginFrame;
+import edu.univ.erp.util.DbUtil;
+import edu.univ.erp.util.MetricsExporter;
+import edu.univ.erp.util.SchemaMigrator;
 
 import javax.swing.*;
 public class Main {
 
     public static void main(String[] args) {
         FlatLightLaf.setup();
+
+        if (DbUtil.getBoolean("migrations.enabled", true)) {
+            try {
+                SchemaMigrator.migrateAll();
+            } catch (Exception e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(null,
+                        "Database schema upgrade failed:\n" + e.getMessage(),
+                        "University ERP", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
+        }
+
+        MetricsExporter.startIfEnabled();
+        SeatCountReconciler.startIfEnabled();
         SwingUtilities.invokeLater(() -> new LoginFrame().setVisible(true));
     }
 }
@@ -2,9 +2,14 @@ package edu.univ.erp.access;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.data.SettingsDao;
 import edu.univ.erp.domain.Role;
+import edu.univ.erp.util.DbUtil;
 
 import java.time.LocalDate;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AccessManager {
 
@@ -12,6 +17,19 @@ public class AccessManager {
 
     private final SettingsDao settingsDao = new SettingsDao();
 
+    /**
+     * In-memory copy of the settings table. Checks read it without locking or DB access;
+     * it is reloaded once older than settings.cache.ttlMs, and right away after an admin
+     * change (see {@link #refreshSettings()}).
+     */
+    private record SettingsSnapshot(boolean maintenanceOn, Map<String, LocalDate> dates, long loadedAtNanos) {
+    }
+
+    private final long settingsTtlNanos =
+            TimeUnit.MILLISECONDS.toNanos(DbUtil.getLong("settings.cache.ttlMs", 2_000));
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile SettingsSnapshot settings;
+
     public AccessManager() {
     }
 
@@ -19,25 +37,78 @@ public class AccessManager {
         return INSTANCE;
     }
 
-    // ---------- safe wrappers for SettingsDao ----------
+    // ---------- settings snapshot ----------
+
+    /**
+     * Current snapshot. When it is stale exactly one caller reloads it (others keep
+     * using the previous snapshot meanwhile); only the very first load blocks everyone.
+     */
+    private SettingsSnapshot settings() {
+        SettingsSnapshot s = settings;
+        if (s == null) {
+            synchronized (this) {
+                s = settings;
+                if (s == null) {
+                    s = loadSettings();
+                }
+            }
+            return s;
+        }
 
-    private boolean safeMaintenanceOn() {
+        if (System.nanoTime() - s.loadedAtNanos() >= settingsTtlNanos
+                && refreshing.compareAndSet(false, true)) {
+            try {
+                s = loadSettings();
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return s;
+    }
+
+    private SettingsSnapshot loadSettings() {
         try {
-            return settingsDao.isMaintenanceOn();
+            Map<String, String> values = settingsDao.loadAll();
+            boolean maintenanceOn = Boolean.parseBoolean(values.get("maintenance_on"));
+
+            // parse date-valued settings (deadlines) once per load, not once per check
+            Map<String, LocalDate> dates = new HashMap<>();
+            values.forEach((key, raw) -> {
+                LocalDate date = SettingsDao.parseDate(raw, null);
+                if (date != null) dates.put(key, date);
+            });
+
+            SettingsSnapshot s = new SettingsSnapshot(maintenanceOn, dates, System.nanoTime());
+            settings = s;
+            return s;
         } catch (Exception e) {
-            throw new RuntimeException("DB configuration error: Cannot check maintenance mode.", e);
+            throw new RuntimeException("DB configuration error: Cannot read settings.", e);
         }
     }
 
-    private LocalDate safeDateSetting(String key, LocalDate defaultValue) {
+    /**
+     * Reloads the settings snapshot now. Called after settings are changed in this process
+     * (e.g. AdminService.setMaintenance) so the change applies without waiting for the TTL.
+     */
+    public void refreshSettings() {
         try {
-            return settingsDao.getDateSetting(key, defaultValue);
-        } catch (Exception e) {
-            // Throw a runtime exception
-            throw new RuntimeException("DB configuration error: Cannot read deadline setting '" + key + "'.", e);
+            loadSettings();
+        } catch (RuntimeException e) {
+            settings = null; // next check loads again
+            throw e;
         }
     }
 
+    // ---------- safe wrappers for SettingsDao ----------
+
+    private boolean safeMaintenanceOn() {
+        return settings().maintenanceOn();
+    }
+
+    private LocalDate safeDateSetting(String key, LocalDate defaultValue) {
+        return settings().dates().getOrDefault(key, defaultValue);
+    }
+
     // ------------------------- query helpers -------------------------
 
     public boolean isReadOnly(SessionContext session) {
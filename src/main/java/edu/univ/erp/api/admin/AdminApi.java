@@ -3,13 +3,20 @@ package edu.univ.erp.api.admin;
 
 import edu.univ.erp.access.AccessDeniedException;
 import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.BulkExportOptions;
+import edu.univ.erp.domain.BulkExportResult;
 import edu.univ.erp.domain.CourseOption;
 import edu.univ.erp.domain.InstructorOption;
+import edu.univ.erp.domain.UserImportResult;
 import edu.univ.erp.service.AdminService;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 /**
  * API layer placeholder for future extension.
@@ -56,6 +63,19 @@ public class AdminApi {
         adminService.createAdminUser(session, username, password);
     }
 
+    public UserImportResult importUsersCsv(SessionContext session, File file, IntConsumer progress) throws Exception {
+        return adminService.importUsersCsv(session, file, progress);
+    }
+
+    public long exportAllGradesCsv(SessionContext session, File file, LongConsumer progress) throws Exception {
+        return adminService.exportAllGradesCsv(session, file, progress);
+    }
+
+    public BulkExportResult bulkExport(SessionContext session, BulkExportOptions options,
+                                       Consumer<BulkExportResult.Progress> progress) throws Exception {
+        return adminService.bulkExport(session, options, progress);
+    }
+
     public List<InstructorOption> listInstructors(SessionContext session) throws Exception {
         return adminService.listInstructors(session);
     }
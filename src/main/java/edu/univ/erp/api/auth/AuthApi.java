@@ -1,6 +1,7 @@
 package edu.univ.erp.api.auth;
 
 import edu.univ.erp.auth.AuthException;
+import edu.univ.erp.auth.AuthService;
 import edu.univ.erp.auth.PasswordHasher;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.util.DbUtil;
@@ -11,11 +12,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
- * Small API used only by ChangePasswordDialog.
- * Login / logout are handled directly by AuthService + LoginFrame.
+ * Password change (ChangePasswordDialog and the HTTP server) and login / logout for the
+ * HTTP server; LoginFrame still calls AuthService directly.
  */
 public class AuthApi {
 
+    private final AuthService authService = new AuthService();
+
+    public SessionContext login(String username, String password) throws AuthException {
+        return authService.login(username, password);
+    }
+
+    public void logout(SessionContext session) {
+        authService.logout(session);
+    }
+
     /**
      * Change the logged-in user's password.
      * Steps:
@@ -1,10 +1,15 @@
 package edu.univ.erp.api.instructor;
 
 import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.GradeImportResult;
 import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
+import edu.univ.erp.domain.GradingScheme;
 import edu.univ.erp.domain.InstructorSectionRow;
+import edu.univ.erp.domain.SectionStats;
 import edu.univ.erp.service.InstructorService;
 
+import java.io.File;
 import java.util.List;
 /**
  * API layer placeholder for future extension.
@@ -25,12 +30,28 @@ public class InstructorApi {
         return instructorService.getGradebook(session, sectionId);
     }
 
-    public void saveScoresAndComputeFinal(SessionContext session, int sectionId, List<GradeRow> rows) throws Exception {
-        instructorService.saveScoresAndComputeFinal(session, sectionId, rows);
+    public GradebookSaveResult saveScoresAndComputeFinal(SessionContext session, int sectionId, List<GradeRow> rows) throws Exception {
+        return instructorService.saveScoresAndComputeFinal(session, sectionId, rows);
+    }
+
+    public GradeImportResult importGradesCsv(SessionContext session, int sectionId, File file, boolean dryRun) throws Exception {
+        return instructorService.importGradesCsv(session, sectionId, file, dryRun);
+    }
+
+    public GradingScheme getGradingScheme(SessionContext session, int sectionId) throws Exception {
+        return instructorService.getGradingScheme(session, sectionId);
+    }
+
+    public GradebookSaveResult saveGradingScheme(SessionContext session, int sectionId, GradingScheme scheme) throws Exception {
+        return instructorService.saveGradingScheme(session, sectionId, scheme);
     }
 
     public double getClassAverage(SessionContext session, int sectionId) throws Exception {
         return instructorService.computeClassAverage(session, sectionId);
     }
+
+    public SectionStats getSectionStats(SessionContext session, int sectionId) throws Exception {
+        return instructorService.getSectionStats(session, sectionId);
+    }
 }
 
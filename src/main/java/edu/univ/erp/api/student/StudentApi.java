@@ -1,6 +1,8 @@
 package edu.univ.erp.api.student;
 
 import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.domain.CatalogPage;
 import edu.univ.erp.domain.CatalogSectionRow;
 import edu.univ.erp.domain.StudentGradeRow;
 import edu.univ.erp.domain.StudentTimetableRow;
@@ -21,6 +23,11 @@ public class StudentApi {
         return studentService.viewCatalog(session);
     }
 
+    public CatalogPage browseCatalog(SessionContext session, CatalogFilter filter,
+                                     CatalogPage.Cursor after, int pageSize) throws Exception {
+        return studentService.browseCatalog(session, filter, after, pageSize);
+    }
+
     public List<CatalogSectionRow> getMyRegistrations(SessionContext session) throws Exception {
         return studentService.viewMyRegistrations(session);
     }
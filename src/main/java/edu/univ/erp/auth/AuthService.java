@@ -1,49 +1,78 @@
 package edu.univ.erp.auth;
 
 import edu.univ.erp.data.AuthDao;
-import edu.univ.erp.data.AuthDao.AuthUser;
-import edu.univ.erp.domain.Role;
+import edu.univ.erp.domain.UserAuth;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Login / logout against univ_auth.users_auth.
+ *
+ * The bcrypt check runs on the shared {@link LoginExecutor} (bounded, sized to cores), not on
+ * the caller's thread. Each outcome is a single UPDATE: success resets the failure counter,
+ * clears the lock, stamps last_login and sets logged_in together; a failure bumps the counter
+ * and locks the account for LOCK_MINUTES after MAX_FAILED_ATTEMPTS. A hash stored with an
+ * outdated bcrypt cost is replaced in that same success UPDATE.
+ *
+ * Call login off the EDT: it blocks while the password is checked.
+ */
 public class AuthService {
 
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final int LOCK_MINUTES = 15;
+
+    private static final String BAD_CREDENTIALS = "Incorrect username or password.";
+
     private final AuthDao authDao = new AuthDao();
+    private final LoginExecutor loginExecutor = LoginExecutor.getInstance();
 
     public SessionContext login(String username, String plainPassword) throws AuthException {
         try {
             // 1. Look up user in Auth DB
-            AuthUser user = authDao.findByUsername(username);
+            UserAuth user = authDao.getUserAuth(username);
             if (user == null) {
-                throw new AuthException("Incorrect username or password.");
+                throw new AuthException(BAD_CREDENTIALS);
             }
 
             // 2. Check locked status
-            if ("LOCKED".equalsIgnoreCase(user.status())) {
-                throw new AuthException("Account locked after too many failed attempts.");
+            if ("LOCKED".equalsIgnoreCase(user.getStatus())) {
+                throw new AuthException("Account is locked. Please contact the administrator.");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (user.getLockUntil() != null && now.isBefore(user.getLockUntil())) {
+                throw new AuthException("Account locked after too many failed attempts. Try again after "
+                        + user.getLockUntil().withNano(0) + ".");
             }
 
-            // 3. Verify bcrypt hash
-            boolean ok = PasswordHasher.verify(plainPassword, user.passwordHash());
-            if (!ok) {
-                // increment failed attempts and maybe lock
-                authDao.incrementFailedAttempts(user.userId());
-                throw new AuthException("Incorrect username or password.");
+            // 3. Verify bcrypt hash on the login pool
+            LoginExecutor.Verification check = loginExecutor.verify(plainPassword, user.getPasswordHash());
+            if (!check.matches()) {
+                LocalDateTime lockUntil = authDao.recordFailedLogin(user.getUserId(), MAX_FAILED_ATTEMPTS,
+                        now.plusMinutes(LOCK_MINUTES));
+                throw new AuthException(lockUntil != null && now.isBefore(lockUntil)
+                        ? "Too many failed attempts. Account locked for " + LOCK_MINUTES + " minutes."
+                        : BAD_CREDENTIALS);
             }
 
-            // 4. Successful login → reset counter + update last_login
-            authDao.resetFailedAttempts(user.userId());
-            authDao.updateLastLogin(user.userId());
+            // 4. Successful login: one UPDATE for counter, lock, last_login, logged_in (+ rehash)
+            authDao.markLoginSuccess(user.getUserId(), user.getPasswordHash(), check.upgradedHash());
 
-            // 5. Build session (Role enum from DB string)
-            Role role = Role.valueOf(user.role());
-            return new SessionContext(user.userId(), user.username(), role);
+            return new SessionContext(user.getUserId(), user.getUsername(), user.getRole());
 
-        } catch (Exception e) {
+        } catch (SQLException e) {
             throw new AuthException("Login failed due to database error.", e);
         }
     }
 
-    public static class AuthException extends Exception {
-        public AuthException(String message) { super(message); }
-        public AuthException(String message, Throwable cause) { super(message, cause); }
+    /** Clears the logged-in flag; failures are logged, never shown to the user. */
+    public void logout(SessionContext session) {
+        if (session == null) return;
+        try {
+            authDao.clearLoginFlag(session.getUserId());
+        } catch (SQLException e) {
+            System.err.println("Logout: could not clear login flag for user "
+                    + session.getUserId() + ": " + e.getMessage());
+        }
     }
 }
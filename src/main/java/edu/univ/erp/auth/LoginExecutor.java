@@ -0,0 +1,153 @@
+package edu.univ.erp.auth;
+
+import edu.univ.erp.util.DbUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated pool for bcrypt password checks.
+ *
+ * A verify is ~100 ms of pure CPU, so running it on whatever thread calls login lets a
+ * login burst starve everything else. Here verifies run on a fixed number of threads
+ * (auth.login.threads, default = cores) with a bounded queue (auth.login.queueSize).
+ * When the queue is full, new logins are refused straight away (backpressure) instead of
+ * piling up; callers wait at most auth.login.timeoutMs for their turn.
+ *
+ * {@link #stats()} separates time spent queued from time spent hashing, which is what
+ * capacity planning for login peaks needs.
+ *
+ * When the password matches but the stored hash uses another cost than auth.bcrypt.cost,
+ * the same task also computes the replacement hash (see PasswordHasher.needsRehash).
+ */
+public class LoginExecutor {
+
+    private static final LoginExecutor INSTANCE = new LoginExecutor();
+
+    public static LoginExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /** Outcome of a password check; upgradedHash is non-null when the stored hash should be replaced. */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    /**
+     * Point-in-time login pool metrics.
+     */
+    public record Stats(int threads,
+                        int queueCapacity,
+                        int queued,
+                        int active,
+                        long submitted,
+                        long completed,
+                        long rejected,
+                        long timeouts,
+                        double avgQueueWaitMillis,
+                        double maxQueueWaitMillis,
+                        double avgHashMillis,
+                        double maxHashMillis) {
+    }
+
+    private final int threads = Math.max(1, DbUtil.getInt("auth.login.threads",
+            Runtime.getRuntime().availableProcessors()));
+    private final int queueCapacity = Math.max(1, DbUtil.getInt("auth.login.queueSize", 256));
+    private final long timeoutMillis = DbUtil.getLong("auth.login.timeoutMs", 30_000);
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    private LoginExecutor() {
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "login-verify-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Checks the password on the login pool (re-hashing it if needed) and waits for the result.
+     *
+     * @throws AuthException if the pool is saturated or the check did not finish in time
+     */
+    public Verification verify(String plainPassword, String storedHash) throws AuthException {
+        long enqueuedAt = System.nanoTime();
+        Future<Verification> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(queueWaitNanos, maxQueueWaitNanos, startedAt - enqueuedAt);
+                try {
+                    if (!PasswordHasher.verify(plainPassword, storedHash)) {
+                        return new Verification(false, null);
+                    }
+                    return new Verification(true, PasswordHasher.needsRehash(storedHash)
+                            ? PasswordHasher.hash(plainPassword)
+                            : null);
+                } finally {
+                    record(hashNanos, maxHashNanos, System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            });
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthException("The server is busy signing in other users. Please try again in a moment.");
+        }
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);  // still queued: skip it
+            timeouts.increment();
+            throw new AuthException("Sign-in is taking too long. Please try again in a moment.");
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new AuthException("Sign-in was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new AuthException("Password check failed.", e.getCause());
+        }
+    }
+
+    private static void record(LongAdder total, AtomicLong max, long nanos) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(threads,
+                queueCapacity,
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                submitted.sum(),
+                done,
+                rejected.sum(),
+                timeouts.sum(),
+                done == 0 ? 0 : queueWaitNanos.sum() / 1e6 / done,
+                maxQueueWaitNanos.get() / 1e6,
+                done == 0 ? 0 : hashNanos.sum() / 1e6 / done,
+                maxHashNanos.get() / 1e6);
+    }
+}
@@ -1,22 +1,53 @@
 package edu.univ.erp.auth;
 
+import edu.univ.erp.util.DbUtil;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Password hashing helper using jBCrypt only.
+ *
+ * New hashes use the cost from auth.bcrypt.cost (default 10). Existing hashes keep
+ * verifying whatever their cost; {@link #needsRehash(String)} tells the login path to
+ * re-hash them with the current cost once the user has signed in successfully.
  */
 public class PasswordHasher {
 
+    public static final int DEFAULT_COST = 10;
+    public static final int MIN_COST = 4;    // jBCrypt limits
+    public static final int MAX_COST = 30;
+
+    /** Result of {@link #calibrate(long)}: chosen cost and the verify time measured per cost. */
+    public record Calibration(int cost, double millis, Map<Integer, Double> measuredMillis) {
+    }
+
     private PasswordHasher() {
         // utility class
     }
 
-    /** Hash a plain password using BCrypt. */
+    // read on first use so tools that never hash don't need the properties file
+    private static final class Config {
+        static final int COST = clampCost(DbUtil.getInt("auth.bcrypt.cost", DEFAULT_COST));
+    }
+
+    /** Cost used for new hashes. */
+    public static int targetCost() {
+        return Config.COST;
+    }
+
+    /** Hash a plain password using BCrypt at the configured cost. */
     public static String hash(String plainPassword) {
+        return hash(plainPassword, targetCost());
+    }
+
+    /** Hash a plain password using BCrypt at an explicit cost. */
+    public static String hash(String plainPassword, int cost) {
         if (plainPassword == null) {
             throw new IllegalArgumentException("Password cannot be null");
         }
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(10));
+        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(clampCost(cost)));
     }
 
     /** Verify a plain password against a stored BCrypt hash. */
@@ -31,4 +62,66 @@ public class PasswordHasher {
             return false;
         }
     }
+
+    /** Cost encoded in a stored hash ("$2a$10$..."), or -1 if it is not a BCrypt hash. */
+    public static int costOf(String storedHash) {
+        if (storedHash == null || storedHash.length() < 7 || storedHash.charAt(0) != '$') {
+            return -1;
+        }
+        int sep = storedHash.indexOf('$', 1);
+        if (sep < 0 || sep + 3 >= storedHash.length() || storedHash.charAt(sep + 3) != '$') {
+            return -1;
+        }
+        char tens = storedHash.charAt(sep + 1);
+        char ones = storedHash.charAt(sep + 2);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /** True if a valid stored hash should be replaced by one at the configured cost. */
+    public static boolean needsRehash(String storedHash) {
+        int cost = costOf(storedHash);
+        return cost > 0 && cost != targetCost();
+    }
+
+    /**
+     * Picks the highest cost whose verify time on this machine stays within targetMillis.
+     * Each cost step doubles the work, so costs are tried upwards until one is too slow.
+     * Never returns less than MIN_COST.
+     */
+    public static Calibration calibrate(long targetMillis) {
+        Map<Integer, Double> measured = new LinkedHashMap<>();
+        int best = MIN_COST;
+        double bestMillis = 0;
+
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            double millis = timeVerify(cost);
+            measured.put(cost, millis);
+            if (millis > targetMillis) {
+                if (cost == MIN_COST) bestMillis = millis;
+                break;
+            }
+            best = cost;
+            bestMillis = millis;
+        }
+        return new Calibration(best, bestMillis, measured);
+    }
+
+    // best of a few runs (first run includes JIT warm-up)
+    private static double timeVerify(int cost) {
+        String hash = hash("calibration-password", cost);
+        double best = Double.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            BCrypt.checkpw("calibration-password", hash);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static int clampCost(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
 }
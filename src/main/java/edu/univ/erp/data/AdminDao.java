@@ -8,7 +8,13 @@ import edu.univ.erp.util.DbUtil;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 public class AdminDao {
 
     // ===== USERS =====
@@ -73,6 +79,160 @@ public class AdminDao {
         }
     }
 
+    // ===== BULK USERS (CSV import) =====
+
+    /** users_auth row to insert; the password is already hashed. */
+    public record NewAuthUser(String username, Role role, String passwordHash) {
+    }
+
+    public record StudentProfile(int userId, String rollNo, String program, int year) {
+    }
+
+    public record InstructorProfile(int userId, String department) {
+    }
+
+    /** Which of the given usernames already exist in users_auth. */
+    public Set<String> findExistingUsernames(Collection<String> usernames) throws SQLException {
+        if (usernames.isEmpty()) return Set.of();
+        String sql = "SELECT username FROM users_auth WHERE username IN (" + placeholders(usernames.size()) + ")";
+        try (Connection conn = DbUtil.getAuthConnection()) {
+            return queryStrings(conn, sql, usernames);
+        }
+    }
+
+    /** Which of the given roll numbers are already taken in students. */
+    public Set<String> findExistingRollNos(Collection<String> rollNos) throws SQLException {
+        if (rollNos.isEmpty()) return Set.of();
+        String sql = "SELECT roll_no FROM students WHERE roll_no IN (" + placeholders(rollNos.size()) + ")";
+        try (Connection conn = DbUtil.getErpConnection()) {
+            return queryStrings(conn, sql, rollNos);
+        }
+    }
+
+    /**
+     * Inserts all users in one batched transaction (all or nothing) and returns
+     * username -> generated user_id.
+     */
+    public Map<String, Integer> insertAuthUsers(List<NewAuthUser> users) throws SQLException {
+        if (users.isEmpty()) return Map.of();
+        String insert = "INSERT INTO users_auth(username, role, password_hash, status) VALUES (?, ?, ?, 'ACTIVE')";
+        String ids = "SELECT user_id, username FROM users_auth WHERE username IN (" + placeholders(users.size()) + ")";
+
+        try (Connection conn = DbUtil.getAuthConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(insert)) {
+                    for (NewAuthUser u : users) {
+                        ps.setString(1, u.username());
+                        ps.setString(2, u.role().name());
+                        ps.setString(3, u.passwordHash());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                // ids by username (unique): portable, unlike generated keys from a batch
+                Map<String, Integer> idByUsername = new HashMap<>(users.size() * 2);
+                try (PreparedStatement ps = conn.prepareStatement(ids)) {
+                    int i = 1;
+                    for (NewAuthUser u : users) {
+                        ps.setString(i++, u.username());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            idByUsername.put(rs.getString("username"), rs.getInt("user_id"));
+                        }
+                    }
+                }
+                conn.commit();
+                return idByUsername;
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Inserts student and instructor profiles in one batched transaction (all or nothing). */
+    public void insertProfiles(List<StudentProfile> students, List<InstructorProfile> instructors) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!students.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "INSERT INTO students(user_id, roll_no, program, year) VALUES (?, ?, ?, ?)")) {
+                        for (StudentProfile s : students) {
+                            ps.setInt(1, s.userId());
+                            ps.setString(2, s.rollNo());
+                            ps.setString(3, s.program());
+                            ps.setInt(4, s.year());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                if (!instructors.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "INSERT INTO instructors(user_id, department) VALUES (?, ?)")) {
+                        for (InstructorProfile ip : instructors) {
+                            ps.setInt(1, ip.userId());
+                            ps.setString(2, ip.department());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Compensation for insertAuthUsers when the profile insert fails. */
+    public void deleteAuthUsers(Collection<Integer> userIds) throws SQLException {
+        if (userIds.isEmpty()) return;
+        String sql = "DELETE FROM users_auth WHERE user_id IN (" + placeholders(userIds.size()) + ")";
+        try (Connection conn = DbUtil.getAuthConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : userIds) {
+                ps.setInt(i++, id);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    /** Creates a user with an already-hashed password and returns the generated user_id. */
+    public int createAuthUserWithHash(String username, Role role, String passwordHash) throws SQLException {
+        return insertAuthUsers(List.of(new NewAuthUser(username, role, passwordHash))).get(username);
+    }
+
+    private static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    private static Set<String> queryStrings(Connection conn, String sql, Collection<String> params) throws SQLException {
+        Set<String> found = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (String p : params) {
+                ps.setString(i++, p);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    found.add(rs.getString(1));
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * Lists all users from the Auth DB using the UserAuth domain object.
      */
@@ -263,4 +423,54 @@ public class AdminDao {
             ps.executeUpdate();
         }
     }
-}
\ No newline at end of file
+
+    // ===== BULK EXPORT =====
+
+    /** A section with at least one enrolled student (one gradebook file). */
+    public record ExportSection(int sectionId, String courseCode, String semester, int year) {
+    }
+
+    /** A student with at least one enrollment (one transcript file). */
+    public record ExportStudent(int userId, String rollNo) {
+    }
+
+    public List<ExportSection> listSectionsWithEnrollments() throws SQLException {
+        String sql = """
+                SELECT s.section_id, c.code, s.semester, s.year
+                FROM sections s
+                JOIN courses c ON s.course_id = c.course_id
+                WHERE EXISTS (SELECT 1 FROM enrollments e
+                              WHERE e.section_id = s.section_id AND e.status = 'ENROLLED')
+                ORDER BY s.section_id
+                """;
+        List<ExportSection> list = new ArrayList<>();
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new ExportSection(rs.getInt("section_id"), rs.getString("code"),
+                        rs.getString("semester"), rs.getInt("year")));
+            }
+        }
+        return list;
+    }
+
+    public List<ExportStudent> listStudentsWithEnrollments() throws SQLException {
+        String sql = """
+                SELECT st.user_id, st.roll_no
+                FROM students st
+                WHERE EXISTS (SELECT 1 FROM enrollments e
+                              WHERE e.student_id = st.user_id AND e.status = 'ENROLLED')
+                ORDER BY st.user_id
+                """;
+        List<ExportStudent> list = new ArrayList<>();
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new ExportStudent(rs.getInt("user_id"), rs.getString("roll_no")));
+            }
+        }
+        return list;
+    }
+}
@@ -118,7 +118,7 @@ import java.time.LocalDateTime;
 public class AuthDao {
 
     // Read everything we need, including failed_attempts, lock_until, logged_in
-    private static final String GET_USER_AUTH_SQL =
+    static final String GET_USER_AUTH_SQL =
             "SELECT user_id, username, role, password_hash, status, " +
                     "       failed_attempts, last_login, lock_until, logged_in " +
                     "FROM users_auth WHERE username = ?";
@@ -167,18 +167,43 @@ public class AuthDao {
      * - sets logged_in = 1 (prevents other terminals from logging in)
      */
     public void markLoginSuccess(int userId) throws SQLException {
-        String sql = """
+        markLoginSuccess(userId, null, null);
+    }
+
+    /**
+     * Same as {@link #markLoginSuccess(int)}, and in the same UPDATE replaces the password
+     * hash with newHash (re-hash at the current bcrypt cost) - but only if the stored hash is
+     * still expectedHash, so a password changed meanwhile is never overwritten.
+     * newHash == null leaves the hash alone.
+     */
+    public void markLoginSuccess(int userId, String expectedHash, String newHash) throws SQLException {
+        String sql = newHash == null
+                ? """
                 UPDATE users_auth
                 SET failed_attempts = 0,
                     lock_until      = NULL,
                     last_login      = NOW(),
                     logged_in       = 1
                 WHERE user_id = ?
+                """
+                : """
+                UPDATE users_auth
+                SET failed_attempts = 0,
+                    lock_until      = NULL,
+                    last_login      = NOW(),
+                    logged_in       = 1,
+                    password_hash   = CASE WHEN password_hash = ? THEN ? ELSE password_hash END
+                WHERE user_id = ?
                 """;
 
         try (Connection conn = DbUtil.getAuthConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, userId);
+            int i = 1;
+            if (newHash != null) {
+                ps.setString(i++, expectedHash);
+                ps.setString(i++, newHash);
+            }
+            ps.setInt(i, userId);
             ps.executeUpdate();
         }
     }
@@ -198,28 +223,50 @@ public class AuthDao {
 
     /**
      * Called on FAILED login for an existing username.
+     *
+     * Counts the failure in the row itself (failed_attempts + 1), so concurrent wrong
+     * passwords cannot overwrite each other's count. The attempt that reaches maxAttempts
+     * sets lock_until and resets the counter. Returns the row's lock_until after the update
+     * (null when not locked), read in the same transaction.
      */
-    public void updateFailedLogin(int userId, int newFailedAttempts, LocalDateTime lockUntil) throws SQLException {
-        String sql = """
+    public LocalDateTime recordFailedLogin(int userId, int maxAttempts, LocalDateTime lockUntil) throws SQLException {
+        // lock_until first: MySQL evaluates SET assignments left to right
+        String updateSql = """
                 UPDATE users_auth
-                SET failed_attempts = ?,
-                    lock_until      = ?
+                SET lock_until      = CASE WHEN failed_attempts + 1 >= ? THEN ? ELSE lock_until END,
+                    failed_attempts = CASE WHEN failed_attempts + 1 >= ? THEN 0 ELSE failed_attempts + 1 END
                 WHERE user_id = ?
                 """;
+        String selectSql = "SELECT lock_until FROM users_auth WHERE user_id = ?";
 
-        try (Connection conn = DbUtil.getAuthConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, newFailedAttempts);
-
-            if (lockUntil != null) {
-                ps.setTimestamp(2, Timestamp.valueOf(lockUntil));
-            } else {
-                ps.setNull(2, Types.TIMESTAMP);
+        try (Connection conn = DbUtil.getAuthConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+                    ps.setInt(1, maxAttempts);
+                    ps.setTimestamp(2, Timestamp.valueOf(lockUntil));
+                    ps.setInt(3, maxAttempts);
+                    ps.setInt(4, userId);
+                    ps.executeUpdate();
+                }
+                LocalDateTime result = null;
+                try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+                    ps.setInt(1, userId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            Timestamp ts = rs.getTimestamp("lock_until");
+                            result = ts == null ? null : ts.toLocalDateTime();
+                        }
+                    }
+                }
+                conn.commit();
+                return result;
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
             }
-
-            ps.setInt(3, userId);
-            ps.executeUpdate();
         }
     }
 }
@@ -0,0 +1,295 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.CatalogSectionRow;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide read-through cache for the course catalog.
+ *
+ * Holds one immutable snapshot of the catalog join, indexed by section_id and course code.
+ * The snapshot is dropped when:
+ *  - {@link #invalidate()} is called (AdminService after course / section changes), or
+ *  - it is older than catalog.cache.ttlMs (picks up changes made by other clients).
+ *
+ * Seat counts changed by this process (EnrollmentDao enroll / drop) are applied to the
+ * snapshot copy-on-write via {@link #applySeatCount(int, int)} so registration does not
+ * force a reload; counts that arrive while a reload is running are applied to the reloaded
+ * snapshot before it is installed. Rows handed out must be treated as read-only.
+ */
+public class CatalogCache {
+
+    private static final CatalogCache INSTANCE = new CatalogCache();
+
+    public static CatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        List<CatalogSectionRow> load() throws SQLException;
+    }
+
+    public record Stats(boolean enabled,
+                        long hits,
+                        long misses,
+                        long invalidations,
+                        long version,
+                        int size,
+                        long ageMillis) {
+    }
+
+    private final boolean enabled = DbUtil.getBoolean("catalog.cache.enabled", true);
+    private final long ttlMillis = DbUtil.getLong("catalog.cache.ttlMs", 60_000);
+
+    private final AtomicLong version = new AtomicLong();      // bumped by invalidate()
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private Map<Integer, Integer> pendingSeats;  // section -> enrolled during a load; guarded by this
+
+    private CatalogCache() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current snapshot, loading it through the given loader on a miss.
+     * Only one thread loads at a time; others wait for and share its result.
+     */
+    public Snapshot get(Loader loader) throws SQLException {
+        if (!enabled) {
+            misses.incrementAndGet();
+            return Snapshot.of(version.get(), loader.load());
+        }
+
+        Snapshot s = snapshot;
+        if (isFresh(s)) {
+            hits.incrementAndGet();
+            return s;
+        }
+
+        synchronized (loadLock) {
+            s = snapshot;
+            if (isFresh(s)) {
+                hits.incrementAndGet();
+                return s;
+            }
+
+            misses.incrementAndGet();
+            long v = version.get();
+            synchronized (this) {
+                pendingSeats = new HashMap<>();
+            }
+            Snapshot fresh = null;
+            try {
+                fresh = Snapshot.of(v, loader.load());
+            } finally {
+                synchronized (this) {
+                    Map<Integer, Integer> seats = pendingSeats;
+                    pendingSeats = null;
+                    // the load may predate these commits; the counts are absolute, so apply them.
+                    // Only an invalidation makes the loaded rows unusable.
+                    if (fresh != null) {
+                        fresh = fresh.withEnrolled(seats);
+                        if (version.get() == v) {
+                            snapshot = fresh;
+                        }
+                    }
+                }
+            }
+            return fresh;
+        }
+    }
+
+    private boolean isFresh(Snapshot s) {
+        return s != null
+                && s.version() == version.get()
+                && System.currentTimeMillis() - s.loadedAtMillis() < ttlMillis;
+    }
+
+    /** Drops the current snapshot; the next read reloads from the database. */
+    public void invalidate() {
+        synchronized (this) {
+            version.incrementAndGet();
+            snapshot = null;
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Sets enrolled / seats-left for one section after a committed enroll or drop.
+     * {@code enrolled} is the section's enrolled_count as written under its row lock; an
+     * absolute value, so it is correct whether or not the current snapshot was loaded
+     * before or after that commit.
+     */
+    public void applySeatCount(int sectionId, int enrolled) {
+        if (!enabled) return;
+        synchronized (this) {
+            if (pendingSeats != null) {
+                pendingSeats.put(sectionId, enrolled);
+            }
+            Snapshot s = snapshot;
+            if (s != null) {
+                snapshot = s.withEnrolled(sectionId, enrolled);
+            }
+        }
+    }
+
+    public Stats stats() {
+        Snapshot s = snapshot;
+        return new Stats(enabled,
+                hits.get(),
+                misses.get(),
+                invalidations.get(),
+                version.get(),
+                s == null ? 0 : s.rows().size(),
+                s == null ? 0 : System.currentTimeMillis() - s.loadedAtMillis());
+    }
+
+    // ===================== snapshot =====================
+
+    /**
+     * Immutable view of the catalog. Rows keep the catalog order (course code, section id).
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final long loadedAtMillis;
+        private final CatalogSectionRow[] rows;
+        private final Map<Integer, Integer> positionBySectionId;
+        private final Map<String, int[]> positionsByCourseCode;
+        private final List<CatalogSectionRow> rowList;
+
+        private Snapshot(long version,
+                         long loadedAtMillis,
+                         CatalogSectionRow[] rows,
+                         Map<Integer, Integer> positionBySectionId,
+                         Map<String, int[]> positionsByCourseCode) {
+            this.version = version;
+            this.loadedAtMillis = loadedAtMillis;
+            this.rows = rows;
+            this.positionBySectionId = positionBySectionId;
+            this.positionsByCourseCode = positionsByCourseCode;
+            this.rowList = Collections.unmodifiableList(Arrays.asList(rows));
+        }
+
+        static Snapshot of(long version, List<CatalogSectionRow> loaded) {
+            CatalogSectionRow[] rows = loaded.toArray(new CatalogSectionRow[0]);
+            Map<Integer, Integer> byId = new HashMap<>(rows.length * 2);
+            Map<String, List<Integer>> byCode = new HashMap<>();
+            for (int i = 0; i < rows.length; i++) {
+                byId.put(rows[i].getSectionId(), i);
+                byCode.computeIfAbsent(rows[i].getCourseCode(), k -> new ArrayList<>()).add(i);
+            }
+
+            Map<String, int[]> positionsByCode = new HashMap<>(byCode.size() * 2);
+            byCode.forEach((code, idx) ->
+                    positionsByCode.put(code, idx.stream().mapToInt(Integer::intValue).toArray()));
+
+            return new Snapshot(version, System.currentTimeMillis(), rows,
+                    Collections.unmodifiableMap(byId), Collections.unmodifiableMap(positionsByCode));
+        }
+
+        public long version() { return version; }
+        public long loadedAtMillis() { return loadedAtMillis; }
+
+        /** All sections in catalog order (unmodifiable). */
+        public List<CatalogSectionRow> rows() {
+            return rowList;
+        }
+
+        /** Section by id, or null. */
+        public CatalogSectionRow bySectionId(int sectionId) {
+            Integer pos = positionBySectionId.get(sectionId);
+            return pos == null ? null : rows[pos];
+        }
+
+        /** Sections for the given ids (unknown ids are skipped), in catalog order. */
+        public List<CatalogSectionRow> bySectionIds(Collection<Integer> sectionIds) {
+            int[] positions = new int[sectionIds.size()];
+            int n = 0;
+            for (Integer id : sectionIds) {
+                Integer pos = positionBySectionId.get(id);
+                if (pos != null) positions[n++] = pos;
+            }
+            Arrays.sort(positions, 0, n);
+
+            List<CatalogSectionRow> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                list.add(rows[positions[i]]);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        /** All sections of a course code (exact match), in section order. */
+        public List<CatalogSectionRow> byCourseCode(String courseCode) {
+            int[] positions = positionsByCourseCode.get(courseCode);
+            if (positions == null) return List.of();
+            List<CatalogSectionRow> list = new ArrayList<>(positions.length);
+            for (int pos : positions) {
+                list.add(rows[pos]);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        /** Copy-on-write: new snapshot sharing everything except the one changed row. */
+        Snapshot withEnrolled(int sectionId, int enrolled) {
+            return withEnrolled(Map.of(sectionId, enrolled));
+        }
+
+        /** Same for several sections (section -> enrolled) with one copy of the row array. */
+        Snapshot withEnrolled(Map<Integer, Integer> enrolledBySection) {
+            CatalogSectionRow[] copy = null;
+            for (Map.Entry<Integer, Integer> e : enrolledBySection.entrySet()) {
+                Integer pos = positionBySectionId.get(e.getKey());
+                if (pos == null) continue;
+
+                CatalogSectionRow updated = copyOf(rows[pos]);
+                updated.setEnrolled(e.getValue());
+                updated.setSeatsLeft(Math.max(updated.getCapacity() - e.getValue(), 0));
+
+                if (copy == null) copy = rows.clone();
+                copy[pos] = updated;
+            }
+            if (copy == null) return this;
+            return new Snapshot(version, loadedAtMillis, copy, positionBySectionId, positionsByCourseCode);
+        }
+
+        private static CatalogSectionRow copyOf(CatalogSectionRow src) {
+            CatalogSectionRow row = new CatalogSectionRow();
+            row.setSectionId(src.getSectionId());
+            row.setCourseId(src.getCourseId());
+            row.setCourseCode(src.getCourseCode());
+            row.setCourseTitle(src.getCourseTitle());
+            row.setInstructorId(src.getInstructorId());
+            row.setInstructorName(src.getInstructorName());
+            row.setDayOfWeek(src.getDayOfWeek());
+            row.setStartTime(src.getStartTime());
+            row.setEndTime(src.getEndTime());
+            row.setRoom(src.getRoom());
+            row.setCapacity(src.getCapacity());
+            row.setEnrolled(src.getEnrolled());
+            row.setSeatsLeft(src.getSeatsLeft());
+            row.setSemester(src.getSemester());
+            row.setYear(src.getYear());
+            row.setCredits((Integer) src.getCredits());
+            row.setRegistrationDeadline(src.getRegistrationDeadline());
+            row.setDropDeadline(src.getDropDeadline());
+            return row;
+        }
+    }
+}
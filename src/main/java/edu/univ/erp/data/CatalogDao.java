@@ -1,27 +1,33 @@
 package edu.univ.erp.data;
 
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.domain.CatalogPage;
 import edu.univ.erp.domain.CatalogSectionRow;
 import edu.univ.erp.util.DbUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class CatalogDao {
 
-    private static final String LIST_CATALOG_SQL = """
+    private static final String CATALOG_SELECT_SQL = """
             SELECT 
                 s.section_id,
                 s.course_id,
                 c.code AS course_code,
                 c.title AS course_title,
+                c.credits,
                 s.instructor_id,
-                CONCAT(u.username) AS instructor_name,   -- or full name if you store it
+                u.username AS instructor_name,   -- or full name if you store it
                 s.day_of_week,
                 s.start_time,
                 s.end_time,
                 s.room,
                 s.capacity,
+                s.enrolled_count,
                 s.semester,
                 s.year,
                 s.registration_deadline,
@@ -30,13 +36,154 @@ public class CatalogDao {
             JOIN courses c ON s.course_id = c.course_id
             JOIN instructors i ON s.instructor_id = i.user_id
             JOIN univ_auth.users_auth u ON i.user_id = u.user_id
-            ORDER BY c.code ASC, s.section_id ASC
             """;
 
+    private static final String CATALOG_ORDER_SQL = "ORDER BY c.code ASC, s.section_id ASC";
+
+    static final String LIST_CATALOG_SQL = CATALOG_SELECT_SQL + CATALOG_ORDER_SQL;
+
     /**
      * Returns the full catalog (all sections, with joined course + instructor info).
+     * Served from {@link CatalogCache}; the returned list is unmodifiable and shared.
      */
     public List<CatalogSectionRow> listCatalog() throws SQLException {
+        return CatalogCache.getInstance().get(this::loadCatalog).rows();
+    }
+
+    /**
+     * Sections of one course code, served from the cached catalog.
+     */
+    public List<CatalogSectionRow> listSectionsByCourseCode(String courseCode) throws SQLException {
+        return CatalogCache.getInstance().get(this::loadCatalog).byCourseCode(courseCode);
+    }
+
+    /**
+     * One section by id, or null. Uses the cached catalog's id index when the cache is
+     * enabled, otherwise a primary-key query.
+     */
+    public CatalogSectionRow findSection(int sectionId) throws SQLException {
+        List<CatalogSectionRow> rows = findSections(List.of(sectionId));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Sections for the given ids, in catalog order (unknown ids are skipped).
+     * Cost is proportional to the number of ids, not the size of the catalog.
+     */
+    public List<CatalogSectionRow> findSections(Collection<Integer> sectionIds) throws SQLException {
+        if (sectionIds.isEmpty()) return List.of();
+
+        CatalogCache cache = CatalogCache.getInstance();
+        if (cache.isEnabled()) {
+            return cache.get(this::loadCatalog).bySectionIds(sectionIds);
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(sectionIds.size(), "?"));
+        String sql = CATALOG_SELECT_SQL + "WHERE s.section_id IN (" + placeholders + ")\n" + CATALOG_ORDER_SQL;
+
+        List<CatalogSectionRow> list = new ArrayList<>(sectionIds.size());
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (Integer id : sectionIds) {
+                ps.setInt(i++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * One page of the catalog matching the filter, read straight from the database.
+     *
+     * Keyset pagination on (course code, section id): the page starts strictly after
+     * {@code after} (null for the first page), so deep pages cost the same as the first
+     * one, and rows inserted meanwhile never shift what the next page returns.
+     */
+    public CatalogPage findCatalogPage(CatalogFilter filter, CatalogPage.Cursor after, int pageSize)
+            throws SQLException {
+
+        List<Object> params = new ArrayList<>();
+        String sql = catalogPageSql(filter, after, pageSize, params);
+
+        List<CatalogSectionRow> rows = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapRow(rs));
+                }
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CatalogPage(rows, null);
+        }
+        rows.remove(pageSize);
+        CatalogSectionRow last = rows.get(pageSize - 1);
+        return new CatalogPage(rows, new CatalogPage.Cursor(last.getCourseCode(), last.getSectionId()));
+    }
+
+    /** The findCatalogPage query for this filter; its parameters are appended to {@code params}. */
+    static String catalogPageSql(CatalogFilter filter, CatalogPage.Cursor after, int pageSize, List<Object> params) {
+        StringBuilder sql = new StringBuilder(CATALOG_SELECT_SQL).append("WHERE 1 = 1\n");
+
+        if (filter.semester() != null && !filter.semester().isBlank()) {
+            sql.append("  AND s.semester = ?\n");
+            params.add(filter.semester().trim());
+        }
+        if (filter.year() != null) {
+            sql.append("  AND s.year = ?\n");
+            params.add(filter.year());
+        }
+        if (filter.codePrefix() != null && !filter.codePrefix().isBlank()) {
+            sql.append("  AND c.code LIKE ?\n");
+            params.add(likePrefix(filter.codePrefix()));
+        }
+        if (filter.instructorPrefix() != null && !filter.instructorPrefix().isBlank()) {
+            sql.append("  AND u.username LIKE ?\n");
+            params.add(likePrefix(filter.instructorPrefix()));
+        }
+        if (filter.dayOfWeek() != null && !filter.dayOfWeek().isBlank()) {
+            sql.append("  AND s.day_of_week = ?\n");
+            params.add(filter.dayOfWeek().trim());
+        }
+        if (filter.onlyWithSeats()) {
+            sql.append("  AND s.enrolled_count < s.capacity\n");
+        }
+        if (after != null) {
+            sql.append("  AND (c.code > ? OR (c.code = ? AND s.section_id > ?))\n");
+            params.add(after.courseCode());
+            params.add(after.courseCode());
+            params.add(after.sectionId());
+        }
+        // one extra row tells us whether another page exists
+        sql.append(CATALOG_ORDER_SQL).append("\nLIMIT ?");
+        params.add(pageSize + 1);
+        return sql.toString();
+    }
+
+    /** "CS1" -> "CS1%", with LIKE wildcards in the input escaped. */
+    private static String likePrefix(String prefix) {
+        return prefix.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Loads the catalog straight from the database (cache loader).
+     */
+    private List<CatalogSectionRow> loadCatalog() throws SQLException {
         List<CatalogSectionRow> list = new ArrayList<>();
 
         try (Connection conn = DbUtil.getErpConnection();
@@ -61,6 +208,7 @@ public class CatalogDao {
         row.setCourseId(rs.getInt("course_id"));
         row.setCourseCode(rs.getString("course_code"));
         row.setCourseTitle(rs.getString("course_title"));
+        row.setCredits(rs.getInt("credits"));
         row.setInstructorId(rs.getInt("instructor_id"));
         row.setInstructorName(rs.getString("instructor_name"));
         row.setDayOfWeek(rs.getString("day_of_week"));
@@ -68,6 +216,8 @@ public class CatalogDao {
         row.setEndTime(rs.getTime("end_time"));
         row.setRoom(rs.getString("room"));
         row.setCapacity(rs.getInt("capacity"));
+        row.setEnrolled(rs.getInt("enrolled_count"));
+        row.setSeatsLeft(Math.max(row.getCapacity() - row.getEnrolled(), 0));
         row.setSemester(rs.getString("semester"));
         row.setYear(rs.getInt("year"));
 
@@ -1,8 +1,10 @@
 package edu.univ.erp.data;
 
+import edu.univ.erp.domain.EnrollmentOutcome;
 import edu.univ.erp.util.DbUtil;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,27 +13,63 @@ import java.util.List;
  * Responsible for:
  *  - listing sections a student is enrolled in
  *  - checking if a (student, section) enrollment already exists (ENROLLED)
- *  - counting enrolled students in a section
+ *  - counting enrolled students in a section (sections.enrolled_count, kept in sync on enroll/drop)
  *  - reading section capacity
  *  - enrolling / dropping students (robust: re-enrolls dropped rows)
+ *  - atomic registration (lock section, check, enroll) via tryEnroll
+ *  - repairing enrolled_count drift (reconcileEnrolledCounts)
+ *
+ * Committed seat changes are pushed to {@link CatalogCache} so cached seat counts stay current.
  */
 public class EnrollmentDao {
 
+    // deadlock retries for tryEnroll
+    private static final int MAX_ENROLL_ATTEMPTS = 3;
+
+    private static final String LOCK_SECTION_SQL = """
+            SELECT capacity, enrolled_count, registration_deadline
+            FROM sections
+            WHERE section_id = ?
+            FOR UPDATE
+            """;
+
+    static final String LOCK_ENROLLMENT_SQL = """
+            SELECT status
+            FROM enrollments
+            WHERE student_id = ?
+              AND section_id = ?
+            FOR UPDATE
+            """;
+
+    static final String MY_SECTION_IDS_SQL = """
+            SELECT section_id
+            FROM enrollments
+            WHERE student_id = ?
+              AND status = 'ENROLLED'
+            """;
+
+    static final String IS_ENROLLED_SQL = """
+            SELECT 1
+            FROM enrollments
+            WHERE student_id = ?
+              AND section_id = ?
+              AND status = 'ENROLLED'
+            """;
+
+    private static final String INCREMENT_COUNT_SQL =
+            "UPDATE sections SET enrolled_count = enrolled_count + 1 WHERE section_id = ?";
+
+    private static final String DECREMENT_COUNT_SQL =
+            "UPDATE sections SET enrolled_count = GREATEST(enrolled_count - 1, 0) WHERE section_id = ?";
+
     /**
      * Returns IDs of sections where the student is currently ENROLLED.
      */
     public List<Integer> findMySectionIds(int studentId) throws SQLException {
-        String sql = """
-                SELECT section_id
-                FROM enrollments
-                WHERE student_id = ?
-                  AND status = 'ENROLLED'
-                """;
-
         List<Integer> ids = new ArrayList<>();
 
         try (Connection c = DbUtil.getErpConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(MY_SECTION_IDS_SQL)) {
 
             ps.setInt(1, studentId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -48,16 +86,8 @@ public class EnrollmentDao {
      * (Note: previously this checked any row regardless of status which blocked re-registering after dropping.)
      */
     public boolean isCurrentlyEnrolled(int studentId, int sectionId) throws SQLException {
-        String sql = """
-                SELECT 1
-                FROM enrollments
-                WHERE student_id = ?
-                  AND section_id = ?
-                  AND status = 'ENROLLED'
-                """;
-
         try (Connection c = DbUtil.getErpConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(IS_ENROLLED_SQL)) {
 
             ps.setInt(1, studentId);
             ps.setInt(2, sectionId);
@@ -69,160 +99,203 @@ public class EnrollmentDao {
     }
 
     /**
-     * Counts how many students are ENROLLED in a section.
+     * Registers a student in one transaction on one connection.
+     *
+     * The section row is locked first (SELECT ... FOR UPDATE), so concurrent registrations
+     * for the same section queue behind each other and the capacity check cannot be raced.
+     * Under that lock it checks, in order: section exists, registration deadline,
+     * duplicate enrollment, capacity; then inserts a new row or re-activates a DROPPED one.
+     *
+     * Deadlocks reported by MySQL (SQLState 40001) are retried a few times.
      */
-    public int countEnrolledInSection(int sectionId) throws SQLException {
-        String sql = """
-                SELECT COUNT(*) AS cnt
-                FROM enrollments
-                WHERE section_id = ?
-                  AND status = 'ENROLLED'
-                """;
+    public EnrollmentOutcome tryEnroll(int studentId, int sectionId) throws SQLException {
+        SQLException last = null;
+        for (int attempt = 1; attempt <= MAX_ENROLL_ATTEMPTS; attempt++) {
+            try {
+                return tryEnrollOnce(studentId, sectionId);
+            } catch (SQLException ex) {
+                if (!"40001".equals(ex.getSQLState())) {
+                    throw ex;
+                }
+                last = ex;
+            }
+        }
+        throw last;
+    }
 
-        try (Connection c = DbUtil.getErpConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    /** Outcome of enrollLocked and the section's enrolled_count it leaves behind. */
+    private record LockedEnroll(EnrollmentOutcome outcome, int enrolled) {
+    }
+
+    private EnrollmentOutcome tryEnrollOnce(int studentId, int sectionId) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                LockedEnroll result = enrollLocked(conn, studentId, sectionId);
+                if (result.outcome() == EnrollmentOutcome.ENROLLED) {
+                    conn.commit();
+                    CatalogCache.getInstance().applySeatCount(sectionId, result.enrolled());
+                } else {
+                    conn.rollback();
+                }
+                return result.outcome();
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
 
+    private LockedEnroll enrollLocked(Connection conn, int studentId, int sectionId) throws SQLException {
+        // 1. lock the section row (serializes registrations for this section)
+        int capacity;
+        int enrolled;
+        try (PreparedStatement ps = conn.prepareStatement(LOCK_SECTION_SQL)) {
             ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return new LockedEnroll(EnrollmentOutcome.NOT_FOUND, 0);
+                }
+                capacity = rs.getInt("capacity");
+                enrolled = rs.getInt("enrolled_count");
+                Timestamp deadline = rs.getTimestamp("registration_deadline");
+                if (deadline != null && LocalDateTime.now().isAfter(deadline.toLocalDateTime())) {
+                    return new LockedEnroll(EnrollmentOutcome.CLOSED, enrolled);
+                }
+            }
+        }
 
+        // 2. existing enrollment row for this student (if any)
+        String existingStatus = null;
+        try (PreparedStatement ps = conn.prepareStatement(LOCK_ENROLLMENT_SQL)) {
+            ps.setInt(1, studentId);
+            ps.setInt(2, sectionId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt("cnt");
+                    existingStatus = rs.getString("status");
                 }
             }
         }
-        return 0;
+        if ("ENROLLED".equalsIgnoreCase(existingStatus)) {
+            return new LockedEnroll(EnrollmentOutcome.DUPLICATE, enrolled);
+        }
+
+        // 3. capacity (consistent: nobody else can enroll in this section while we hold the lock)
+        if (enrolled >= capacity) {
+            return new LockedEnroll(EnrollmentOutcome.FULL, enrolled);
+        }
+
+        // 4. insert, or re-activate a DROPPED row
+        String sql = existingStatus == null
+                ? "INSERT INTO enrollments (student_id, section_id, status) VALUES (?, ?, 'ENROLLED')"
+                : "UPDATE enrollments SET status = 'ENROLLED' WHERE student_id = ? AND section_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, studentId);
+            ps.setInt(2, sectionId);
+            ps.executeUpdate();
+        }
+        adjustEnrolledCount(conn, sectionId, true);
+        return new LockedEnroll(EnrollmentOutcome.ENROLLED, enrolled + 1);
     }
 
     /**
-     * Reads the capacity of a section from the sections table.
+     * Applies a +1 / -1 to sections.enrolled_count inside the caller's transaction.
      */
-    public int getSectionCapacity(int sectionId) throws SQLException {
-        String sql = """
-                SELECT capacity
-                FROM sections
-                WHERE section_id = ?
-                """;
-
-        try (Connection c = DbUtil.getErpConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
+    private void adjustEnrolledCount(Connection conn, int sectionId, boolean increment) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(increment ? INCREMENT_COUNT_SQL : DECREMENT_COUNT_SQL)) {
             ps.setInt(1, sectionId);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("capacity");
-                }
-            }
+            ps.executeUpdate();
         }
-        return 0;
     }
 
     /**
-     * Enrolls a student into a section.
-     *
-     * Behavior:
-     *  - If no enrollment row exists -> insert new ENROLLED row.
-     *  - If a row exists with status = DROPPED -> update that row to ENROLLED.
-     *  - If a row exists with status = ENROLLED -> throw SQLException to indicate duplicate enrollment.
-     *
-     * This method uses a short transaction (SELECT ... FOR UPDATE) to avoid races.
+     * Marks an enrollment as DROPPED (rather than deleting the row).
+     * Only affects rows currently ENROLLED; the section's enrolled_count is decremented
+     * in the same transaction. Returns true if a row was dropped.
      *
-     * NOTE: caller must ensure capacity / deadline / maintenance checks are done beforehand.
+     * The section row is locked first, in the same order as tryEnroll, so a concurrent
+     * register and drop on one section cannot deadlock.
      */
-    public void enroll(int studentId, int sectionId) throws SQLException {
-        String selectSql = """
-                SELECT status
-                FROM enrollments
-                WHERE student_id = ?
-                  AND section_id = ?
-                FOR UPDATE
-                """;
-
-        String insertSql = """
-                INSERT INTO enrollments (student_id, section_id, status)
-                VALUES (?, ?, 'ENROLLED')
-                """;
-
-        String updateSql = """
+    public boolean drop(int studentId, int sectionId) throws SQLException {
+        String lockSql = "SELECT enrolled_count FROM sections WHERE section_id = ? FOR UPDATE";
+        String sql = """
                 UPDATE enrollments
-                SET status = 'ENROLLED'
+                SET status = 'DROPPED'
                 WHERE student_id = ?
                   AND section_id = ?
+                  AND status = 'ENROLLED'
                 """;
 
-        Connection conn = null;
-        boolean previousAutoCommit = true;
-        try {
-            conn = DbUtil.getErpConnection();
-            previousAutoCommit = conn.getAutoCommit();
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement psSelect = conn.prepareStatement(selectSql)) {
-                psSelect.setInt(1, studentId);
-                psSelect.setInt(2, sectionId);
-
-                try (ResultSet rs = psSelect.executeQuery()) {
-                    if (rs.next()) {
-                        String status = rs.getString("status");
-                        if ("ENROLLED".equalsIgnoreCase(status)) {
-                            conn.rollback();
-                            throw new SQLException("Student is already enrolled in this section.");
-                        } else {
-                            // Previously DROPPED (or other status) -> re-activate
-                            try (PreparedStatement psUpdate = conn.prepareStatement(updateSql)) {
-                                psUpdate.setInt(1, studentId);
-                                psUpdate.setInt(2, sectionId);
-                                psUpdate.executeUpdate();
-                            }
-                            conn.commit();
-                            return;
+        try (Connection c = DbUtil.getErpConnection()) {
+            c.setAutoCommit(false);
+            try {
+                int enrolled;
+                try (PreparedStatement lock = c.prepareStatement(lockSql)) {
+                    lock.setInt(1, sectionId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            c.rollback();
+                            return false; // no such section
                         }
-                    } else {
-                        // No existing row -> insert
-                        try (PreparedStatement psInsert = conn.prepareStatement(insertSql)) {
-                            psInsert.setInt(1, studentId);
-                            psInsert.setInt(2, sectionId);
-                            psInsert.executeUpdate();
-                        }
-                        conn.commit();
-                        return;
+                        enrolled = rs.getInt("enrolled_count");
                     }
                 }
-            }
-        } catch (SQLException ex) {
-            if (conn != null) {
-                try { conn.rollback(); } catch (SQLException ignored) {}
-            }
-            throw ex;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(previousAutoCommit);
-                    conn.close();
-                } catch (SQLException ignored) {}
+
+                int updated;
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, studentId);
+                    ps.setInt(2, sectionId);
+                    updated = ps.executeUpdate();
+                }
+                if (updated > 0) {
+                    adjustEnrolledCount(c, sectionId, false);
+                }
+                c.commit();
+                if (updated > 0) {
+                    CatalogCache.getInstance().applySeatCount(sectionId, Math.max(enrolled - 1, 0));
+                    SectionStatsCache.getInstance().invalidate(sectionId);
+                }
+                return updated > 0;
+            } catch (SQLException ex) {
+                try { c.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                c.setAutoCommit(true);
             }
         }
     }
 
     /**
-     * Marks an enrollment as DROPPED (rather than deleting the row).
-     * Only affects rows currently ENROLLED.
+     * Recomputes sections.enrolled_count from the enrollments table for every section
+     * whose counter has drifted. Returns the number of sections repaired.
      */
-    public void drop(int studentId, int sectionId) throws SQLException {
+    public int reconcileEnrolledCounts() throws SQLException {
         String sql = """
-                UPDATE enrollments
-                SET status = 'DROPPED'
-                WHERE student_id = ?
-                  AND section_id = ?
-                  AND status = 'ENROLLED'
+                UPDATE sections s
+                SET s.enrolled_count = (
+                    SELECT COUNT(*)
+                    FROM enrollments e
+                    WHERE e.section_id = s.section_id
+                      AND e.status = 'ENROLLED'
+                )
+                WHERE s.enrolled_count <> (
+                    SELECT COUNT(*)
+                    FROM enrollments e
+                    WHERE e.section_id = s.section_id
+                      AND e.status = 'ENROLLED'
+                )
                 """;
 
+        int repaired;
         try (Connection c = DbUtil.getErpConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setInt(1, studentId);
-            ps.setInt(2, sectionId);
-            int updated = ps.executeUpdate();
+            repaired = ps.executeUpdate();
+        }
+        if (repaired > 0) {
+            CatalogCache.getInstance().invalidate();
         }
+        return repaired;
     }
-}
\ No newline at end of file
+}
@@ -1,56 +1,138 @@
 package edu.univ.erp.data;
 
+import edu.univ.erp.domain.GradeExportRow;
 import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
 import edu.univ.erp.util.DbUtil;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class GradebookDao {
 
+    // statements per executeBatch (the driver rewrites each batch into multi-row INSERTs
+    // when rewriteBatchedStatements=true is set on the JDBC URL)
+    private static final int BATCH_SIZE = 500;
+
+    // relies on the unique key grades(enrollment_id, component), see db/erp/V2
+    private static final String UPSERT_GRADE_SQL = """
+            INSERT INTO grades (enrollment_id, component, score, final_grade)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE score = VALUES(score), final_grade = VALUES(final_grade)
+            """;
+
+    // read model of the pivot, see db/erp/V5; kept in sync with every grades write below
+    private static final String UPSERT_SUMMARY_SQL = """
+            INSERT INTO grade_summaries (enrollment_id, quiz_score, midterm_score, endsem_score, final_score, final_grade)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE quiz_score = VALUES(quiz_score),
+                                    midterm_score = VALUES(midterm_score),
+                                    endsem_score = VALUES(endsem_score),
+                                    final_score = VALUES(final_score),
+                                    final_grade = VALUES(final_grade)
+            """;
+
+    private static final String DELETE_FINAL_SQL =
+            "DELETE FROM grades WHERE enrollment_id = ? AND component = 'FINAL'";
+
+    static final String CURRENT_GRADES_SQL = """
+            SELECT e.enrollment_id, g.component, g.score, g.final_grade
+            FROM enrollments e
+            LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id
+            WHERE e.section_id = ?
+              AND e.status = 'ENROLLED'
+            """;
+
+    static final String SECTION_GRADEBOOK_SQL = """
+            SELECT e.enrollment_id,
+                   s.user_id AS student_id,
+                   s.roll_no,
+                   ua.username AS student_name,
+                   gs.quiz_score,
+                   gs.midterm_score,
+                   gs.endsem_score,
+                   gs.final_score,
+                   gs.final_grade AS final_grade_text
+            FROM enrollments e
+            JOIN students s ON e.student_id = s.user_id
+            JOIN univ_auth.users_auth ua ON s.user_id = ua.user_id
+            LEFT JOIN grade_summaries gs ON e.enrollment_id = gs.enrollment_id
+            WHERE e.section_id = ?
+              AND e.status = 'ENROLLED'
+            ORDER BY s.roll_no
+            """;
+
+    // walks enrollments by primary key; one grade_summaries row (by primary key) each
+    static final String ALL_GRADES_SQL = """
+            SELECT e.enrollment_id,
+                   e.section_id,
+                   c.code,
+                   sec.semester,
+                   sec.year,
+                   s.roll_no,
+                   ua.username AS student_name,
+                   gs.quiz_score,
+                   gs.midterm_score,
+                   gs.endsem_score,
+                   gs.final_score,
+                   gs.final_grade
+            FROM enrollments e
+            JOIN sections sec ON e.section_id = sec.section_id
+            JOIN courses c ON sec.course_id = c.course_id
+            JOIN students s ON e.student_id = s.user_id
+            JOIN univ_auth.users_auth ua ON s.user_id = ua.user_id
+            LEFT JOIN grade_summaries gs ON e.enrollment_id = gs.enrollment_id
+            WHERE e.status = 'ENROLLED'
+            ORDER BY e.enrollment_id
+            """;
+
+    static final String SECTION_SCORES_SQL = """
+            SELECT g.component, g.score, g.final_grade
+            FROM enrollments e
+            JOIN grades g ON e.enrollment_id = g.enrollment_id
+            WHERE e.section_id = ?
+              AND e.status = 'ENROLLED'
+              AND g.score IS NOT NULL
+            """;
+
+    /**
+     * Every score of a section by component (unsorted), plus how many students got each
+     * final letter grade. Input of the section statistics.
+     */
+    public record SectionScores(Map<String, double[]> scores, Map<String, Integer> letterCounts) {
+    }
+
+    /** One stored grades row, used to skip writes that would not change anything. */
+    private record StoredGrade(Double score, String finalGrade) {
+    }
+
+    /** Running counts for one saveSectionGrades call. */
+    private static final class Tally {
+        int inserted;
+        int updated;
+        int unchanged;
+        int queued;
+    }
+
     /**
      * Fetch gradebook for a section: one row per enrolled student, with scores aggregated.
      */
     public List<GradeRow> getGradebookForSection(int sectionId) throws SQLException {
-        String sql = """
-                SELECT e.enrollment_id,
-                       s.user_id AS student_id,
-                       s.roll_no,
-                       ua.username AS student_name,
-                       MAX(CASE WHEN g.component = 'QUIZ'   THEN g.score END)  AS quiz_score,
-                       MAX(CASE WHEN g.component = 'MIDTERM' THEN g.score END) AS midterm_score,
-                       MAX(CASE WHEN g.component = 'ENDSEM' THEN g.score END)  AS endsem_score,
-                       MAX(CASE WHEN g.component = 'FINAL'  THEN g.score END)  AS final_score,
-                       MAX(CASE WHEN g.component = 'FINAL'  THEN g.final_grade END) AS final_grade_text
-                FROM enrollments e
-                JOIN students s ON e.student_id = s.user_id
-                JOIN univ_auth.users_auth ua ON s.user_id = ua.user_id
-                LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id
-                WHERE e.section_id = ?
-                  AND e.status = 'ENROLLED'
-                GROUP BY e.enrollment_id, s.user_id, s.roll_no, ua.username
-                ORDER BY s.roll_no
-                """;
-
         List<GradeRow> list = new ArrayList<>();
 
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(SECTION_GRADEBOOK_SQL)) {
             ps.setInt(1, sectionId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     GradeRow row = new GradeRow();
-                    row.setEnrollmentId(rs.getInt("enrollment_id"));
-                    row.setStudentId(rs.getInt("student_id"));
-                    row.setRollNo(rs.getString("roll_no"));
-                    row.setStudentName(rs.getString("student_name"));
-                    // Use rs.getObject for potential nulls
-                    row.setQuizScore((Double) rs.getObject("quiz_score"));
-                    row.setMidtermScore((Double) rs.getObject("midterm_score"));
-                    row.setEndsemScore((Double) rs.getObject("endsem_score"));
-                    row.setFinalScore((Double) rs.getObject("final_score"));
-                    row.setFinalGradeText(rs.getString("final_grade_text")); // Add this field mapping
+                    mapGradeRow(rs, row);
                     list.add(row);
                 }
             }
@@ -59,70 +141,267 @@ public class GradebookDao {
     }
 
     /**
-     * Insert or update a grade component score.
+     * Same rows as getGradebookForSection, handed to {@code handler} one at a time (in one
+     * reused GradeRow) instead of being collected, for exports.
      */
-    public void upsertComponentScore(int enrollmentId, String component, Double score) throws SQLException {
-        if (score == null) return; // nothing to save
+    public void streamGradebookForSection(int sectionId, RowHandler<GradeRow> handler)
+            throws SQLException, IOException {
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = DbUtil.prepareStreaming(conn, SECTION_GRADEBOOK_SQL)) {
+            ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                GradeRow row = new GradeRow();
+                while (rs.next()) {
+                    mapGradeRow(rs, row);
+                    handler.handle(row);
+                }
+            }
+        }
+    }
 
-        String selectSql = "SELECT grade_id FROM grades WHERE enrollment_id = ? AND component = ?";
+    private static void mapGradeRow(ResultSet rs, GradeRow row) throws SQLException {
+        row.setEnrollmentId(rs.getInt("enrollment_id"));
+        row.setStudentId(rs.getInt("student_id"));
+        row.setRollNo(rs.getString("roll_no"));
+        row.setStudentName(rs.getString("student_name"));
+        // Use rs.getObject for potential nulls
+        row.setQuizScore((Double) rs.getObject("quiz_score"));
+        row.setMidtermScore((Double) rs.getObject("midterm_score"));
+        row.setEndsemScore((Double) rs.getObject("endsem_score"));
+        row.setFinalScore((Double) rs.getObject("final_score"));
+        row.setFinalGradeText(rs.getString("final_grade_text"));
+    }
+
+    /**
+     * Every enrolled student's grades in every section, one call per enrollment in
+     * enrollment_id order, for registrar-wide exports.
+     *
+     * Reads one grade_summaries row per enrollment from a streaming result set, so neither
+     * the database (no GROUP BY / temp table) nor this process holds more than the current
+     * enrollment.
+     */
+    public long streamAllGrades(RowHandler<GradeExportRow> handler) throws SQLException, IOException {
+        long enrollments = 0;
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement sel = conn.prepareStatement(selectSql)) {
-            sel.setInt(1, enrollmentId);
-            sel.setString(2, component);
-            try (ResultSet rs = sel.executeQuery()) {
-                if (rs.next()) {
-                    int gradeId = rs.getInt(1);
-                    String updateSql = "UPDATE grades SET score = ? WHERE grade_id = ?";
-                    try (PreparedStatement upd = conn.prepareStatement(updateSql)) {
-                        upd.setDouble(1, score);
-                        upd.setInt(2, gradeId);
-                        upd.executeUpdate();
+             PreparedStatement ps = DbUtil.prepareStreaming(conn, ALL_GRADES_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            GradeExportRow row = new GradeExportRow();
+            while (rs.next()) {
+                enrollments++;
+                row.setEnrollmentId(rs.getInt("enrollment_id"));
+                row.setSectionId(rs.getInt("section_id"));
+                row.setCourseCode(rs.getString("code"));
+                row.setSemester(rs.getString("semester"));
+                row.setYear(rs.getInt("year"));
+                row.setRollNo(rs.getString("roll_no"));
+                row.setStudentName(rs.getString("student_name"));
+                row.setQuizScore((Double) rs.getObject("quiz_score"));
+                row.setMidtermScore((Double) rs.getObject("midterm_score"));
+                row.setEndsemScore((Double) rs.getObject("endsem_score"));
+                row.setFinalScore((Double) rs.getObject("final_score"));
+                row.setFinalGradeText(rs.getString("final_grade"));
+                handler.handle(row);
+            }
+        }
+        return enrollments;
+    }
+
+    /**
+     * All scores of the section's enrolled students, one column per component. Reads only
+     * enrollments and grades (no per-student pivot or user join).
+     */
+    public SectionScores getSectionScores(int sectionId) throws SQLException {
+        Map<String, double[]> columns = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        Map<String, Integer> letters = new HashMap<>();
+
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement(SECTION_SCORES_SQL)) {
+            ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String component = rs.getString("component");
+                    double score = rs.getDouble("score");
+
+                    int size = sizes.getOrDefault(component, 0);
+                    double[] column = columns.get(component);
+                    if (column == null || column.length == size) {
+                        column = column == null ? new double[64] : Arrays.copyOf(column, size * 2);
+                        columns.put(component, column);
                     }
-                } else {
-                    String insertSql = "INSERT INTO grades(enrollment_id, component, score) VALUES (?, ?, ?)";
-                    try (PreparedStatement ins = conn.prepareStatement(insertSql)) {
-                        ins.setInt(1, enrollmentId);
-                        ins.setString(2, component);
-                        ins.setDouble(3, score);
-                        ins.executeUpdate();
+                    column[size] = score;
+                    sizes.put(component, size + 1);
+
+                    if ("FINAL".equals(component)) {
+                        String letter = rs.getString("final_grade");
+                        if (letter != null) letters.merge(letter, 1, Integer::sum);
                     }
                 }
             }
         }
+
+        Map<String, double[]> scores = new HashMap<>();
+        columns.forEach((component, column) -> scores.put(component, Arrays.copyOf(column, sizes.get(component))));
+        return new SectionScores(scores, letters);
     }
 
     /**
-     * Save the final calculated score and the final letter grade text.
+     * Saves a whole section's scores in one transaction on one connection.
+     *
+     * Current grades for the section are read once, components whose value did not change
+     * are skipped, and the rest are written as batched INSERT ... ON DUPLICATE KEY UPDATE.
+     * FINAL is written with its letter/text grade when the row has a final score; a row
+     * without one has no computable final, so a stored FINAL is deleted.
+     * Rows whose enrollment is not ENROLLED in this section are skipped, not written.
+     * grade_summaries rows of students with a changed grade are rewritten in the same
+     * transaction.
      */
-    public void upsertFinalScore(int enrollmentId, Double finalScore, String finalGradeText) throws SQLException {
-        if (finalScore == null) return;
+    public GradebookSaveResult saveSectionGrades(int sectionId, List<GradeRow> rows) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, Map<String, StoredGrade>> current = loadCurrentGrades(conn, sectionId);
 
-        String selectSql = "SELECT grade_id FROM grades WHERE enrollment_id = ? AND component = 'FINAL'";
-        try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement sel = conn.prepareStatement(selectSql)) {
-            sel.setInt(1, enrollmentId);
-            try (ResultSet rs = sel.executeQuery()) {
-                if (rs.next()) {
-                    int gradeId = rs.getInt(1);
-                    // CRITICAL FIX: Update final_grade column with the letter grade text
-                    String updateSql = "UPDATE grades SET score = ?, final_grade = ? WHERE grade_id = ?";
-                    try (PreparedStatement upd = conn.prepareStatement(updateSql)) {
-                        upd.setDouble(1, finalScore);
-                        upd.setString(2, finalGradeText);
-                        upd.setInt(3, gradeId);
-                        upd.executeUpdate();
+                Tally tally = new Tally();
+                int students = 0;
+                int skipped = 0;
+                int summaries = 0;
+                int cleared = 0;
+                try (PreparedStatement ps = conn.prepareStatement(UPSERT_GRADE_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_FINAL_SQL);
+                     PreparedStatement summary = conn.prepareStatement(UPSERT_SUMMARY_SQL)) {
+                    for (GradeRow row : rows) {
+                        Map<String, StoredGrade> stored = current.get(row.getEnrollmentId());
+                        if (stored == null) {
+                            skipped++;
+                            continue;
+                        }
+                        students++;
+
+                        int enrollmentId = row.getEnrollmentId();
+                        boolean changed = queueUpsert(ps, tally, stored, enrollmentId, "QUIZ", row.getQuizScore(), null);
+                        changed |= queueUpsert(ps, tally, stored, enrollmentId, "MIDTERM", row.getMidtermScore(), null);
+                        changed |= queueUpsert(ps, tally, stored, enrollmentId, "ENDSEM", row.getEndsemScore(), null);
+                        changed |= queueUpsert(ps, tally, stored, enrollmentId, "FINAL", row.getFinalScore(), row.getFinalGradeText());
+                        if (row.getFinalScore() == null && stored.containsKey("FINAL")) {
+                            delete.setInt(1, enrollmentId);
+                            delete.addBatch();
+                            if (++cleared % BATCH_SIZE == 0) delete.executeBatch();
+                            tally.updated++;
+                            changed = true;
+                        }
+
+                        if (changed) {
+                            queueSummary(summary, row, stored);
+                            if (++summaries % BATCH_SIZE == 0) summary.executeBatch();
+                        }
+                    }
+                    if (tally.queued % BATCH_SIZE != 0) {
+                        ps.executeBatch();
+                    }
+                    if (cleared % BATCH_SIZE != 0) {
+                        delete.executeBatch();
                     }
-                } else {
-                    //final_grade text
-                    String insertSql = "INSERT INTO grades(enrollment_id, component, score, final_grade) VALUES (?, 'FINAL', ?, ?)";
-                    try (PreparedStatement ins = conn.prepareStatement(insertSql)) {
-                        ins.setInt(1, enrollmentId);
-                        ins.setDouble(2, finalScore);
-                        ins.setString(3, finalGradeText);
-                        ins.executeUpdate();
+                    if (summaries % BATCH_SIZE != 0) {
+                        summary.executeBatch();
                     }
                 }
+
+                conn.commit();
+                SectionStatsCache.getInstance().invalidate(sectionId);
+                return new GradebookSaveResult(students, tally.inserted, tally.updated, tally.unchanged, skipped);
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * enrollment_id -> (component -> stored grade) for every ENROLLED student of the section.
+     * Students without any grades map to an empty component map.
+     */
+    private Map<Integer, Map<String, StoredGrade>> loadCurrentGrades(Connection conn, int sectionId) throws SQLException {
+        Map<Integer, Map<String, StoredGrade>> current = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(CURRENT_GRADES_SQL)) {
+            ps.setInt(1, sectionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, StoredGrade> byComponent =
+                            current.computeIfAbsent(rs.getInt("enrollment_id"), k -> new HashMap<>());
+                    String component = rs.getString("component");
+                    if (component != null) {
+                        double score = rs.getDouble("score");
+                        Double boxed = rs.wasNull() ? null : score;
+                        byComponent.put(component, new StoredGrade(boxed, rs.getString("final_grade")));
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Queues the component's upsert unless there is nothing to write; returns true if queued. */
+    private boolean queueUpsert(PreparedStatement ps,
+                                Tally tally,
+                                Map<String, StoredGrade> stored,
+                                int enrollmentId,
+                                String component,
+                                Double score,
+                                String finalGrade) throws SQLException {
+        if (score == null) return false; // nothing to save
+
+        StoredGrade old = stored.get(component);
+        if (old != null && Objects.equals(old.score(), score) && Objects.equals(old.finalGrade(), finalGrade)) {
+            tally.unchanged++;
+            return false;
+        }
+        if (old == null) {
+            tally.inserted++;
+        } else {
+            tally.updated++;
+        }
+
+        ps.setInt(1, enrollmentId);
+        ps.setString(2, component);
+        ps.setDouble(3, score);
+        ps.setString(4, finalGrade);
+        ps.addBatch();
+        if (++tally.queued % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Summary of the row after the save: new scores where given, stored ones otherwise. The
+     * final is always the row's (cleared when it has none).
+     */
+    private static void queueSummary(PreparedStatement ps, GradeRow row, Map<String, StoredGrade> stored)
+            throws SQLException {
+
+        ps.setInt(1, row.getEnrollmentId());
+        setScore(ps, 2, row.getQuizScore() != null ? row.getQuizScore() : storedScore(stored, "QUIZ"));
+        setScore(ps, 3, row.getMidtermScore() != null ? row.getMidtermScore() : storedScore(stored, "MIDTERM"));
+        setScore(ps, 4, row.getEndsemScore() != null ? row.getEndsemScore() : storedScore(stored, "ENDSEM"));
+        setScore(ps, 5, row.getFinalScore());
+        ps.setString(6, row.getFinalGradeText());
+        ps.addBatch();
+    }
+
+    private static Double storedScore(Map<String, StoredGrade> stored, String component) {
+        StoredGrade g = stored.get(component);
+        return g == null ? null : g.score();
+    }
+
+    private static void setScore(PreparedStatement ps, int index, Double score) throws SQLException {
+        if (score == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, score);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.SQLException;
+
+/**
+ * Process-wide cache of grading schemes by section.
+ *
+ * Every final-grade computation needs the section's scheme, so it is read once and kept for
+ * grading.schemeCache.ttlMs (picks up changes made by other clients). InstructorService
+ * calls {@link #invalidate(int)} after changing a scheme. Sections without a stored scheme
+ * are cached as GradingScheme.DEFAULT.
+ */
+public class GradingSchemeCache extends SectionCache<GradingScheme> {
+
+    private static final GradingSchemeCache INSTANCE = new GradingSchemeCache();
+
+    public static GradingSchemeCache getInstance() {
+        return INSTANCE;
+    }
+
+    private GradingSchemeCache() {
+        super(DbUtil.getLong("grading.schemeCache.ttlMs", 60_000));
+    }
+
+    /** {@code loader} returns the stored scheme, or null for the default. */
+    @Override
+    public GradingScheme get(int sectionId, Loader<GradingScheme> loader) throws SQLException {
+        return super.get(sectionId, () -> {
+            GradingScheme stored = loader.load();
+            return stored != null ? stored : GradingScheme.DEFAULT;
+        });
+    }
+}
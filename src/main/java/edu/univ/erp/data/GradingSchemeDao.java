@@ -0,0 +1,144 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * grading_schemes and its component / cutoff tables (db/erp/V4).
+ * Reads normally go through GradingSchemeCache.
+ */
+public class GradingSchemeDao {
+
+    /** The section's stored scheme, or null when it uses GradingScheme.DEFAULT. */
+    public GradingScheme findScheme(int sectionId) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            GradingScheme.Curve curve;
+            double curveTarget;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT curve, curve_target FROM grading_schemes WHERE section_id = ?")) {
+                ps.setInt(1, sectionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    curve = GradingScheme.Curve.valueOf(rs.getString("curve"));
+                    curveTarget = rs.getDouble("curve_target");
+                }
+            }
+
+            List<GradingScheme.Component> components = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement("""
+                    SELECT component, weight, max_score
+                    FROM grading_scheme_components
+                    WHERE section_id = ?
+                    ORDER BY position
+                    """)) {
+                ps.setInt(1, sectionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        components.add(new GradingScheme.Component(
+                                rs.getString("component"), rs.getDouble("weight"), rs.getDouble("max_score")));
+                    }
+                }
+            }
+
+            List<GradingScheme.Cutoff> cutoffs = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT letter, min_score FROM grading_scheme_cutoffs WHERE section_id = ?")) {
+                ps.setInt(1, sectionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        cutoffs.add(new GradingScheme.Cutoff(rs.getString("letter"), rs.getDouble("min_score")));
+                    }
+                }
+            }
+            return new GradingScheme(components, cutoffs, curve, curveTarget);
+        }
+    }
+
+    /** Replaces the section's scheme (all three tables) in one transaction. */
+    public void saveScheme(int sectionId, GradingScheme scheme) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                deleteChildren(conn, sectionId);
+
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO grading_schemes (section_id, curve, curve_target)
+                        VALUES (?, ?, ?)
+                        ON DUPLICATE KEY UPDATE curve = VALUES(curve), curve_target = VALUES(curve_target)
+                        """)) {
+                    ps.setInt(1, sectionId);
+                    ps.setString(2, scheme.curve().name());
+                    ps.setDouble(3, scheme.curveTarget());
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO grading_scheme_components (section_id, position, component, weight, max_score)
+                        VALUES (?, ?, ?, ?, ?)
+                        """)) {
+                    int position = 0;
+                    for (GradingScheme.Component c : scheme.components()) {
+                        ps.setInt(1, sectionId);
+                        ps.setInt(2, position++);
+                        ps.setString(3, c.name());
+                        ps.setDouble(4, c.weight());
+                        ps.setDouble(5, c.maxScore());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO grading_scheme_cutoffs (section_id, letter, min_score) VALUES (?, ?, ?)")) {
+                    for (GradingScheme.Cutoff c : scheme.cutoffs()) {
+                        ps.setInt(1, sectionId);
+                        ps.setString(2, c.letter());
+                        ps.setDouble(3, c.minScore());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                conn.commit();
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Drops the section's scheme; it falls back to GradingScheme.DEFAULT. */
+    public void deleteScheme(int sectionId) throws SQLException {
+        try (Connection conn = DbUtil.getErpConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                deleteChildren(conn, sectionId);
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM grading_schemes WHERE section_id = ?")) {
+                    ps.setInt(1, sectionId);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void deleteChildren(Connection conn, int sectionId) throws SQLException {
+        for (String table : new String[]{"grading_scheme_components", "grading_scheme_cutoffs"}) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + table + " WHERE section_id = ?")) {
+                ps.setInt(1, sectionId);
+                ps.executeUpdate();
+            }
+        }
+    }
+}
@@ -9,34 +9,31 @@ import java.util.List;
 
 public class InstructorDao {
 
-    public List<InstructorSectionRow> findSectionsForInstructor(int instructorUserId) throws SQLException {
-        String sql = """
-                SELECT s.section_id,
-                       c.code,
-                       c.title,
-                       s.day_of_week,
-                       DATE_FORMAT(s.start_time, '%H:%i') AS start_time,
-                       DATE_FORMAT(s.end_time, '%H:%i')   AS end_time,
-                       s.room,
-                       s.semester,
-                       s.year,
-                       COALESCE(ec.enrolled, 0) AS enrolled
-                FROM sections s
-                JOIN courses c ON s.course_id = c.course_id
-                LEFT JOIN (
-                    SELECT section_id, COUNT(*) AS enrolled
-                    FROM enrollments
-                    WHERE status = 'ENROLLED'
-                    GROUP BY section_id
-                ) ec ON s.section_id = ec.section_id
-                WHERE s.instructor_id = ?
-                ORDER BY s.year, s.semester, c.code
-                """;
+    static final String INSTRUCTOR_SECTIONS_SQL = """
+            SELECT s.section_id,
+                   c.code,
+                   c.title,
+                   s.day_of_week,
+                   DATE_FORMAT(s.start_time, '%H:%i') AS start_time,
+                   DATE_FORMAT(s.end_time, '%H:%i')   AS end_time,
+                   s.room,
+                   s.semester,
+                   s.year,
+                   s.capacity,
+                   s.enrolled_count AS enrolled
+            FROM sections s
+            JOIN courses c ON s.course_id = c.course_id
+            WHERE s.instructor_id = ?
+            ORDER BY s.year, s.semester, c.code
+            """;
+
+    static final String SECTION_OWNER_SQL = "SELECT 1 FROM sections WHERE section_id = ? AND instructor_id = ?";
 
+    public List<InstructorSectionRow> findSectionsForInstructor(int instructorUserId) throws SQLException {
         List<InstructorSectionRow> list = new ArrayList<>();
 
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(INSTRUCTOR_SECTIONS_SQL)) {
             ps.setInt(1, instructorUserId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -49,6 +46,7 @@ public class InstructorDao {
                     row.setRoom(rs.getString("room"));
                     row.setSemester(rs.getString("semester"));
                     row.setYear(rs.getInt("year"));
+                    row.setCapacity(rs.getInt("capacity"));
                     row.setEnrolledCount(rs.getInt("enrolled"));
                     list.add(row);
                 }
@@ -61,10 +59,8 @@ public class InstructorDao {
      * Checks if the given user ID is the assigned instructor for the section ID.
      */
     public boolean isInstructorAssignedToSection(int instructorUserId, int sectionId) throws SQLException {
-        String sql = "SELECT 1 FROM sections WHERE section_id = ? AND instructor_id = ?";
-
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(SECTION_OWNER_SQL)) {
 
             ps.setInt(1, sectionId);
             ps.setInt(2, instructorUserId);
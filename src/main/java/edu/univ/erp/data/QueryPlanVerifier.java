@@ -0,0 +1,190 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAINs the hot DAO queries (the same SQL constants the DAOs run) against the configured
+ * databases and flags full scans, so a missing index shows up before it shows up as latency.
+ *
+ * MySQL: a plan row with type ALL (table scan) or index (full index scan) is a problem;
+ * "Using temporary" / "Using filesort" are listed as notes. Other databases (the H2 bench
+ * database) print a text plan; "tableScan" in it is flagged. Queries that read a whole table
+ * on purpose (full catalog, registrar export) are marked and not flagged.
+ *
+ * Parameters are bound to real ids taken from the database so the optimizer does not
+ * short-circuit the plan ("Impossible WHERE").
+ */
+public class QueryPlanVerifier {
+
+    public record Result(String name, String database, List<String> plan, List<String> problems,
+                         List<String> notes, String error) {
+        public boolean ok() {
+            return error == null && problems.isEmpty();
+        }
+    }
+
+    private record Check(String name, String database, String sql, boolean wholeTable, List<Object> params) {
+    }
+
+    private record Samples(int studentId, int sectionId, int instructorId, String username,
+                           String semester, Integer year) {
+    }
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\*\\s*([\\w.]+)\\.tableScan");
+
+    public List<Result> verify() throws SQLException {
+        Samples s = samples();
+        List<Object> page = new ArrayList<>();
+        String pageSql = CatalogDao.catalogPageSql(
+                new CatalogFilter(s.semester(), s.year(), null, null, null, false), null, 50, page);
+
+        List<Check> checks = List.of(
+                new Check("AuthDao.getUserAuth", "auth", AuthDao.GET_USER_AUTH_SQL, false, List.of(s.username())),
+                new Check("CatalogDao.listCatalog", "erp", CatalogDao.LIST_CATALOG_SQL, true, List.of()),
+                new Check("CatalogDao.findCatalogPage", "erp", pageSql, false, page),
+                new Check("EnrollmentDao.findMySectionIds", "erp", EnrollmentDao.MY_SECTION_IDS_SQL, false,
+                        List.of(s.studentId())),
+                new Check("EnrollmentDao.isCurrentlyEnrolled", "erp", EnrollmentDao.IS_ENROLLED_SQL, false,
+                        List.of(s.studentId(), s.sectionId())),
+                new Check("EnrollmentDao.tryEnroll (enrollment lock)", "erp", EnrollmentDao.LOCK_ENROLLMENT_SQL, false,
+                        List.of(s.studentId(), s.sectionId())),
+                new Check("InstructorDao.findSectionsForInstructor", "erp", InstructorDao.INSTRUCTOR_SECTIONS_SQL, false,
+                        List.of(s.instructorId())),
+                new Check("InstructorDao.isInstructorAssignedToSection", "erp", InstructorDao.SECTION_OWNER_SQL, false,
+                        List.of(s.sectionId(), s.instructorId())),
+                new Check("GradebookDao.getGradebookForSection", "erp", GradebookDao.SECTION_GRADEBOOK_SQL, false,
+                        List.of(s.sectionId())),
+                new Check("GradebookDao.saveSectionGrades (current grades)", "erp", GradebookDao.CURRENT_GRADES_SQL, false,
+                        List.of(s.sectionId())),
+                new Check("GradebookDao.getSectionScores", "erp", GradebookDao.SECTION_SCORES_SQL, false,
+                        List.of(s.sectionId())),
+                new Check("GradebookDao.streamAllGrades", "erp", GradebookDao.ALL_GRADES_SQL, true, List.of()),
+                new Check("StudentViewDao.getGradesForStudent", "erp", StudentViewDao.STUDENT_GRADES_SQL, false,
+                        List.of(s.studentId())),
+                new Check("StudentViewDao.getTimetableForStudent", "erp", StudentViewDao.STUDENT_TIMETABLE_SQL, false,
+                        List.of(s.studentId())));
+
+        List<Result> results = new ArrayList<>();
+        for (Check check : checks) {
+            results.add(explain(check));
+        }
+        return results;
+    }
+
+    private Result explain(Check check) {
+        List<String> plan = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        List<String> notes = new ArrayList<>();
+
+        try (Connection conn = "auth".equals(check.database()) ? DbUtil.getAuthConnection() : DbUtil.getErpConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN " + check.sql())) {
+            for (int i = 0; i < check.params().size(); i++) {
+                ps.setObject(i + 1, check.params().get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (hasColumn(rs.getMetaData(), "type")) {
+                    readMySqlPlan(rs, check, plan, problems, notes);
+                } else {
+                    readTextPlan(rs, check, plan, problems);
+                }
+            }
+        } catch (SQLException e) {
+            return new Result(check.name(), check.database(), plan, problems, notes, e.getMessage());
+        }
+        return new Result(check.name(), check.database(), plan, problems, notes, null);
+    }
+
+    private static void readMySqlPlan(ResultSet rs, Check check, List<String> plan,
+                                      List<String> problems, List<String> notes) throws SQLException {
+        while (rs.next()) {
+            String table = rs.getString("table");
+            String type = rs.getString("type");
+            String key = rs.getString("key");
+            String rows = rs.getString("rows");
+            String extra = rs.getString("Extra");
+            plan.add(String.format("%-14s type=%-7s key=%-34s rows=%-8s %s",
+                    table, type, key, rows, extra == null ? "" : extra));
+
+            if (!check.wholeTable()) {
+                if ("ALL".equals(type)) {
+                    problems.add("full table scan of " + table + " (~" + rows + " rows)");
+                } else if ("index".equals(type)) {
+                    problems.add("full index scan of " + table + " on " + key + " (~" + rows + " rows)");
+                }
+            }
+            if (extra != null && (extra.contains("Using temporary") || extra.contains("Using filesort"))) {
+                notes.add(table + ": " + extra);
+            }
+        }
+    }
+
+    private static void readTextPlan(ResultSet rs, Check check, List<String> plan, List<String> problems)
+            throws SQLException {
+        while (rs.next()) {
+            String text = rs.getString(1);
+            plan.addAll(List.of(text.split("\\R")));
+            if (check.wholeTable()) continue;
+            Matcher m = H2_TABLE_SCAN.matcher(text);
+            while (m.find()) {
+                problems.add("full table scan of " + m.group(1));
+            }
+        }
+    }
+
+    private static boolean hasColumn(ResultSetMetaData meta, String name) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(meta.getColumnLabel(i))) return true;
+        }
+        return false;
+    }
+
+    // real ids / term so the optimizer plans the normal path; 1 / "admin" / any term on an empty database
+    private static Samples samples() throws SQLException {
+        int studentId = 1;
+        int sectionId = 1;
+        int instructorId = 1;
+        String username = "admin";
+        String semester = null;
+        Integer year = null;
+        try (Connection conn = DbUtil.getErpConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT student_id, section_id FROM enrollments WHERE status = 'ENROLLED' ORDER BY enrollment_id LIMIT 1");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    studentId = rs.getInt("student_id");
+                    sectionId = rs.getInt("section_id");
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT instructor_id, semester, year FROM sections WHERE section_id = ?")) {
+                ps.setInt(1, sectionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        instructorId = rs.getInt("instructor_id");
+                        semester = rs.getString("semester");
+                        year = rs.getObject("year", Integer.class);
+                    }
+                }
+            }
+        }
+        try (Connection conn = DbUtil.getAuthConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT username FROM users_auth WHERE user_id = ?")) {
+            ps.setInt(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) username = rs.getString("username");
+            }
+        }
+        return new Samples(studentId, sectionId, instructorId, username, semester, year);
+    }
+}
@@ -0,0 +1,14 @@
+package edu.univ.erp.data;
+
+import java.io.IOException;
+
+/**
+ * Callback for the streaming DAO queries (stream* methods): receives one row at a time
+ * while the result set is still open. The same row object is reused for every call, so
+ * copy anything that must outlive the call.
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    void handle(T row) throws IOException;
+}
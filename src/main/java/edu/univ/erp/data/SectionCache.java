@@ -0,0 +1,55 @@
+package edu.univ.erp.data;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of one value per section (see GradingSchemeCache, SectionStatsCache).
+ *
+ * A value is kept for the cache's TTL, which picks up changes made by other clients, and
+ * dropped by {@link #invalidate(int)} after this process changes the section's data. A value
+ * loaded while any invalidation happened is returned but not kept, as it may predate the
+ * change; the check and the store run under the same lock as invalidate.
+ */
+public class SectionCache<V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws SQLException;
+    }
+
+    private record Entry<V>(V value, long loadedAtMillis) {
+    }
+
+    private final long ttlMillis;
+
+    private final Map<Integer, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong(); // bumped by invalidate()
+
+    protected SectionCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(int sectionId, Loader<V> loader) throws SQLException {
+        Entry<V> e = entries.get(sectionId);
+        if (e != null && System.currentTimeMillis() - e.loadedAtMillis() < ttlMillis) {
+            return e.value();
+        }
+
+        long v = version.get();
+        V loaded = loader.load();
+        synchronized (this) {
+            if (version.get() == v) {
+                entries.put(sectionId, new Entry<>(loaded, System.currentTimeMillis()));
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(int sectionId) {
+        version.incrementAndGet();
+        entries.remove(sectionId);
+    }
+}
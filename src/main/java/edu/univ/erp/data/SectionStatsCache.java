@@ -0,0 +1,24 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.SectionStats;
+import edu.univ.erp.util.DbUtil;
+
+/**
+ * Process-wide cache of section statistics.
+ *
+ * A section's stats are computed once and reused until its grades change: GradebookDao and
+ * EnrollmentDao call {@link #invalidate(int)} after committing grade writes / drops. Changes
+ * made by other clients are picked up after grading.statsCache.ttlMs.
+ */
+public class SectionStatsCache extends SectionCache<SectionStats> {
+
+    private static final SectionStatsCache INSTANCE = new SectionStatsCache();
+
+    public static SectionStatsCache getInstance() {
+        return INSTANCE;
+    }
+
+    private SectionStatsCache() {
+        super(DbUtil.getLong("grading.statsCache.ttlMs", 300_000));
+    }
+}
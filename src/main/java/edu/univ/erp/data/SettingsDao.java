@@ -6,6 +6,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
 
 public class SettingsDao {
 
@@ -44,6 +46,24 @@ public class SettingsDao {
         setMaintenance(on);
     }
 
+    /**
+     * All settings as key -> raw value, in one query (AccessManager caches this snapshot).
+     */
+    public Map<String, String> loadAll() throws Exception {
+        String sql = "SELECT `key`, `value` FROM settings";
+
+        Map<String, String> values = new HashMap<>();
+        try (Connection c = DbUtil.getErpConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                values.put(rs.getString("key"), rs.getString("value"));
+            }
+        }
+        return values;
+    }
+
     public String getSetting(String key, String defaultValue) throws Exception {
         String sql = "SELECT value FROM settings WHERE `key` = ?";
 
@@ -61,12 +81,16 @@ public class SettingsDao {
     // This method name is what your existing AccessManager expects.
     // It uses getSetting internally and parses a LocalDate.
     public LocalDate getDateSetting(String key, LocalDate defaultValue) throws Exception {
-        String raw = getSetting(key, null);
+        return parseDate(getSetting(key, null), defaultValue);
+    }
+
+    /** Parses a yyyy-MM-dd setting value; blank or malformed values give defaultValue. */
+    public static LocalDate parseDate(String raw, LocalDate defaultValue) {
         if (raw == null || raw.isBlank()) {
             return defaultValue;
         }
         try {
-            return LocalDate.parse(raw);
+            return LocalDate.parse(raw.trim());
         } catch (Exception e) {
             // If parsing fails, fall back to default to be safe
             return defaultValue;
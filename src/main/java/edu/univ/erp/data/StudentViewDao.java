@@ -4,36 +4,56 @@ import edu.univ.erp.domain.StudentGradeRow;
 import edu.univ.erp.domain.StudentTimetableRow;
 import edu.univ.erp.util.DbUtil;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class StudentViewDao {
 
-    public List<StudentTimetableRow> getTimetableForStudent(int studentId) throws SQLException {
-        String sql = """
-                SELECT s.day_of_week,
-                       DATE_FORMAT(s.start_time, '%H:%i') AS start_time,
-                       DATE_FORMAT(s.end_time, '%H:%i')   AS end_time,
-                       c.code,
-                       c.title,
-                       s.room,
-                       s.semester,
-                       s.year
-                FROM enrollments e
-                JOIN sections s ON e.section_id = s.section_id
-                JOIN courses c ON s.course_id = c.course_id
-                WHERE e.student_id = ?
-                  AND e.status = 'ENROLLED'
-                ORDER BY 
-                  FIELD(s.day_of_week, 'MON','TUE','WED','THU','FRI'),
-                  s.start_time
-                """;
+    static final String STUDENT_TIMETABLE_SQL = """
+            SELECT s.day_of_week,
+                   DATE_FORMAT(s.start_time, '%H:%i') AS start_time,
+                   DATE_FORMAT(s.end_time, '%H:%i')   AS end_time,
+                   c.code,
+                   c.title,
+                   s.room,
+                   s.semester,
+                   s.year
+            FROM enrollments e
+            JOIN sections s ON e.section_id = s.section_id
+            JOIN courses c ON s.course_id = c.course_id
+            WHERE e.student_id = ?
+              AND e.status = 'ENROLLED'
+            ORDER BY
+              FIELD(s.day_of_week, 'MON','TUE','WED','THU','FRI'),
+              s.start_time
+            """;
+
+    static final String STUDENT_GRADES_SQL = """
+            SELECT c.code,
+                   c.title,
+                   s.semester,
+                   s.year,
+                   gs.quiz_score,
+                   gs.midterm_score,
+                   gs.endsem_score,
+                   gs.final_score,
+                   gs.final_grade AS final_grade_text
+            FROM enrollments e
+            JOIN sections s ON e.section_id = s.section_id
+            JOIN courses c ON s.course_id = c.course_id
+            LEFT JOIN grade_summaries gs ON e.enrollment_id = gs.enrollment_id
+            WHERE e.student_id = ?
+              AND e.status = 'ENROLLED'
+            ORDER BY s.year, s.semester, c.code
+            """;
 
+    public List<StudentTimetableRow> getTimetableForStudent(int studentId) throws SQLException {
         List<StudentTimetableRow> list = new ArrayList<>();
 
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(STUDENT_TIMETABLE_SQL)) {
             ps.setInt(1, studentId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -53,48 +73,53 @@ public class StudentViewDao {
     }
 
     public List<StudentGradeRow> getGradesForStudent(int studentId) throws SQLException {
-        String sql = """
-                SELECT c.code,
-                       c.title,
-                       s.semester,
-                       s.year,
-                       MAX(CASE WHEN g.component = 'QUIZ'   THEN g.score END)  AS quiz_score,
-                       MAX(CASE WHEN g.component = 'MIDTERM' THEN g.score END) AS midterm_score,
-                       MAX(CASE WHEN g.component = 'ENDSEM' THEN g.score END)  AS endsem_score,
-                       MAX(CASE WHEN g.component = 'FINAL'  THEN g.score END)  AS final_score,
-                       MAX(CASE WHEN g.component = 'FINAL'  THEN g.final_grade END) AS final_grade_text
-                FROM enrollments e
-                JOIN sections s ON e.section_id = s.section_id
-                JOIN courses c ON s.course_id = c.course_id
-                LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id
-                WHERE e.student_id = ?
-                  AND e.status = 'ENROLLED'
-                GROUP BY c.code, c.title, s.semester, s.year
-                ORDER BY s.year, s.semester, c.code
-                """;
-
         List<StudentGradeRow> list = new ArrayList<>();
 
         try (Connection conn = DbUtil.getErpConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(STUDENT_GRADES_SQL)) {
             ps.setInt(1, studentId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     StudentGradeRow row = new StudentGradeRow();
-                    row.setCourseCode(rs.getString("code"));
-                    row.setCourseTitle(rs.getString("title"));
-                    row.setSemester(rs.getString("semester"));
-                    row.setYear(rs.getInt("year"));
-                    row.setQuizScore((Double) rs.getObject("quiz_score"));
-                    row.setMidtermScore((Double) rs.getObject("midterm_score"));
-                    row.setEndsemScore((Double) rs.getObject("endsem_score"));
-                    row.setFinalScore((Double) rs.getObject("final_score"));
-                    row.setFinalGradeText(rs.getString("final_grade_text"));
+                    mapGradeRow(rs, row);
                     list.add(row);
                 }
             }
         }
         return list;
     }
-}
 
+    /**
+     * Same rows as getGradesForStudent, handed to {@code handler} one at a time (in one
+     * reused StudentGradeRow); returns how many rows there were.
+     */
+    public int streamGradesForStudent(int studentId, RowHandler<StudentGradeRow> handler)
+            throws SQLException, IOException {
+        int count = 0;
+        try (Connection conn = DbUtil.getErpConnection();
+             PreparedStatement ps = DbUtil.prepareStreaming(conn, STUDENT_GRADES_SQL)) {
+            ps.setInt(1, studentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                StudentGradeRow row = new StudentGradeRow();
+                while (rs.next()) {
+                    mapGradeRow(rs, row);
+                    handler.handle(row);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void mapGradeRow(ResultSet rs, StudentGradeRow row) throws SQLException {
+        row.setCourseCode(rs.getString("code"));
+        row.setCourseTitle(rs.getString("title"));
+        row.setSemester(rs.getString("semester"));
+        row.setYear(rs.getInt("year"));
+        row.setQuizScore((Double) rs.getObject("quiz_score"));
+        row.setMidtermScore((Double) rs.getObject("midterm_score"));
+        row.setEndsemScore((Double) rs.getObject("endsem_score"));
+        row.setFinalScore((Double) rs.getObject("final_score"));
+        row.setFinalGradeText(rs.getString("final_grade_text"));
+    }
+}
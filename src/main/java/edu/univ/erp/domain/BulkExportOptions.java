@@ -0,0 +1,13 @@
+package edu.univ.erp.domain;
+
+import java.io.File;
+
+/**
+ * What AdminService.bulkExport writes: gradebooks (one CSV per section) and / or transcripts
+ * (one CSV per student) into {@code directory}, optionally packed into {@code directory}.zip.
+ */
+public record BulkExportOptions(File directory,
+                                boolean gradebooks,
+                                boolean transcripts,
+                                boolean zip) {
+}
@@ -0,0 +1,28 @@
+package edu.univ.erp.domain;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Outcome of a bulk export (see AdminService.bulkExport).
+ * {@code skipped} files were already complete from an earlier, interrupted run; failed files
+ * are listed and are retried when the export is run again on the same directory.
+ */
+public record BulkExportResult(int files,
+                               int written,
+                               int skipped,
+                               long rows,
+                               List<Failure> failures,
+                               File output) {
+
+    public record Failure(String file, String reason) {
+    }
+
+    /** Files finished so far (including skipped ones) out of the total. */
+    public record Progress(int done, int total) {
+    }
+
+    public int failed() {
+        return failures.size();
+    }
+}
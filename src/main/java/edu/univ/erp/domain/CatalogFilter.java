@@ -0,0 +1,16 @@
+package edu.univ.erp.domain;
+
+/**
+ * Optional catalog filters (see CatalogDao.findCatalogPage). Null / blank fields match everything.
+ */
+public record CatalogFilter(String semester,
+                            Integer year,
+                            String codePrefix,       // course code starts with (case-insensitive in MySQL)
+                            String instructorPrefix, // instructor username starts with
+                            String dayOfWeek,        // MON .. FRI
+                            boolean onlyWithSeats) {
+
+    public static CatalogFilter all() {
+        return new CatalogFilter(null, null, null, null, null, false);
+    }
+}
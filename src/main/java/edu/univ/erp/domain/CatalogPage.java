@@ -0,0 +1,18 @@
+package edu.univ.erp.domain;
+
+import java.util.List;
+
+/**
+ * One page of the catalog in (course code, section id) order.
+ * {@code next} is the keyset cursor for the following page, or null on the last page.
+ */
+public record CatalogPage(List<CatalogSectionRow> rows, Cursor next) {
+
+    /** Position after the last row of a page: the next page starts strictly after it. */
+    public record Cursor(String courseCode, int sectionId) {
+    }
+
+    public boolean hasMore() {
+        return next != null;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.univ.erp.domain;
+
+/**
+ * Result of an atomic registration attempt (see EnrollmentDao.tryEnroll).
+ */
+public enum EnrollmentOutcome {
+    ENROLLED,   // row inserted or a DROPPED row re-activated
+    FULL,       // section is at capacity
+    DUPLICATE,  // student is already ENROLLED in the section
+    CLOSED,     // registration deadline for the section has passed
+    NOT_FOUND   // no such section
+}
@@ -0,0 +1,57 @@
+package edu.univ.erp.domain;
+
+/**
+ * One enrollment in the registrar-wide grade export (GradebookDao.streamAllGrades).
+ */
+public class GradeExportRow {
+
+    private int enrollmentId;
+    private int sectionId;
+    private String courseCode;
+    private String semester;
+    private int year;
+    private String rollNo;
+    private String studentName;
+
+    private Double quizScore;
+    private Double midtermScore;
+    private Double endsemScore;
+    private Double finalScore;
+    private String finalGradeText;
+
+    public int getEnrollmentId() { return enrollmentId; }
+    public void setEnrollmentId(int enrollmentId) { this.enrollmentId = enrollmentId; }
+
+    public int getSectionId() { return sectionId; }
+    public void setSectionId(int sectionId) { this.sectionId = sectionId; }
+
+    public String getCourseCode() { return courseCode; }
+    public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
+
+    public String getSemester() { return semester; }
+    public void setSemester(String semester) { this.semester = semester; }
+
+    public int getYear() { return year; }
+    public void setYear(int year) { this.year = year; }
+
+    public String getRollNo() { return rollNo; }
+    public void setRollNo(String rollNo) { this.rollNo = rollNo; }
+
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+
+    public Double getQuizScore() { return quizScore; }
+    public void setQuizScore(Double quizScore) { this.quizScore = quizScore; }
+
+    public Double getMidtermScore() { return midtermScore; }
+    public void setMidtermScore(Double midtermScore) { this.midtermScore = midtermScore; }
+
+    public Double getEndsemScore() { return endsemScore; }
+    public void setEndsemScore(Double endsemScore) { this.endsemScore = endsemScore; }
+
+    public Double getFinalScore() { return finalScore; }
+    public void setFinalScore(Double finalScore) { this.finalScore = finalScore; }
+
+    public String getFinalGradeText() { return finalGradeText; }
+    public void setFinalGradeText(String finalGradeText) { this.finalGradeText = finalGradeText; }
+}
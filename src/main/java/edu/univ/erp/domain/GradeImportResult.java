@@ -0,0 +1,34 @@
+package edu.univ.erp.domain;
+
+import java.util.List;
+
+/**
+ * Outcome of a gradebook CSV import (see InstructorService.importGradesCsv).
+ *
+ * {@code changes} is the diff against the current gradebook, one entry per grade component
+ * that would change (FINAL included, recomputed). Nothing is written when the import was a
+ * dry run or any row has a problem; {@code saved} is null in that case.
+ */
+public record GradeImportResult(int rows,
+                                int students,
+                                int problemCount,
+                                List<Problem> problems,   // first MAX_REPORTED problems, by line
+                                List<Change> changes,
+                                GradebookSaveResult saved) {
+
+    public static final int MAX_REPORTED = 1000;
+
+    public record Problem(long line, String rollNo, String reason) {
+    }
+
+    public record Change(int enrollmentId, String rollNo, String component, Double before, Double after) {
+    }
+
+    public boolean applied() {
+        return saved != null;
+    }
+
+    public boolean valid() {
+        return problemCount == 0;
+    }
+}
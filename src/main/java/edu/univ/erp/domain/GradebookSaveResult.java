@@ -0,0 +1,16 @@
+package edu.univ.erp.domain;
+
+/**
+ * Summary of a bulk gradebook save (see GradebookDao.saveSectionGrades).
+ * Counts are per grade component (QUIZ / MIDTERM / ENDSEM / FINAL), not per student.
+ */
+public record GradebookSaveResult(int students,   // rows that belong to the section
+                                  int inserted,   // components written for the first time
+                                  int updated,    // components whose value changed
+                                  int unchanged,  // components already holding the same value
+                                  int skipped) {  // rows whose enrollment is not in the section
+
+    public int changed() {
+        return inserted + updated;
+    }
+}
@@ -0,0 +1,64 @@
+package edu.univ.erp.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * How a section's final score and letter grade are computed (see GradingEngine).
+ *
+ * final = sum(weight * score / maxScore) / sum(weight) * 100, then curved, then mapped to the
+ * letter of the highest cutoff it reaches. Cutoffs are kept sorted by minScore, highest first.
+ */
+public record GradingScheme(List<Component> components,
+                            List<Cutoff> cutoffs,
+                            Curve curve,
+                            double curveTarget) {
+
+    public enum Curve {
+        NONE,
+        SHIFT_MEAN,   // raise every final by the same amount so the mean reaches curveTarget
+        SCALE_MAX     // scale finals up so the top one reaches curveTarget
+    }
+
+    /** A graded component; name is one of COMPONENT_NAMES (grades.component). */
+    public record Component(String name, double weight, double maxScore) {
+    }
+
+    public record Cutoff(String letter, double minScore) {
+    }
+
+    /** Components a scheme can grade: the score columns of the gradebook (GradeRow). */
+    public static final List<String> COMPONENT_NAMES = List.of("QUIZ", "MIDTERM", "ENDSEM");
+
+    /** Scheme of sections that have none stored: the original 20 / 30 / 50 weights. */
+    public static final GradingScheme DEFAULT = new GradingScheme(
+            List.of(new Component("QUIZ", 20, 100),
+                    new Component("MIDTERM", 30, 100),
+                    new Component("ENDSEM", 50, 100)),
+            List.of(new Cutoff("A+", 90),
+                    new Cutoff("A", 80),
+                    new Cutoff("B", 70),
+                    new Cutoff("C", 60),
+                    new Cutoff("D", 50),
+                    new Cutoff("E", 40),
+                    new Cutoff("F", 0)),
+            Curve.NONE,
+            0);
+
+    public GradingScheme {
+        components = List.copyOf(components);
+        List<Cutoff> sorted = new ArrayList<>(cutoffs);
+        sorted.sort(Comparator.comparingDouble(Cutoff::minScore).reversed());
+        cutoffs = List.copyOf(sorted);
+        if (curve == null) curve = Curve.NONE;
+    }
+
+    /** Highest valid score of a component; 100 for one this scheme does not grade. */
+    public double maxScore(String component) {
+        for (Component c : components) {
+            if (c.name().equals(component)) return c.maxScore();
+        }
+        return 100;
+    }
+}
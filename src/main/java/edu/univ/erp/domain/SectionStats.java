@@ -0,0 +1,51 @@
+package edu.univ.erp.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score statistics of one section, per grade component (scheme components, then FINAL).
+ * Only ENROLLED students with a score for the component are counted.
+ */
+public record SectionStats(int sectionId,
+                           List<ComponentStats> components,
+                           Map<String, Integer> letterCounts,   // final letter grade -> students, best first
+                           long computedAtMillis) {
+
+    public static final int HISTOGRAM_BINS = 10;
+
+    /**
+     * Percentiles are linearly interpolated; stdDev is the population standard deviation.
+     * histogram[b] counts scores in [b, b + 1) * histogramMax / HISTOGRAM_BINS (the last bin
+     * also takes histogramMax and anything above it).
+     */
+    public record ComponentStats(String component,
+                                 int count,
+                                 double mean,
+                                 double median,
+                                 double stdDev,
+                                 double min,
+                                 double max,
+                                 double p10,
+                                 double p25,
+                                 double p75,
+                                 double p90,
+                                 double histogramMax,
+                                 int[] histogram) {
+    }
+
+    public SectionStats {
+        components = List.copyOf(components);
+        letterCounts = Collections.unmodifiableMap(new LinkedHashMap<>(letterCounts)); // keeps grade order
+    }
+
+    /** Stats of the given component, or null when no student has a score for it. */
+    public ComponentStats component(String name) {
+        for (ComponentStats c : components) {
+            if (c.component().equals(name)) return c;
+        }
+        return null;
+    }
+}
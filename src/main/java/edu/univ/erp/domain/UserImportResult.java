@@ -0,0 +1,19 @@
+package edu.univ.erp.domain;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import (see AdminService.importUsersCsv).
+ * Rows that failed are listed with their CSV line; every other row was created.
+ */
+public record UserImportResult(int rows,
+                               int created,
+                               List<Failure> failures) {
+
+    public record Failure(long line, String username, String reason) {
+    }
+
+    public int failed() {
+        return failures.size();
+    }
+}
@@ -0,0 +1,553 @@
+package edu.univ.erp.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.univ.erp.access.AccessDeniedException;
+import edu.univ.erp.api.admin.AdminApi;
+import edu.univ.erp.api.auth.AuthApi;
+import edu.univ.erp.api.instructor.InstructorApi;
+import edu.univ.erp.api.student.StudentApi;
+import edu.univ.erp.auth.AuthException;
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.domain.CatalogPage;
+import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.service.SeatCountReconciler;
+import edu.univ.erp.util.DbUtil;
+import edu.univ.erp.util.MetricsExporter;
+import edu.univ.erp.util.SchemaMigrator;
+import edu.univ.erp.util.ServiceExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTimeoutException;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Headless mode: serves the api facades (StudentApi, InstructorApi, AdminApi, AuthApi) as a
+ * JSON HTTP API on the JDK's built-in HTTP server, so clients share this process's connection
+ * pools and caches instead of each opening their own MySQL connections.
+ *
+ *   java -cp &lt;app classpath&gt; edu.univ.erp.server.ErpServer
+ *
+ * POST /api/auth/login returns a bearer token; every other call sends
+ * "Authorization: Bearer &lt;token&gt;". Access rules stay in the services, exactly as for the
+ * Swing client. Each request runs on its own virtual thread when the JVM has them (Java 21+),
+ * otherwise on a fixed pool of server.threads platform threads. Its service call runs under a
+ * ServiceExecutor permit (AUTH for /api/auth, ERP otherwise), so a burst waits there in
+ * order instead of timing out in the connection pool.
+ *
+ * Errors come back as {"error": "..."}: 400 bad input, 401 no / expired session or failed
+ * login, 403 denied by the services, 404 unknown path, 503 database pool exhausted.
+ * File-based operations (CSV import / export, bulk export) stay in the desktop client.
+ */
+public class ErpServer {
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    private final StudentApi studentApi = new StudentApi();
+    private final InstructorApi instructorApi = new InstructorApi();
+    private final AdminApi adminApi = new AdminApi();
+    private final AuthApi authApi = new AuthApi();
+
+    private final SessionStore sessions;
+    private final List<Route> routes = new ArrayList<>();
+    private final int maxBodyBytes;
+
+    private HttpServer http;
+    private ExecutorService requestExecutor;
+    private ScheduledExecutorService sweeper;
+
+    public static void main(String[] args) {
+        if (DbUtil.getBoolean("migrations.enabled", true)) {
+            try {
+                SchemaMigrator.migrateAll();
+            } catch (Exception e) {
+                System.err.println("[server] database schema upgrade failed: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        MetricsExporter.startIfEnabled();
+        SeatCountReconciler.startIfEnabled();
+
+        ErpServer server = new ErpServer();
+        try {
+            server.start(DbUtil.get("server.bindAddress", "127.0.0.1"), DbUtil.getInt("server.port", 8080));
+        } catch (IOException e) {
+            System.err.println("[server] could not start: " + e.getMessage());
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "erp-server-shutdown"));
+    }
+
+    public ErpServer() {
+        long idleMillis = TimeUnit.MINUTES.toMillis(DbUtil.getLong("server.session.idleTimeoutMin", 30));
+        this.sessions = new SessionStore(idleMillis, authApi::logout);
+        this.maxBodyBytes = DbUtil.getInt("server.maxBodyBytes", 1024 * 1024);
+        registerRoutes();
+    }
+
+    public void start(String bindAddress, int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(bindAddress, port), DbUtil.getInt("server.backlog", 0));
+        http.createContext("/", this::handle);
+        int threads = DbUtil.getInt("server.threads", 64);
+        requestExecutor = ServiceExecutor.newThreadPerTaskExecutor("erp-server", threads);
+        http.setExecutor(requestExecutor);
+        http.start();
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "erp-server-sessions");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(sessions::sweep, 1, 1, TimeUnit.MINUTES);
+
+        String mode = ServiceExecutor.VIRTUAL_THREADS ? "virtual thread per request" : threads + " request threads";
+        System.out.println("[server] listening on http://" + bindAddress + ":" + http.getAddress().getPort()
+                + " (" + mode + ")");
+    }
+
+    public void stop() {
+        if (http != null) http.stop(1);
+        if (sweeper != null) sweeper.shutdownNow();
+        if (requestExecutor != null) requestExecutor.shutdown();
+    }
+
+    /** Port actually bound (useful with port 0). */
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    // ======================= ROUTES =======================
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Request request) throws Exception;
+    }
+
+    // db: the ServiceExecutor lane the handler runs under, null for no database work
+    private record Route(String method, Pattern path, boolean needsSession, ServiceExecutor.Db db,
+                         Handler handler) {
+    }
+
+    private void get(String path, Handler h)    { routes.add(route("GET", path, h)); }
+    private void post(String path, Handler h)   { routes.add(route("POST", path, h)); }
+    private void put(String path, Handler h)    { routes.add(route("PUT", path, h)); }
+    private void delete(String path, Handler h) { routes.add(route("DELETE", path, h)); }
+
+    // "{id}" is a numeric path segment
+    private static Route route(String method, String path, Handler handler) {
+        boolean open = path.equals("/api/auth/login") || path.equals("/api/health");
+        ServiceExecutor.Db db = path.equals("/api/health") ? null
+                : path.startsWith("/api/auth/") ? ServiceExecutor.Db.AUTH
+                : ServiceExecutor.Db.ERP;
+        return new Route(method, Pattern.compile(path.replace("{id}", "(\\d+)")), !open, db, handler);
+    }
+
+    private void registerRoutes() {
+        get("/api/health", r -> Map.of("status", "UP", "sessions", sessions.size()));
+
+        // ===== auth =====
+        post("/api/auth/login", r -> {
+            Map<String, Object> body = r.body();
+            SessionContext session = authApi.login(string(body, "username"), string(body, "password"));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("token", sessions.create(session));
+            result.put("userId", session.getUserId());
+            result.put("username", session.getUsername());
+            result.put("role", session.getRole());
+            return result;
+        });
+        post("/api/auth/logout", r -> {
+            SessionContext session = sessions.remove(r.token);
+            authApi.logout(session);
+            return null;
+        });
+        post("/api/auth/password", r -> {
+            Map<String, Object> body = r.body();
+            authApi.changePassword(r.session, string(body, "currentPassword"), string(body, "newPassword"));
+            return null;
+        });
+
+        // ===== student =====
+        get("/api/student/catalog", r -> studentApi.browseCatalog(r.session, catalogFilter(r), cursor(r.query("after")),
+                r.queryInt("pageSize", 50)));
+        get("/api/student/registrations", r -> studentApi.getMyRegistrations(r.session));
+        post("/api/student/registrations", r -> {
+            studentApi.register(r.session, integer(r.body(), "sectionId"));
+            return null;
+        });
+        delete("/api/student/registrations/{id}", r -> {
+            studentApi.drop(r.session, r.pathInt(1));
+            return null;
+        });
+        get("/api/student/timetable", r -> studentApi.getTimetable(r.session));
+        get("/api/student/grades", r -> studentApi.getGrades(r.session));
+
+        // ===== instructor =====
+        get("/api/instructor/sections", r -> instructorApi.getMySections(r.session));
+        get("/api/instructor/sections/{id}/gradebook", r -> instructorApi.getGradebook(r.session, r.pathInt(1)));
+        put("/api/instructor/sections/{id}/gradebook", r ->
+                instructorApi.saveScoresAndComputeFinal(r.session, r.pathInt(1), gradeRows(r.body())));
+        get("/api/instructor/sections/{id}/scheme", r -> instructorApi.getGradingScheme(r.session, r.pathInt(1)));
+        put("/api/instructor/sections/{id}/scheme", r ->
+                instructorApi.saveGradingScheme(r.session, r.pathInt(1), gradingScheme(r.body())));
+        delete("/api/instructor/sections/{id}/scheme", r ->
+                instructorApi.saveGradingScheme(r.session, r.pathInt(1), null));
+        get("/api/instructor/sections/{id}/stats", r -> instructorApi.getSectionStats(r.session, r.pathInt(1)));
+        get("/api/instructor/sections/{id}/average", r ->
+                Map.of("average", instructorApi.getClassAverage(r.session, r.pathInt(1))));
+
+        // ===== admin =====
+        get("/api/admin/maintenance", r -> Map.of("on", adminApi.isMaintenanceOn(r.session)));
+        put("/api/admin/maintenance", r -> {
+            adminApi.setMaintenance(r.session, bool(r.body(), "on"));
+            return null;
+        });
+        post("/api/admin/users", r -> {
+            Map<String, Object> b = r.body();
+            String role = string(b, "role").toUpperCase();
+            switch (role) {
+                case "STUDENT" -> adminApi.createStudentUser(r.session, string(b, "username"), string(b, "password"),
+                        string(b, "rollNo"), string(b, "program"), integer(b, "year"));
+                case "INSTRUCTOR" -> adminApi.createInstructorUser(r.session, string(b, "username"),
+                        string(b, "password"), string(b, "department"));
+                case "ADMIN" -> adminApi.createAdminUser(r.session, string(b, "username"), string(b, "password"));
+                default -> throw new IllegalArgumentException("role must be STUDENT, INSTRUCTOR or ADMIN.");
+            }
+            return null;
+        });
+        get("/api/admin/instructors", r -> adminApi.listInstructors(r.session));
+        get("/api/admin/courses", r -> adminApi.listCourses(r.session));
+        post("/api/admin/courses", r -> {
+            Map<String, Object> b = r.body();
+            return Map.of("courseId", adminApi.createCourse(r.session, string(b, "code"), string(b, "title"),
+                    integer(b, "credits")));
+        });
+        put("/api/admin/courses/{id}", r -> {
+            Map<String, Object> b = r.body();
+            adminApi.updateCourse(r.session, r.pathInt(1), string(b, "code"), string(b, "title"),
+                    integer(b, "credits"), integer(b, "capacity"));
+            return null;
+        });
+        delete("/api/admin/courses/{id}", r -> {
+            adminApi.deleteCourse(r.session, r.pathInt(1));
+            return null;
+        });
+        post("/api/admin/sections", r -> {
+            Map<String, Object> b = r.body();
+            adminApi.createSection(r.session, integer(b, "courseId"), integer(b, "instructorId"),
+                    string(b, "dayOfWeek"), time(b, "startTime"), time(b, "endTime"), string(b, "room"),
+                    integer(b, "capacity"), string(b, "semester"), integer(b, "year"));
+            return null;
+        });
+    }
+
+    // ======================= REQUEST HANDLING =======================
+
+    /** Thrown for request problems found here (not by the services). */
+    private static final class HttpError extends RuntimeException {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final class Request {
+        final HttpExchange exchange;
+        final Matcher path;
+        final String token;
+        final Map<String, String> query;
+        SessionContext session;
+        private Map<String, Object> body;
+
+        Request(HttpExchange exchange, Matcher path) {
+            this.exchange = exchange;
+            this.path = path;
+            this.token = bearerToken(exchange);
+            this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+
+        int pathInt(int group) {
+            try {
+                return Integer.parseInt(path.group(group));
+            } catch (NumberFormatException e) {
+                throw new HttpError(404, "Not found.");
+            }
+        }
+
+        String query(String name) {
+            String v = query.get(name);
+            return v == null || v.isBlank() ? null : v.trim();
+        }
+
+        int queryInt(String name, int defaultValue) {
+            String v = query(name);
+            if (v == null) return defaultValue;
+            try {
+                return Integer.parseInt(v);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number.");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body() throws IOException {
+            if (body == null) {
+                String text = readBody(exchange);
+                Object parsed = text.isBlank() ? Map.of() : Json.read(text);
+                if (!(parsed instanceof Map)) throw new IllegalArgumentException("Request body must be a JSON object.");
+                body = (Map<String, Object>) parsed;
+            }
+            return body;
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        try (exchange) {
+            int status;
+            Object result;
+            try {
+                result = dispatch(exchange);
+                status = result == null ? 204 : 200;
+            } catch (HttpError e) {
+                status = e.status;
+                result = error(e.getMessage());
+            } catch (AuthException e) {
+                status = 401;
+                result = error(e.getMessage());
+            } catch (AccessDeniedException e) {
+                status = 403;
+                result = error(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                result = error(e.getMessage());
+            } catch (SQLTimeoutException e) {
+                status = 503;
+                result = error("The server is busy. Please try again in a moment.");
+            } catch (Exception e) {
+                System.err.println("[server] " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI().getPath() + " failed:");
+                e.printStackTrace();
+                status = 500;
+                result = error("Internal server error.");
+            }
+            respond(exchange, status, result);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[server] could not send response: " + e.getMessage());
+        }
+    }
+
+    private Object dispatch(HttpExchange exchange) throws Exception {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+
+        boolean pathKnown = false;
+        for (Route route : routes) {
+            Matcher m = route.path().matcher(path);
+            if (!m.matches()) continue;
+            pathKnown = true;
+            if (!route.method().equals(method)) continue;
+
+            Request request = new Request(exchange, m);
+            if (route.needsSession()) {
+                request.session = sessions.get(request.token);
+                if (request.session == null) throw new HttpError(401, "Not signed in or session expired.");
+            }
+            if (route.db() == null) return route.handler().handle(request);
+            // read the upload before taking a permit, not while holding one
+            if (method.equals("POST") || method.equals("PUT")) request.body();
+            return ServiceExecutor.call(route.db(), () -> route.handler().handle(request));
+        }
+        throw pathKnown ? new HttpError(405, "Method not allowed.") : new HttpError(404, "Not found.");
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message == null ? "Request failed." : message);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object result) throws IOException {
+        if (result == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = Json.write(result).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                if (buffer.size() + n > maxBodyBytes) throw new HttpError(413, "Request body too large.");
+                buffer.write(chunk, 0, n);
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) return null;
+        return header.substring(7).trim();
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> map = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return map;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            map.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+
+    // ======================= BODY / QUERY VALUES =======================
+
+    private static String string(Map<String, Object> body, String field) {
+        Object v = body.get(field);
+        if (v == null) throw new IllegalArgumentException(field + " is required.");
+        if (v instanceof Double d && d == Math.rint(d)) return String.valueOf(d.longValue());
+        return v.toString();
+    }
+
+    private static int integer(Map<String, Object> body, String field) {
+        Object v = body.get(field);
+        if (v instanceof Double d && d == Math.rint(d)) return d.intValue();
+        if (v instanceof String s) {
+            try {
+                return Integer.parseInt(s.trim());
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        throw new IllegalArgumentException(field + " must be a whole number.");
+    }
+
+    private static Double score(Map<String, Object> body, String field) {
+        Object v = body.get(field);
+        if (v == null) return null;
+        if (v instanceof Double d) return d;
+        throw new IllegalArgumentException(field + " must be a number or null.");
+    }
+
+    private static double number(Map<String, Object> body, String field) {
+        Double d = score(body, field);
+        if (d == null) throw new IllegalArgumentException(field + " is required.");
+        return d;
+    }
+
+    private static boolean bool(Map<String, Object> body, String field) {
+        if (body.get(field) instanceof Boolean b) return b;
+        throw new IllegalArgumentException(field + " must be true or false.");
+    }
+
+    // "09:00" or "09:00:00"
+    private static Time time(Map<String, Object> body, String field) {
+        String v = string(body, field).trim();
+        try {
+            return Time.valueOf(v.length() == 5 ? v + ":00" : v);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " must be HH:mm.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> objects(Map<String, Object> body, String field) {
+        Object v = body.get(field);
+        if (!(v instanceof List<?> list)) throw new IllegalArgumentException(field + " must be a list.");
+        for (Object item : list) {
+            if (!(item instanceof Map)) throw new IllegalArgumentException(field + " must contain objects.");
+        }
+        return (List<Map<String, Object>>) v;
+    }
+
+    private static CatalogFilter catalogFilter(Request r) {
+        String year = r.query("year");
+        Integer y;
+        try {
+            y = year == null ? null : Integer.valueOf(year);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("year must be a whole number.");
+        }
+        return new CatalogFilter(r.query("semester"), y, r.query("code"), r.query("instructor"),
+                r.query("day"), Boolean.parseBoolean(r.query("openOnly")));
+    }
+
+    // the "next" cursor of the previous page, sent back as after=<courseCode>:<sectionId>
+    private static CatalogPage.Cursor cursor(String after) {
+        if (after == null) return null;
+        int colon = after.lastIndexOf(':');
+        try {
+            return new CatalogPage.Cursor(after.substring(0, colon), Integer.parseInt(after.substring(colon + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("after must be <courseCode>:<sectionId>.");
+        }
+    }
+
+    // same field names as the gradebook GET returns
+    private static List<GradeRow> gradeRows(Map<String, Object> body) {
+        List<GradeRow> rows = new ArrayList<>();
+        for (Map<String, Object> item : objects(body, "rows")) {
+            GradeRow row = new GradeRow();
+            row.setEnrollmentId(integer(item, "enrollmentId"));
+            row.setQuizScore(score(item, "quizScore"));
+            row.setMidtermScore(score(item, "midtermScore"));
+            row.setEndsemScore(score(item, "endsemScore"));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // same shape as the scheme GET returns
+    private static GradingScheme gradingScheme(Map<String, Object> body) {
+        List<GradingScheme.Component> components = new ArrayList<>();
+        for (Map<String, Object> c : objects(body, "components")) {
+            components.add(new GradingScheme.Component(string(c, "name").toUpperCase(),
+                    number(c, "weight"), number(c, "maxScore")));
+        }
+        List<GradingScheme.Cutoff> cutoffs = new ArrayList<>();
+        for (Map<String, Object> c : objects(body, "cutoffs")) {
+            cutoffs.add(new GradingScheme.Cutoff(string(c, "letter"), number(c, "minScore")));
+        }
+        GradingScheme.Curve curve = GradingScheme.Curve.NONE;
+        if (body.get("curve") != null) {
+            try {
+                curve = GradingScheme.Curve.valueOf(string(body, "curve").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("curve must be one of NONE, SHIFT_MEAN, SCALE_MAX.");
+            }
+        }
+        double target = body.get("curveTarget") == null ? 0 : number(body, "curveTarget");
+        return new GradingScheme(components, cutoffs, curve, target);
+    }
+}
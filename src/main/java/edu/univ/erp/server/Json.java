@@ -0,0 +1,323 @@
+package edu.univ.erp.server;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal JSON for the HTTP API (no library on the classpath).
+ *
+ * Writing handles what the api facades return: records (components), the domain beans
+ * (public getX / isX getters), collections, maps, arrays, enums (name), numbers (NaN /
+ * infinite as null), booleans, strings, and dates / times as their ISO toString.
+ * Reading returns Map (insertion order), List, String, Double, Boolean or null.
+ */
+final class Json {
+
+    private static final Map<Class<?>, List<Property>> PROPERTIES = new ConcurrentHashMap<>();
+
+    private record Property(String name, Method getter) {
+    }
+
+    private Json() {
+        // utility class
+    }
+
+    // ===== writing =====
+
+    static String write(Object value) {
+        StringBuilder sb = new StringBuilder(256);
+        write(sb, value);
+        return sb.toString();
+    }
+
+    private static void write(StringBuilder sb, Object v) {
+        if (v == null) {
+            sb.append("null");
+        } else if (v instanceof String s) {
+            string(sb, s);
+        } else if (v instanceof Double d) {
+            number(sb, d);
+        } else if (v instanceof Float f) {
+            number(sb, f.doubleValue());
+        } else if (v instanceof Number || v instanceof Boolean) {
+            sb.append(v);
+        } else if (v instanceof Enum<?> e) {
+            string(sb, e.name());
+        } else if (v instanceof Character || v instanceof TemporalAccessor || v instanceof Date) {
+            string(sb, v.toString());
+        } else if (v instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                string(sb, String.valueOf(e.getKey()));
+                sb.append(':');
+                write(sb, e.getValue());
+            }
+            sb.append('}');
+        } else if (v instanceof Iterable<?> items) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : items) {
+                if (!first) sb.append(',');
+                first = false;
+                write(sb, item);
+            }
+            sb.append(']');
+        } else if (v.getClass().isArray()) {
+            sb.append('[');
+            for (int i = 0, n = Array.getLength(v); i < n; i++) {
+                if (i > 0) sb.append(',');
+                write(sb, Array.get(v, i));
+            }
+            sb.append(']');
+        } else {
+            object(sb, v);
+        }
+    }
+
+    private static void object(StringBuilder sb, Object v) {
+        sb.append('{');
+        boolean first = true;
+        for (Property p : properties(v.getClass())) {
+            Object value;
+            try {
+                value = p.getter().invoke(v);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + v.getClass().getSimpleName() + "." + p.name(), e);
+            }
+            if (!first) sb.append(',');
+            first = false;
+            string(sb, p.name());
+            sb.append(':');
+            write(sb, value);
+        }
+        sb.append('}');
+    }
+
+    private static List<Property> properties(Class<?> type) {
+        return PROPERTIES.computeIfAbsent(type, t -> {
+            List<Property> list = new ArrayList<>();
+            if (t.isRecord()) {
+                for (RecordComponent c : t.getRecordComponents()) {
+                    Method accessor = c.getAccessor();
+                    accessor.setAccessible(true);
+                    list.add(new Property(c.getName(), accessor));
+                }
+                return list;
+            }
+            for (Method m : t.getMethods()) {
+                if (m.getParameterCount() != 0 || Modifier.isStatic(m.getModifiers())
+                        || m.getDeclaringClass() == Object.class) continue;
+                String name = m.getName();
+                String property;
+                if (name.startsWith("get") && name.length() > 3) {
+                    property = name.substring(3);
+                } else if (name.startsWith("is") && name.length() > 2
+                        && (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class)) {
+                    property = name.substring(2);
+                } else {
+                    continue;
+                }
+                list.add(new Property(Character.toLowerCase(property.charAt(0)) + property.substring(1), m));
+            }
+            list.sort((a, b) -> a.name().compareTo(b.name()));
+            return list;
+        });
+    }
+
+    private static void number(StringBuilder sb, double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            sb.append("null");
+        } else if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+            sb.append((long) d);
+        } else {
+            sb.append(d);
+        }
+    }
+
+    private static void string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ===== reading =====
+
+    // request bodies are untrusted: nesting is recursion, so bound it well below the stack
+    static final int MAX_DEPTH = 64;
+
+    /**
+     * Parses a JSON document; IllegalArgumentException on malformed input or nesting deeper
+     * than MAX_DEPTH.
+     */
+    static Object read(String text) {
+        Reader r = new Reader(text);
+        r.skipWhitespace();
+        Object value = r.value(0);
+        r.skipWhitespace();
+        if (r.pos != text.length()) throw r.error("unexpected trailing characters");
+        return value;
+    }
+
+    private static final class Reader {
+        private final String s;
+        private int pos;
+
+        Reader(String s) {
+            this.s = s;
+        }
+
+        Object value(int depth) {
+            if (pos >= s.length()) throw error("unexpected end of input");
+            char c = s.charAt(pos);
+            return switch (c) {
+                case '{' -> object(depth + 1);
+                case '[' -> array(depth + 1);
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> {
+                    if (c == '-' || (c >= '0' && c <= '9')) yield number();
+                    throw error("unexpected '" + c + "'");
+                }
+            };
+        }
+
+        private Map<String, Object> object(int depth) {
+            checkDepth(depth);
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek('}')) return map;
+            while (true) {
+                skipWhitespace();
+                if (pos >= s.length() || s.charAt(pos) != '"') throw error("expected a field name");
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                map.put(key, value(depth));
+                skipWhitespace();
+                if (peek('}')) return map;
+                expect(',');
+            }
+        }
+
+        private List<Object> array(int depth) {
+            checkDepth(depth);
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek(']')) return list;
+            while (true) {
+                skipWhitespace();
+                list.add(value(depth));
+                skipWhitespace();
+                if (peek(']')) return list;
+                expect(',');
+            }
+        }
+
+        private void checkDepth(int depth) {
+            if (depth > MAX_DEPTH) throw error("nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++; // opening quote
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw error("bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("bad \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("bad escape \\" + e);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            try {
+                return Double.valueOf(s.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) throw error("unexpected token");
+            pos += word.length();
+            return value;
+        }
+
+        private boolean peek(char c) {
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw error("expected '" + c + "'");
+        }
+
+        void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.univ.erp.server;
+
+import edu.univ.erp.auth.SessionContext;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bearer-token sessions of the HTTP API: a random 256-bit token per login, mapped to the
+ * SessionContext the api facades expect. A session expires after idleTimeoutMillis without
+ * a request; {@link #sweep} (run periodically) removes expired ones and hands them to the
+ * logout callback.
+ */
+final class SessionStore {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final class Session {
+        final SessionContext context;
+        volatile long lastSeen = System.currentTimeMillis();
+
+        Session(SessionContext context) {
+            this.context = context;
+        }
+    }
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutMillis;
+    private final Consumer<SessionContext> onExpired;
+
+    SessionStore(long idleTimeoutMillis, Consumer<SessionContext> onExpired) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.onExpired = onExpired;
+    }
+
+    String create(SessionContext context) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(context));
+        return token;
+    }
+
+    /** The session of a token, or null when unknown or expired; refreshes its idle timer. */
+    SessionContext get(String token) {
+        if (token == null) return null;
+        Session s = sessions.get(token);
+        if (s == null) return null;
+        long now = System.currentTimeMillis();
+        if (now - s.lastSeen > idleTimeoutMillis) {
+            if (sessions.remove(token, s)) onExpired.accept(s.context);
+            return null;
+        }
+        s.lastSeen = now;
+        return s.context;
+    }
+
+    SessionContext remove(String token) {
+        Session s = token == null ? null : sessions.remove(token);
+        return s == null ? null : s.context;
+    }
+
+    void sweep() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        sessions.forEach((token, s) -> {
+            if (s.lastSeen < cutoff && sessions.remove(token, s)) {
+                onExpired.accept(s.context);
+            }
+        });
+    }
+
+    int size() {
+        return sessions.size();
+    }
+}
@@ -4,20 +4,40 @@ import edu.univ.erp.access.AccessDeniedException;
 import edu.univ.erp.access.AccessManager;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.data.AdminDao;
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.EnrollmentDao;
+import edu.univ.erp.data.GradebookDao;
 import edu.univ.erp.data.SettingsDao;
+import edu.univ.erp.domain.BulkExportOptions;
+import edu.univ.erp.domain.BulkExportResult;
 import edu.univ.erp.domain.CourseOption;
 import edu.univ.erp.domain.InstructorOption;
 import edu.univ.erp.domain.Role;
 import edu.univ.erp.domain.UserAuth;
-
+import edu.univ.erp.domain.UserImportResult;
+import edu.univ.erp.util.CsvStreamWriter;
+import edu.univ.erp.util.CsvUtil;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Time;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 public class AdminService {
 
+    private static final int PROGRESS_EVERY = 10_000;
+
     private final SettingsDao settingsDao = new SettingsDao();
     private final AdminDao adminDao = new AdminDao();
+    private final EnrollmentDao enrollmentDao = new EnrollmentDao();
+    private final GradebookDao gradebookDao = new GradebookDao();
     private final AccessManager access = AccessManager.getInstance();
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
 
     // ===== Maintenance =====
 
@@ -34,11 +54,21 @@ public class AdminService {
         access.ensureAdmin(session);
         try {
             settingsDao.setMaintenanceOn(on);
+            access.refreshSettings();
         } catch (Exception e) {
             throw new RuntimeException("Database error updating maintenance flag.", e);
         }
     }
 
+    /**
+     * Repairs drift in the denormalized sections.enrolled_count seat counters.
+     * Returns the number of sections whose counter was corrected.
+     */
+    public int reconcileSeatCounts(SessionContext session) throws Exception {
+        access.ensureAdmin(session);
+        return enrollmentDao.reconcileEnrolledCounts();
+    }
+
     // ===== Users =====
 
     public List<UserAuth> listAllUserAuths(SessionContext session) throws Exception {
@@ -96,6 +126,55 @@ public class AdminService {
         adminDao.createAuthUser(username, Role.ADMIN, password);
     }
 
+    /**
+     * Creates students / instructors from a CSV file (format in UserImportPipeline).
+     * Invalid or conflicting rows are reported in the result; the rest are created.
+     * {@code progress} receives the number of rows processed so far (called off the EDT).
+     */
+    public UserImportResult importUsersCsv(SessionContext session, File file, IntConsumer progress) throws Exception {
+        access.ensureAdmin(session);
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return new UserImportPipeline(adminDao).run(reader, progress);
+        }
+    }
+
+    // ===== Exports =====
+
+    /**
+     * Writes every enrolled student's grades, across all sections and terms, to one CSV
+     * file. Rows are streamed from the database to the file, so memory use does not grow
+     * with the size of the university. {@code progress} receives the number of rows
+     * written so far (called off the EDT, every PROGRESS_EVERY rows). Returns the row count.
+     */
+    public long exportAllGradesCsv(SessionContext session, File file, LongConsumer progress) throws Exception {
+        access.ensureAdmin(session);
+        long[] written = {0};
+        try (CsvStreamWriter csv = CsvStreamWriter.open(file)) {
+            CsvUtil.writeGradeExportHeader(csv);
+            gradebookDao.streamAllGrades(row -> {
+                CsvUtil.writeGradeExportRow(csv, row);
+                if (++written[0] % PROGRESS_EVERY == 0) progress.accept(written[0]);
+            });
+        }
+        progress.accept(written[0]);
+        return written[0];
+    }
+
+    /**
+     * End-of-term export of every gradebook and / or transcript, one file each, written in
+     * parallel (format and resume behaviour in BulkExportJob). Running it again on the same
+     * directory skips files already written. {@code progress} is called from worker threads.
+     */
+    public BulkExportResult bulkExport(SessionContext session, BulkExportOptions options,
+                                       Consumer<BulkExportResult.Progress> progress) throws Exception {
+        access.ensureAdmin(session);
+        if (options.directory() == null) throw new IllegalArgumentException("Choose an export folder.");
+        if (!options.gradebooks() && !options.transcripts()) {
+            throw new IllegalArgumentException("Select gradebooks, transcripts or both.");
+        }
+        return new BulkExportJob(adminDao).run(options, progress);
+    }
+
     public List<InstructorOption> listInstructors(SessionContext session) throws Exception {
         access.ensureAdmin(session);
         return adminDao.listAllInstructors();
@@ -114,7 +193,9 @@ public class AdminService {
         if (title == null || title.isBlank()) throw new IllegalArgumentException("Course title required.");
         if (credits <= 0) throw new IllegalArgumentException("Credits must be > 0.");
 
-        return adminDao.createCourse(code, title, credits);
+        int courseId = adminDao.createCourse(code, title, credits);
+        catalogCache.invalidate();
+        return courseId;
     }
 
     public void updateCourse(SessionContext session,
@@ -132,10 +213,16 @@ public class AdminService {
         if (capacity <= 0) throw new IllegalArgumentException("Capacity must be > 0."); // NEW validation
 
 
-        adminDao.updateCourse(courseId, code, title, credits);
-
-        // 2. Update the Sections table (Capacity for all sections of this course)
-        adminDao.updateSectionsCapacityByCourse(courseId, capacity);
+        try {
+            adminDao.updateCourse(courseId, code, title, credits);
+
+            // 2. Update the Sections table (Capacity for all sections of this course)
+            adminDao.updateSectionsCapacityByCourse(courseId, capacity);
+        } finally {
+            // catalog rows carry course code/title and capacity; the course update may have
+            // committed even if the capacity update failed
+            catalogCache.invalidate();
+        }
     }
 
     // --- NEW: Delete Course ---
@@ -148,6 +235,7 @@ public class AdminService {
         // E.g., if adminDao.countSectionsForCourse(courseId) > 0, throw exception.
 
         adminDao.deleteCourse(courseId);
+        catalogCache.invalidate();
     }
 
     public List<CourseOption> listCourses(SessionContext session) throws Exception {
@@ -173,5 +261,6 @@ public class AdminService {
 
         adminDao.createSection(courseId, instructorUserId, dayOfWeek,
                 start, end, room, capacity, semester, year);
+        catalogCache.invalidate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.AdminDao;
+import edu.univ.erp.data.AdminDao.ExportSection;
+import edu.univ.erp.data.AdminDao.ExportStudent;
+import edu.univ.erp.data.GradebookDao;
+import edu.univ.erp.data.StudentViewDao;
+import edu.univ.erp.domain.BulkExportOptions;
+import edu.univ.erp.domain.BulkExportResult;
+import edu.univ.erp.util.CsvStreamWriter;
+import edu.univ.erp.util.CsvUtil;
+import edu.univ.erp.util.DbUtil;
+import edu.univ.erp.util.GradeCsvUtil;
+import edu.univ.erp.util.ServiceExecutor;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * End-of-term export used by AdminService.bulkExport. Writes, under the chosen directory:
+ *   gradebooks/<semester>_<year>/<course>_s<section>.csv  (instructor export format)
+ *   transcripts/<roll_no>.csv                              (student transcript format)
+ * A roll number whose file name is already taken (e.g. "A/1" and "A_1" both become A_1)
+ * gets the student's user id appended: transcripts/A_1_u<user_id>.csv.
+ *
+ * Files are written in parallel on the shared ServiceExecutor (ERP), at most export.threads
+ * at a time (default: cores, at most 4; never more than the ERP limit). Each file is streamed
+ * over its own ERP connection, and new files are only handed out as earlier ones finish.
+ *
+ * Resuming: a file is written as *.part, renamed when complete and then listed in
+ * manifest.csv. Running the export again on the same directory skips every file in the
+ * manifest, so an interrupted or partly failed run picks up where it stopped. With zip, once
+ * every file has been written they are packed into <directory>.zip and deleted (other files
+ * in the directory are left alone).
+ */
+class BulkExportJob {
+
+    static final String MANIFEST = "manifest.csv";
+
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    /** One output file: relative path (always '/'-separated) and how to fill it. */
+    private record Task(String path, Exporter exporter) {
+    }
+
+    @FunctionalInterface
+    private interface Exporter {
+        void write(CsvStreamWriter csv) throws SQLException, IOException;
+    }
+
+    private final AdminDao adminDao;
+    private final GradebookDao gradebookDao = new GradebookDao();
+    private final StudentViewDao studentViewDao = new StudentViewDao();
+    private final int threads = Math.max(1, Math.min(
+            DbUtil.getInt("export.threads", Math.min(Runtime.getRuntime().availableProcessors(), 4)),
+            ServiceExecutor.stats(ServiceExecutor.Db.ERP).maxConcurrent()));
+
+    private final List<BulkExportResult.Failure> failures = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger written = new AtomicInteger();
+    private final LongAdder rows = new LongAdder();
+
+    private Path root;
+    private BufferedWriter manifest;
+
+    BulkExportJob(AdminDao adminDao) {
+        this.adminDao = adminDao;
+    }
+
+    /**
+     * Runs the export; {@code progress} is called from worker threads as files complete.
+     * Interrupting the calling thread stops the job after the files in progress.
+     */
+    BulkExportResult run(BulkExportOptions options, Consumer<BulkExportResult.Progress> progress)
+            throws IOException, SQLException, InterruptedException {
+        root = options.directory().toPath().toAbsolutePath();
+        Files.createDirectories(root);
+
+        List<Task> tasks = planTasks(options);
+        Set<String> finished = readManifest();
+        List<Task> pending = new ArrayList<>(tasks.size());
+        for (Task t : tasks) {
+            if (!finished.contains(t.path())) pending.add(t);
+        }
+        int skipped = tasks.size() - pending.size();
+        AtomicInteger done = new AtomicInteger(skipped);
+        progress.accept(new BulkExportResult.Progress(skipped, tasks.size()));
+
+        Semaphore slots = new Semaphore(threads);
+        try (BufferedWriter m = Files.newBufferedWriter(root.resolve(MANIFEST), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            manifest = m;
+            try {
+                for (Task task : pending) {
+                    slots.acquire();
+                    try {
+                        ServiceExecutor.execute(ServiceExecutor.Db.ERP, () -> {
+                            try {
+                                export(task);
+                            } catch (Exception e) {
+                                failures.add(new BulkExportResult.Failure(task.path(), e.getMessage()));
+                            } finally {
+                                slots.release();
+                                progress.accept(new BulkExportResult.Progress(done.incrementAndGet(), tasks.size()));
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        slots.release();
+                        throw e;
+                    }
+                }
+            } finally {
+                // also when interrupted: let the files in progress finish before closing the manifest
+                slots.acquireUninterruptibly(threads);
+            }
+        }
+
+        File output = root.toFile();
+        if (options.zip() && failures.isEmpty()) {
+            output = zipAndRemove(tasks);
+        }
+        List<BulkExportResult.Failure> sorted = new ArrayList<>(failures);
+        sorted.sort(Comparator.comparing(BulkExportResult.Failure::file));
+        return new BulkExportResult(tasks.size(), written.get(), skipped, rows.sum(), List.copyOf(sorted), output);
+    }
+
+    // ===== planning =====
+
+    private List<Task> planTasks(BulkExportOptions options) throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        if (options.gradebooks()) {
+            for (ExportSection s : adminDao.listSectionsWithEnrollments()) {
+                String path = "gradebooks/" + safeName(s.semester() + "_" + s.year())
+                        + "/" + safeName(s.courseCode()) + "_s" + s.sectionId() + ".csv";
+                tasks.add(new Task(path, csv -> {
+                    GradeCsvUtil.writeHeader(csv);
+                    gradebookDao.streamGradebookForSection(s.sectionId(), row -> GradeCsvUtil.writeRow(csv, row));
+                }));
+            }
+        }
+        if (options.transcripts()) {
+            // students come in user_id order, so the same student keeps the same file on a resume
+            Set<String> paths = new HashSet<>();
+            for (ExportStudent s : adminDao.listStudentsWithEnrollments()) {
+                String name = s.rollNo() == null || s.rollNo().isBlank() ? "user" + s.userId() : s.rollNo();
+                String base = "transcripts/" + safeName(name);
+                String path = base + ".csv";
+                for (int n = 1; !paths.add(path); n++) {
+                    path = base + "_u" + s.userId() + (n == 1 ? "" : "_" + n) + ".csv";
+                }
+                tasks.add(new Task(path, csv -> {
+                    CsvUtil.writeTranscriptHeader(csv);
+                    studentViewDao.streamGradesForStudent(s.userId(), row -> CsvUtil.writeTranscriptRow(csv, row));
+                }));
+            }
+        }
+        return tasks;
+    }
+
+    private static String safeName(String s) {
+        return UNSAFE_NAME_CHARS.matcher(s == null ? "" : s).replaceAll("_");
+    }
+
+    // ===== writing =====
+
+    private void export(Task task) throws SQLException, IOException {
+        Path target = root.resolve(task.path());
+        Files.createDirectories(target.getParent());
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+
+        long dataRows;
+        try (CsvStreamWriter csv = CsvStreamWriter.open(part.toFile())) {
+            task.exporter().write(csv);
+            dataRows = csv.rows() - 1; // header
+        }
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        recordFinished(task.path(), dataRows);
+        written.incrementAndGet();
+        rows.add(dataRows);
+    }
+
+    // ===== manifest =====
+
+    // files listed in an earlier run's manifest that are still on disk
+    private Set<String> readManifest() throws IOException {
+        Set<String> finished = new HashSet<>();
+        Path file = root.resolve(MANIFEST);
+        if (!Files.exists(file)) return finished;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int comma = line.lastIndexOf(',');
+            if (comma <= 0) continue;
+            String path = line.substring(0, comma);
+            if (Files.exists(root.resolve(path))) finished.add(path);
+        }
+        return finished;
+    }
+
+    // flushed per line so the manifest survives a crash
+    private synchronized void recordFinished(String path, long dataRows) throws IOException {
+        manifest.write(path + "," + dataRows);
+        manifest.newLine();
+        manifest.flush();
+    }
+
+    // ===== zip =====
+
+    // packs the export's own files (never anything else in the directory), then deletes them
+    private File zipAndRemove(List<Task> tasks) throws IOException {
+        Path zip = root.resolveSibling(root.getFileName() + ".zip");
+        Path part = root.resolveSibling(root.getFileName() + ".zip.part");
+
+        List<String> entries = new ArrayList<>(tasks.size() + 1);
+        for (Task t : tasks) entries.add(t.path());
+        entries.add(MANIFEST);
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part));
+             ZipOutputStream zos = new ZipOutputStream(out)) {
+            for (String entry : entries) {
+                zos.putNextEntry(new ZipEntry(entry));
+                Files.copy(root.resolve(entry), zos);
+                zos.closeEntry();
+            }
+        }
+        Files.move(part, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Set<Path> dirs = new HashSet<>();
+        for (String entry : entries) {
+            Path file = root.resolve(entry);
+            Files.delete(file);
+            for (Path d = file.getParent(); d != null && d.startsWith(root); d = d.getParent()) dirs.add(d);
+        }
+        // deepest first; directories that hold anything else stay
+        List<Path> sorted = new ArrayList<>(dirs);
+        sorted.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path d : sorted) {
+            try (Stream<Path> children = Files.list(d)) {
+                if (children.findAny().isEmpty()) Files.delete(d);
+            }
+        }
+        return zip.toFile();
+    }
+}
@@ -0,0 +1,254 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.domain.GradeImportResult;
+import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
+import edu.univ.erp.domain.GradingScheme;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Gradebook CSV import for one section, used by InstructorService.importGradesCsv.
+ *
+ * Reads the layout written by the gradebook export (EnrollmentId, RollNo, Name, Quiz,
+ * Midterm, EndSem, Final; header required, case-insensitive). Rows are matched by
+ * EnrollmentId, or by RollNo when EnrollmentId is blank; Name and Final are ignored (finals
+ * are recomputed). A blank score leaves the stored one as it is.
+ *
+ * The file is streamed record by record; memory is bounded by the section, not the file.
+ * Every row is checked (known enrollment of this section, roll number matches, each student
+ * once, scores numeric and within 0 and the component's max score in the section's grading
+ * scheme) and all problems are reported with their
+ * line. The resulting diff only lists real changes: a value equal to the stored one at the
+ * export's 2-decimal precision is unchanged, so re-importing an exported file changes nothing.
+ *
+ * Finals depend on the whole section (curves), so the caller grades {@link #nextGradebook()}
+ * after {@link #read(Reader)} and before asking for the changes.
+ */
+class GradeImportPipeline {
+
+    private static final double EXPORT_PRECISION = 0.005;
+    private static final String[] SCORE_COLUMNS = {"Quiz", "Midterm", "EndSem"};
+
+    private final GradingScheme scheme;
+    private final Map<Integer, GradeRow> byEnrollment = new HashMap<>();
+    private final Map<String, GradeRow> byRollNo = new HashMap<>();
+    private final Map<Integer, Long> seenAt = new HashMap<>();          // enrollment -> line
+    private final Map<Integer, GradeRow> next = new LinkedHashMap<>();   // gradebook after import
+    private final List<GradeImportResult.Problem> problems = new ArrayList<>();
+    private int problemCount;
+    private int rows;
+
+    GradeImportPipeline(List<GradeRow> currentGradebook, GradingScheme scheme) {
+        this.scheme = scheme;
+        for (GradeRow r : currentGradebook) {
+            byEnrollment.put(r.getEnrollmentId(), r);
+            if (r.getRollNo() != null) byRollNo.put(r.getRollNo(), r);
+            next.put(r.getEnrollmentId(), copyOf(r));
+        }
+    }
+
+    /** Validates the whole file and builds the changed rows; nothing is written here. */
+    void read(Reader reader) throws IOException {
+        try (CSVParser csv = CSVFormat.DEFAULT.builder()
+                .setHeader().setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true).setTrim(true).setIgnoreEmptyLines(true)
+                .build().parse(reader)) {
+
+            Map<String, Integer> header = csv.getHeaderMap();
+            if (!header.containsKey("EnrollmentId") && !header.containsKey("RollNo")) {
+                throw new IOException("CSV header must include EnrollmentId or RollNo "
+                        + "(use the file from \"Export grades CSV\").");
+            }
+            boolean anyScore = false;
+            for (String col : SCORE_COLUMNS) anyScore |= header.containsKey(col);
+            if (!anyScore) {
+                throw new IOException("CSV header must include at least one of Quiz, Midterm, EndSem.");
+            }
+
+            for (CSVRecord rec : csv) {
+                rows++;
+                readRow(rec);
+            }
+        }
+    }
+
+    // ===== validation =====
+
+    private void readRow(CSVRecord rec) {
+        long line = rec.getRecordNumber() + 1; // + header
+        String enrollmentText = field(rec, "EnrollmentId");
+        String rollNo = field(rec, "RollNo");
+
+        GradeRow current;
+        if (!enrollmentText.isEmpty()) {
+            int enrollmentId;
+            try {
+                enrollmentId = Integer.parseInt(enrollmentText);
+            } catch (NumberFormatException e) {
+                problem(line, rollNo, "EnrollmentId is not a number: " + enrollmentText);
+                return;
+            }
+            current = byEnrollment.get(enrollmentId);
+            if (current == null) {
+                problem(line, rollNo, "enrollment " + enrollmentId + " is not an enrolled student of this section");
+                return;
+            }
+            if (!rollNo.isEmpty() && !rollNo.equals(current.getRollNo())) {
+                problem(line, rollNo, "RollNo does not match enrollment " + enrollmentId
+                        + " (" + current.getRollNo() + ")");
+                return;
+            }
+        } else if (!rollNo.isEmpty()) {
+            current = byRollNo.get(rollNo);
+            if (current == null) {
+                problem(line, rollNo, "roll number is not enrolled in this section");
+                return;
+            }
+        } else {
+            problem(line, "", "EnrollmentId or RollNo is required");
+            return;
+        }
+
+        Long firstLine = seenAt.putIfAbsent(current.getEnrollmentId(), line);
+        if (firstLine != null) {
+            problem(line, current.getRollNo(), "student already listed on line " + firstLine);
+            return;
+        }
+
+        Double quiz = score(rec, "Quiz", "QUIZ", line, current);
+        Double midterm = score(rec, "Midterm", "MIDTERM", line, current);
+        Double endsem = score(rec, "EndSem", "ENDSEM", line, current);
+        if (quiz == null || midterm == null || endsem == null) {
+            return; // problem already reported
+        }
+
+        GradeRow row = next.get(current.getEnrollmentId());
+        row.setQuizScore(merge(current.getQuizScore(), quiz));
+        row.setMidtermScore(merge(current.getMidtermScore(), midterm));
+        row.setEndsemScore(merge(current.getEndsemScore(), endsem));
+    }
+
+    // NaN marks "blank: keep the stored value"; null marks a reported problem
+    private Double score(CSVRecord rec, String column, String component, long line, GradeRow current) {
+        String raw = field(rec, column);
+        if (raw.isEmpty()) return Double.NaN;
+        double value;
+        try {
+            value = Double.parseDouble(raw);
+        } catch (NumberFormatException e) {
+            problem(line, current.getRollNo(), column + " is not a number: " + raw);
+            return null;
+        }
+        double max = scheme.maxScore(component);
+        if (!(value >= 0 && value <= max)) {
+            problem(line, current.getRollNo(), column + " must be between 0 and " + formatMax(max) + ": " + raw);
+            return null;
+        }
+        return value;
+    }
+
+    /** 50 rather than 50.0 in messages. */
+    static String formatMax(double max) {
+        return max == Math.rint(max) ? String.valueOf((long) max) : String.valueOf(max);
+    }
+
+    private static Double merge(Double stored, Double imported) {
+        if (imported.isNaN()) return stored;
+        // keep the stored value when the file only repeats it at export precision
+        return stored != null && Math.abs(stored - imported) < EXPORT_PRECISION ? stored : imported;
+    }
+
+    private static boolean differs(Double before, Double after) {
+        if (before == null || after == null) return before != after;
+        return Math.abs(before - after) >= EXPORT_PRECISION;
+    }
+
+    private static String field(CSVRecord rec, String column) {
+        if (!rec.isMapped(column) || !rec.isSet(column)) return "";
+        String v = rec.get(column);
+        return v == null ? "" : v.trim();
+    }
+
+    private void problem(long line, String rollNo, String reason) {
+        problemCount++;
+        if (problems.size() < GradeImportResult.MAX_REPORTED) {
+            problems.add(new GradeImportResult.Problem(line, rollNo, reason));
+        }
+    }
+
+    private static GradeRow copyOf(GradeRow r) {
+        GradeRow c = new GradeRow();
+        c.setEnrollmentId(r.getEnrollmentId());
+        c.setStudentId(r.getStudentId());
+        c.setRollNo(r.getRollNo());
+        c.setStudentName(r.getStudentName());
+        c.setQuizScore(r.getQuizScore());
+        c.setMidtermScore(r.getMidtermScore());
+        c.setEndsemScore(r.getEndsemScore());
+        c.setFinalScore(r.getFinalScore());
+        c.setFinalGradeText(r.getFinalGradeText());
+        return c;
+    }
+
+    // ===== result =====
+
+    boolean valid() {
+        return problemCount == 0;
+    }
+
+    /** Every student of the section with the imported scores applied; finals are set by the caller. */
+    List<GradeRow> nextGradebook() {
+        return new ArrayList<>(next.values());
+    }
+
+    /** Rows with at least one changed component or final. */
+    List<GradeRow> changedRows() {
+        List<GradeRow> changed = new ArrayList<>();
+        for (GradeRow after : next.values()) {
+            GradeRow before = byEnrollment.get(after.getEnrollmentId());
+            if (differs(before.getQuizScore(), after.getQuizScore())
+                    || differs(before.getMidtermScore(), after.getMidtermScore())
+                    || differs(before.getEndsemScore(), after.getEndsemScore())
+                    || differs(before.getFinalScore(), after.getFinalScore())
+                    || !Objects.equals(before.getFinalGradeText(), after.getFinalGradeText())) {
+                changed.add(after);
+            }
+        }
+        return changed;
+    }
+
+    GradeImportResult result(GradebookSaveResult saved) {
+        List<GradeImportResult.Change> changes = new ArrayList<>();
+        for (GradeRow after : changedRows()) {
+            GradeRow before = byEnrollment.get(after.getEnrollmentId());
+            addChange(changes, after, "QUIZ", before.getQuizScore(), after.getQuizScore());
+            addChange(changes, after, "MIDTERM", before.getMidtermScore(), after.getMidtermScore());
+            addChange(changes, after, "ENDSEM", before.getEndsemScore(), after.getEndsemScore());
+            addChange(changes, after, "FINAL", before.getFinalScore(), after.getFinalScore());
+        }
+        changes.sort(Comparator.comparing(GradeImportResult.Change::rollNo,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        problems.sort(Comparator.comparingLong(GradeImportResult.Problem::line));
+        return new GradeImportResult(rows, seenAt.size(), problemCount,
+                List.copyOf(problems), List.copyOf(changes), saved);
+    }
+
+    private static void addChange(List<GradeImportResult.Change> changes, GradeRow row,
+                                  String component, Double before, Double after) {
+        if (differs(before, after)) {
+            changes.add(new GradeImportResult.Change(row.getEnrollmentId(), row.getRollNo(), component, before, after));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.domain.GradingScheme;
+
+import java.util.List;
+
+/**
+ * Computes final scores and letter grades for a whole section in one pass.
+ *
+ * Input is column-major: scores[c][i] is component c (in scheme order) of student i, with
+ * NaN for a missing score. Each component is one tight loop over a double[] (a multiply-add
+ * the JIT can vectorise), so a few thousand students take well under a millisecond. A
+ * student missing any component gets NaN / null (final not computable yet); NaN simply
+ * propagates through the sums.
+ */
+public final class GradingEngine {
+
+    /** finals[i] / letters[i] per student; NaN / null where a component is missing. */
+    public record Result(double[] finals, String[] letters) {
+    }
+
+    private GradingEngine() {
+        // utility class
+    }
+
+    public static Result grade(GradingScheme scheme, double[][] scores, int students) {
+        List<GradingScheme.Component> components = scheme.components();
+        if (scores.length != components.size()) {
+            throw new IllegalArgumentException("Expected " + components.size() + " score columns, got " + scores.length);
+        }
+
+        // weighted percentage: sum(coefficient * score)
+        double totalWeight = 0;
+        for (GradingScheme.Component c : components) totalWeight += c.weight();
+
+        double[] finals = new double[students];
+        for (int c = 0; c < components.size(); c++) {
+            GradingScheme.Component component = components.get(c);
+            double k = component.weight() * 100.0 / (component.maxScore() * totalWeight);
+            double[] column = scores[c];
+            for (int i = 0; i < students; i++) {
+                finals[i] += k * column[i];
+            }
+        }
+
+        applyCurve(scheme, finals, students);
+
+        return new Result(finals, letters(scheme, finals, students));
+    }
+
+    // curves only ever raise scores, and never above 100
+    private static void applyCurve(GradingScheme scheme, double[] finals, int students) {
+        if (scheme.curve() == GradingScheme.Curve.NONE) return;
+
+        double sum = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        int graded = 0;
+        for (int i = 0; i < students; i++) {
+            double f = finals[i];
+            if (f == f) { // not NaN
+                sum += f;
+                max = Math.max(max, f);
+                graded++;
+            }
+        }
+        if (graded == 0) return;
+
+        double target = scheme.curveTarget();
+        switch (scheme.curve()) {
+            case SHIFT_MEAN -> {
+                double shift = target - sum / graded;
+                if (shift <= 0) return;
+                for (int i = 0; i < students; i++) {
+                    finals[i] = Math.min(100.0, finals[i] + shift);
+                }
+            }
+            case SCALE_MAX -> {
+                if (max <= 0 || max >= target) return;
+                double factor = target / max;
+                for (int i = 0; i < students; i++) {
+                    finals[i] = Math.min(100.0, finals[i] * factor);
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private static String[] letters(GradingScheme scheme, double[] finals, int students) {
+        List<GradingScheme.Cutoff> cutoffs = scheme.cutoffs(); // highest first
+        int n = cutoffs.size();
+        double[] min = new double[n];
+        String[] letter = new String[n];
+        for (int j = 0; j < n; j++) {
+            min[j] = cutoffs.get(j).minScore();
+            letter[j] = cutoffs.get(j).letter();
+        }
+
+        String[] letters = new String[students];
+        for (int i = 0; i < students; i++) {
+            double f = finals[i];
+            if (f != f) continue; // NaN: not computable
+            int j = 0;
+            while (j < n - 1 && f < min[j]) j++;
+            letters[i] = n == 0 ? null : letter[j];
+        }
+        return letters;
+    }
+}
@@ -4,19 +4,36 @@ import edu.univ.erp.access.AccessDeniedException;
 import edu.univ.erp.access.AccessManager;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.data.GradebookDao;
+import edu.univ.erp.data.GradingSchemeCache;
+import edu.univ.erp.data.GradingSchemeDao;
 import edu.univ.erp.data.InstructorDao;
+import edu.univ.erp.data.SectionStatsCache;
+import edu.univ.erp.domain.GradeImportResult;
 import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
+import edu.univ.erp.domain.GradingScheme;
 import edu.univ.erp.domain.InstructorSectionRow;
+import edu.univ.erp.domain.SectionStats;
+import edu.univ.erp.util.CsvStreamWriter;
 import edu.univ.erp.util.GradeCsvUtil;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class InstructorService {
 
     private final InstructorDao instructorDao = new InstructorDao();
     private final GradebookDao gradebookDao = new GradebookDao();
+    private final GradingSchemeDao gradingSchemeDao = new GradingSchemeDao();
+    private final GradingSchemeCache schemeCache = GradingSchemeCache.getInstance();
+    private final SectionStatsCache statsCache = SectionStatsCache.getInstance();
     private final AccessManager accessManager = AccessManager.getInstance();
 
     private void ensureInstructorOwnsSection(SessionContext session, int sectionId)
@@ -44,62 +61,210 @@ public class InstructorService {
     }
 
     /**
-     * Save scores and compute final using fixed weights: 20% quiz, 30% midterm, 50% endsem.
+     * Save scores and compute finals with the section's grading scheme (default: 20% quiz,
+     * 30% midterm, 50% endsem). The whole section is written in one batched transaction.
      */
-    public void saveScoresAndComputeFinal(SessionContext session, int sectionId, List<GradeRow> rows)
+    public GradebookSaveResult saveScoresAndComputeFinal(SessionContext session, int sectionId, List<GradeRow> rows)
             throws AccessDeniedException, SQLException {
 
         accessManager.ensureInstructor(session);
         accessManager.ensureNotInMaintenance(session);
         ensureInstructorOwnsSection(session, sectionId);
 
-        for (GradeRow row : rows) {
-            int enrollmentId = row.getEnrollmentId();
+        checkScores(schemeFor(sectionId), rows);
+        computeFinals(sectionId, rows);
 
-            gradebookDao.upsertComponentScore(enrollmentId, "QUIZ", row.getQuizScore());
-            gradebookDao.upsertComponentScore(enrollmentId, "MIDTERM", row.getMidtermScore());
-            gradebookDao.upsertComponentScore(enrollmentId, "ENDSEM", row.getEndsemScore());
+        return gradebookDao.saveSectionGrades(sectionId, rows);
+    }
 
-            if (row.getQuizScore() != null &&
-                    row.getMidtermScore() != null &&
-                    row.getEndsemScore() != null) {
+    /** Every entered score must fit the max score of its component in {@code scheme}. */
+    private static void checkScores(GradingScheme scheme, List<GradeRow> rows) {
+        for (GradeRow row : rows) {
+            checkScore(scheme, "QUIZ", row.getQuizScore(), row);
+            checkScore(scheme, "MIDTERM", row.getMidtermScore(), row);
+            checkScore(scheme, "ENDSEM", row.getEndsemScore(), row);
+        }
+    }
 
-                double finalScore =
-                        0.20 * row.getQuizScore()
-                                + 0.30 * row.getMidtermScore()
-                                + 0.50 * row.getEndsemScore();
+    private static void checkScore(GradingScheme scheme, String component, Double score, GradeRow row) {
+        double max = scheme.maxScore(component);
+        if (score != null && !(score >= 0 && score <= max)) {
+            throw new IllegalArgumentException(component + " of " + row.getRollNo()
+                    + " must be between 0 and " + GradeImportPipeline.formatMax(max) + ": " + score);
+        }
+    }
 
-                row.setFinalScore(finalScore);
+    // ===== Grading schemes =====
 
-                gradebookDao.upsertFinalScore(
-                        enrollmentId,
-                        finalScore,
-                        String.format("%.1f", finalScore)
-                );
-            }
-        }
+    public GradingScheme getGradingScheme(SessionContext session, int sectionId)
+            throws AccessDeniedException, SQLException {
+
+        accessManager.ensureInstructor(session);
+        ensureInstructorOwnsSection(session, sectionId);
+        return schemeFor(sectionId);
     }
 
     /**
-     * Simple class average based on FINAL scores.
+     * Stores the section's grading scheme ({@code null} = back to the default) and recomputes
+     * every final with it in one batched write. Refused when a stored score is above the new
+     * max score of its component.
      */
-    public double computeClassAverage(SessionContext session, int sectionId)
+    public GradebookSaveResult saveGradingScheme(SessionContext session, int sectionId, GradingScheme scheme)
             throws AccessDeniedException, SQLException {
 
         accessManager.ensureInstructor(session);
+        accessManager.ensureNotInMaintenance(session);
         ensureInstructorOwnsSection(session, sectionId);
 
         List<GradeRow> rows = gradebookDao.getGradebookForSection(sectionId);
+        if (scheme == null) {
+            checkScores(GradingScheme.DEFAULT, rows);
+            gradingSchemeDao.deleteScheme(sectionId);
+        } else {
+            validate(scheme);
+            checkScores(scheme, rows);
+            gradingSchemeDao.saveScheme(sectionId, scheme);
+        }
+        schemeCache.invalidate(sectionId);
 
-        double sum = 0;
-        int count = 0;
-        for (GradeRow row : rows) {
-            if (row.getFinalScore() != null) {
-                sum += row.getFinalScore();
-                count++;
+        computeFinals(sectionId, rows);
+        return gradebookDao.saveSectionGrades(sectionId, rows);
+    }
+
+    GradingScheme schemeFor(int sectionId) throws SQLException {
+        return schemeCache.get(sectionId, () -> gradingSchemeDao.findScheme(sectionId));
+    }
+
+    /**
+     * Sets final score and letter on every row, in one GradingEngine pass over the section
+     * (curves need the whole section). Rows missing a component get no final: their stored
+     * final and letter are cleared on save rather than left from an older scheme or score.
+     */
+    void computeFinals(int sectionId, List<GradeRow> rows) throws SQLException {
+        GradingScheme scheme = schemeFor(sectionId);
+        List<GradingScheme.Component> components = scheme.components();
+        int n = rows.size();
+
+        double[][] scores = new double[components.size()][n];
+        for (int c = 0; c < components.size(); c++) {
+            String name = components.get(c).name();
+            double[] column = scores[c];
+            for (int i = 0; i < n; i++) {
+                GradeRow row = rows.get(i);
+                Double v = switch (name) {
+                    case "QUIZ" -> row.getQuizScore();
+                    case "MIDTERM" -> row.getMidtermScore();
+                    case "ENDSEM" -> row.getEndsemScore();
+                    // stored before schemes were limited to the gradebook columns
+                    default -> throw new IllegalStateException("The grading scheme of section " + sectionId
+                            + " uses " + name + ", which has no score column. Edit the grading scheme.");
+                };
+                column[i] = v == null ? Double.NaN : v;
             }
         }
-        return count == 0 ? 0.0 : (sum / count);
+
+        GradingEngine.Result result = GradingEngine.grade(scheme, scores, n);
+        for (int i = 0; i < n; i++) {
+            double f = result.finals()[i];
+            rows.get(i).setFinalScore(Double.isNaN(f) ? null : f);
+            rows.get(i).setFinalGradeText(result.letters()[i]);
+        }
+    }
+
+    /** Checks an instructor-supplied scheme; messages are shown to the user. */
+    static void validate(GradingScheme scheme) {
+        if (scheme.components().isEmpty()) {
+            throw new IllegalArgumentException("A grading scheme needs at least one component.");
+        }
+        Set<String> names = new HashSet<>();
+        for (GradingScheme.Component c : scheme.components()) {
+            if (!GradingScheme.COMPONENT_NAMES.contains(c.name())) {
+                throw new IllegalArgumentException("Components must be one of "
+                        + String.join(", ", GradingScheme.COMPONENT_NAMES) + ": " + c.name());
+            }
+            if (!names.add(c.name())) {
+                throw new IllegalArgumentException("Duplicate component: " + c.name());
+            }
+            if (!(c.weight() > 0) || !(c.maxScore() > 0)) {
+                throw new IllegalArgumentException("Weight and max score of " + c.name() + " must be > 0.");
+            }
+        }
+
+        if (scheme.cutoffs().isEmpty()) {
+            throw new IllegalArgumentException("A grading scheme needs letter-grade cutoffs.");
+        }
+        Set<String> letters = new HashSet<>();
+        Set<Double> mins = new HashSet<>();
+        for (GradingScheme.Cutoff c : scheme.cutoffs()) {
+            if (c.letter() == null || c.letter().isBlank() || c.letter().length() > 4) {
+                throw new IllegalArgumentException("Letter grades must be 1-4 characters.");
+            }
+            if (!letters.add(c.letter()) || !mins.add(c.minScore())) {
+                throw new IllegalArgumentException("Each letter and each cutoff score may appear only once.");
+            }
+            if (c.minScore() < 0 || c.minScore() > 100) {
+                throw new IllegalArgumentException("Cutoff for " + c.letter() + " must be between 0 and 100.");
+            }
+        }
+        if (scheme.cutoffs().get(scheme.cutoffs().size() - 1).minScore() != 0) {
+            throw new IllegalArgumentException("The lowest letter grade must start at 0.");
+        }
+
+        if (scheme.curve() != GradingScheme.Curve.NONE
+                && !(scheme.curveTarget() > 0 && scheme.curveTarget() <= 100)) {
+            throw new IllegalArgumentException("Curve target must be between 0 and 100.");
+        }
+    }
+
+    /**
+     * Imports scores for a section from a gradebook CSV (format in GradeImportPipeline).
+     * Every row is validated first; finals are recomputed. With {@code dryRun}, or when any
+     * row has a problem, nothing is written and the result only carries the report and the
+     * diff. Otherwise all changes are saved in one batched transaction.
+     */
+    public GradeImportResult importGradesCsv(SessionContext session, int sectionId, File file, boolean dryRun)
+            throws AccessDeniedException, SQLException, IOException {
+
+        accessManager.ensureInstructor(session);
+        if (!dryRun) accessManager.ensureNotInMaintenance(session);
+        ensureInstructorOwnsSection(session, sectionId);
+
+        GradeImportPipeline pipeline = new GradeImportPipeline(gradebookDao.getGradebookForSection(sectionId),
+                schemeFor(sectionId));
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            pipeline.read(reader);
+        }
+        computeFinals(sectionId, pipeline.nextGradebook());
+
+        GradebookSaveResult saved = null;
+        if (!dryRun && pipeline.valid()) {
+            saved = gradebookDao.saveSectionGrades(sectionId, pipeline.changedRows());
+        }
+        return pipeline.result(saved);
+    }
+
+    /**
+     * Class average of the FINAL scores (0 when there are none), from the section statistics.
+     */
+    public double computeClassAverage(SessionContext session, int sectionId)
+            throws AccessDeniedException, SQLException {
+
+        SectionStats.ComponentStats finals = getSectionStats(session, sectionId).component("FINAL");
+        return finals == null ? 0.0 : finals.mean();
+    }
+
+    /**
+     * Mean, median, spread, percentiles and histogram of every component of the section.
+     * Computed from one grades query and cached until the section's grades change.
+     */
+    public SectionStats getSectionStats(SessionContext session, int sectionId)
+            throws AccessDeniedException, SQLException {
+
+        accessManager.ensureInstructor(session);
+        ensureInstructorOwnsSection(session, sectionId);
+
+        return statsCache.get(sectionId, () -> SectionStatsCalculator.compute(
+                sectionId, gradebookDao.getSectionScores(sectionId), schemeFor(sectionId)));
     }
 
     /**
@@ -111,7 +276,9 @@ public class InstructorService {
         accessManager.ensureInstructor(session);
         ensureInstructorOwnsSection(session, sectionId);
 
-        List<GradeRow> rows = gradebookDao.getGradebookForSection(sectionId);
-        GradeCsvUtil.writeGrades(rows, destinationFile);
+        try (CsvStreamWriter csv = CsvStreamWriter.open(destinationFile)) {
+            GradeCsvUtil.writeHeader(csv);
+            gradebookDao.streamGradebookForSection(sectionId, row -> GradeCsvUtil.writeRow(csv, row));
+        }
     }
 }
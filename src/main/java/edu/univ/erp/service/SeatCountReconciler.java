@@ -0,0 +1,55 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.EnrollmentDao;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic repair of sections.enrolled_count (EnrollmentDao.reconcileEnrolledCounts).
+ *
+ * Registration keeps the counter in step inside its own transaction, so drift only comes from
+ * writes that bypass EnrollmentDao (manual SQL, restores). Every
+ * enrollment.reconcile.intervalMin minutes (0 = off) a daemon thread recomputes the counters
+ * that differ; admins can still run it on demand from the Maintenance tab.
+ */
+public final class SeatCountReconciler {
+
+    private static ScheduledExecutorService scheduler;
+
+    private SeatCountReconciler() {
+        // utility class
+    }
+
+    public static synchronized void startIfEnabled() {
+        long interval = DbUtil.getLong("enrollment.reconcile.intervalMin", 60);
+        if (scheduler != null || interval <= 0) return;
+
+        EnrollmentDao enrollmentDao = new EnrollmentDao();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-count-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int repaired = enrollmentDao.reconcileEnrolledCounts();
+                if (repaired > 0) {
+                    System.out.println("[reconcile] corrected enrolled_count of " + repaired + " section(s)");
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("[reconcile] seat count reconciliation failed: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.GradebookDao;
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.domain.SectionStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Turns a section's score columns into SectionStats. Each column is sorted once; median and
+ * percentiles are then read off the sorted array, and mean / stddev / histogram take one
+ * pass each.
+ */
+final class SectionStatsCalculator {
+
+    private SectionStatsCalculator() {
+        // utility class
+    }
+
+    static SectionStats compute(int sectionId, GradebookDao.SectionScores scores, GradingScheme scheme) {
+        Map<String, double[]> columns = scores.scores();
+        List<SectionStats.ComponentStats> stats = new ArrayList<>();
+
+        // scheme order, then FINAL, then anything else stored for the section
+        TreeSet<String> others = new TreeSet<>(columns.keySet());
+        for (GradingScheme.Component c : scheme.components()) {
+            others.remove(c.name());
+            add(stats, c.name(), columns.get(c.name()), c.maxScore());
+        }
+        others.remove("FINAL");
+        add(stats, "FINAL", columns.get("FINAL"), 100.0);
+        for (String name : others) {
+            add(stats, name, columns.get(name), 100.0);
+        }
+
+        // letters in cutoff order (best first), unknown letters (older schemes) after them
+        Map<String, Integer> letters = new LinkedHashMap<>();
+        for (GradingScheme.Cutoff c : scheme.cutoffs()) {
+            Integer n = scores.letterCounts().get(c.letter());
+            if (n != null) letters.put(c.letter(), n);
+        }
+        new TreeSet<>(scores.letterCounts().keySet()).forEach(l -> letters.putIfAbsent(l, scores.letterCounts().get(l)));
+
+        return new SectionStats(sectionId, stats, letters, System.currentTimeMillis());
+    }
+
+    private static void add(List<SectionStats.ComponentStats> stats, String name, double[] column, double histogramMax) {
+        if (column == null || column.length == 0) return;
+        stats.add(of(name, column, histogramMax));
+    }
+
+    static SectionStats.ComponentStats of(String name, double[] values, double histogramMax) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+
+        double sum = 0;
+        for (double v : sorted) sum += v;
+        double mean = sum / n;
+
+        double squares = 0;
+        for (double v : sorted) squares += (v - mean) * (v - mean);
+
+        int[] histogram = new int[SectionStats.HISTOGRAM_BINS];
+        double binWidth = histogramMax / SectionStats.HISTOGRAM_BINS;
+        for (double v : sorted) {
+            int bin = (int) (v / binWidth);
+            histogram[Math.max(0, Math.min(SectionStats.HISTOGRAM_BINS - 1, bin))]++;
+        }
+
+        return new SectionStats.ComponentStats(name, n, mean,
+                percentile(sorted, 0.5), Math.sqrt(squares / n),
+                sorted[0], sorted[n - 1],
+                percentile(sorted, 0.10), percentile(sorted, 0.25),
+                percentile(sorted, 0.75), percentile(sorted, 0.90),
+                histogramMax, histogram);
+    }
+
+    // linear interpolation between the closest ranks
+    private static double percentile(double[] sorted, double p) {
+        double rank = p * (sorted.length - 1);
+        int lo = (int) Math.floor(rank);
+        int hi = Math.min(lo + 1, sorted.length - 1);
+        return sorted[lo] + (rank - lo) * (sorted[hi] - sorted[lo]);
+    }
+}
@@ -6,17 +6,24 @@ import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.data.CatalogDao;
 import edu.univ.erp.data.EnrollmentDao;
 import edu.univ.erp.data.StudentViewDao;
+import edu.univ.erp.domain.CatalogFilter;
+import edu.univ.erp.domain.CatalogPage;
 import edu.univ.erp.domain.CatalogSectionRow;
+import edu.univ.erp.domain.EnrollmentOutcome;
 import edu.univ.erp.domain.StudentGradeRow;
 import edu.univ.erp.domain.StudentTimetableRow;
+import edu.univ.erp.util.CsvStreamWriter;
 import edu.univ.erp.util.CsvUtil;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
-import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 public class StudentService {
 
@@ -25,6 +32,8 @@ public class StudentService {
     private final StudentViewDao studentViewDao = new StudentViewDao();
     private final AccessManager accessManager = AccessManager.getInstance();
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     // ===== Catalog & registrations =====
 
     public List<CatalogSectionRow> viewCatalog(SessionContext session)
@@ -34,30 +43,40 @@ public class StudentService {
         return catalogDao.listCatalog();
     }
 
+    /**
+     * One page of the catalog, filtered; pass the previous page's cursor (or null) as {@code after}.
+     */
+    public CatalogPage browseCatalog(SessionContext session,
+                                     CatalogFilter filter,
+                                     CatalogPage.Cursor after,
+                                     int pageSize)
+            throws AccessDeniedException, SQLException {
+
+        accessManager.ensureStudent(session);
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return catalogDao.findCatalogPage(filter == null ? CatalogFilter.all() : filter, after, pageSize);
+    }
+
     public List<CatalogSectionRow> viewMyRegistrations(SessionContext session)
             throws AccessDeniedException, SQLException {
 
         accessManager.ensureStudent(session);
 
-        int studentId = session.getUserId();
-        List<Integer> mySectionIds = enrollmentDao.findMySectionIds(studentId);
-        List<CatalogSectionRow> full = catalogDao.listCatalog();
+        Set<Integer> mySectionIds = new HashSet<>(enrollmentDao.findMySectionIds(session.getUserId()));
+        if (mySectionIds.isEmpty()) return List.of();
 
-        return full.stream()
-                .filter(row -> mySectionIds.contains(row.getSectionId()))
-                .toList();
+        // id lookups: cost follows the student's own sections, not the catalog size
+        return catalogDao.findSections(mySectionIds);
     }
 
     /**
      * Register the current student into the given sectionId.
      *
-     * Checks performed (in this order):
-     *  - student access & maintenance mode
-     *  - section exists in catalog
-     *  - registration deadline (per-section)
-     *  - duplicate: student is currently ENROLLED (prevents double-register)
-     *  - capacity
-     *  - attempts to enroll via DAO (handles re-enroll of previously DROPPED rows)
+     * Access & maintenance checks happen here; everything else (section exists,
+     * registration deadline, duplicate, capacity, insert / re-activate) runs atomically
+     * in EnrollmentDao.tryEnroll under a lock on the section row.
      */
     public void register(SessionContext session, int sectionId)
             throws AccessDeniedException, SQLException {
@@ -65,50 +84,24 @@ public class StudentService {
         accessManager.ensureStudent(session);
         accessManager.ensureNotInMaintenance(session);
 
-        int studentId = session.getUserId();
-
-        // 0. fetch section info from catalog (to get deadlines and optionally other metadata)
-        CatalogSectionRow section = findCatalogSectionRow(sectionId);
-        if (section == null) {
-            throw new AccessDeniedException("Section not found.");
-        }
+        EnrollmentOutcome outcome = enrollmentDao.tryEnroll(session.getUserId(), sectionId);
 
-        // 1. registration deadline check (per-section)
-        LocalDateTime regDeadline = section.getRegistrationDeadline();
-        if (regDeadline != null && LocalDateTime.now().isAfter(regDeadline)) {
-            throw new AccessDeniedException("Registration closed for this section. Deadline was: " + regDeadline);
-        }
-
-        // 2. Guard against duplicate enrollment (currently ENROLLED)
-        if (enrollmentDao.isCurrentlyEnrolled(studentId, sectionId)) {
-            throw new AccessDeniedException("You are already registered in this section.");
-        }
-
-        // 3. Capacity check
-        int enrolled = enrollmentDao.countEnrolledInSection(sectionId);
-        int capacity = enrollmentDao.getSectionCapacity(sectionId);
-        if (enrolled >= capacity) {
-            throw new AccessDeniedException("Section is full.");
+        switch (outcome) {
+            case ENROLLED -> { }
+            case NOT_FOUND -> throw new AccessDeniedException("Section not found.");
+            case CLOSED -> throw new AccessDeniedException(registrationClosedMessage(sectionId));
+            case DUPLICATE -> throw new AccessDeniedException("You are already registered in this section.");
+            case FULL -> throw new AccessDeniedException("Section is full.");
         }
+    }
 
-        // 4. Attempt to enroll. DAO will:
-        //    - insert a new row if none exists,
-        //    - or flip a DROPPED row back to ENROLLED.
-        // Convert DB exceptions to user-friendly messages.
-        try {
-            enrollmentDao.enroll(studentId, sectionId);
-        } catch (SQLIntegrityConstraintViolationException e) {
-            // unlikely with current DAO but keep for safety
-            throw new AccessDeniedException("You are already registered in this section.");
-        } catch (SQLException e) {
-            // EnrollmentDao may throw "Student is already enrolled in this section."
-            String msg = e.getMessage() == null ? "" : e.getMessage().toLowerCase();
-            if (msg.contains("already enrolled")) {
-                throw new AccessDeniedException("You are already registered in this section.");
-            }
-            // otherwise rethrow to be handled at a higher level (or logged)
-            throw e;
-        }
+    // only on the rejection path: the deadline that closed it is the section's own
+    private String registrationClosedMessage(int sectionId) throws SQLException {
+        CatalogSectionRow section = catalogDao.findSection(sectionId);
+        LocalDateTime deadline = section == null ? null : section.getRegistrationDeadline();
+        return deadline == null
+                ? "Registration closed for this section."
+                : "Registration closed for this section. Deadline was: " + deadline;
     }
 
     /**
@@ -118,7 +111,7 @@ public class StudentService {
      *  - student access & maintenance mode
      *  - section exists
      *  - drop deadline (per-section)
-     *  - student is currently ENROLLED
+     *  - student is currently ENROLLED (checked by the DAO's conditional update)
      * Then mark dropped via DAO.
      */
     public void drop(SessionContext session, int sectionId)
@@ -130,7 +123,7 @@ public class StudentService {
         int studentId = session.getUserId();
 
         // fetch section metadata to check drop deadline
-        CatalogSectionRow section = findCatalogSectionRow(sectionId);
+        CatalogSectionRow section = catalogDao.findSection(sectionId);
         if (section == null) {
             throw new AccessDeniedException("Section not found.");
         }
@@ -140,12 +133,10 @@ public class StudentService {
             throw new AccessDeniedException("Drop period expired. Last date was: " + dropDeadline);
         }
 
-        // ensure currently enrolled (only ENROLLED can be dropped)
-        if (!enrollmentDao.isCurrentlyEnrolled(studentId, sectionId)) {
+        // only ENROLLED rows are dropped; false means the student was not enrolled
+        if (!enrollmentDao.drop(studentId, sectionId)) {
             throw new AccessDeniedException("You are not enrolled in this section.");
         }
-
-        enrollmentDao.drop(studentId, sectionId);
     }
 
     // ===== Timetable & grades =====
@@ -168,31 +159,34 @@ public class StudentService {
 
     /**
      * Transcript export – CSV.
+     * Rows are streamed into a .part file next to the destination, which replaces the
+     * destination only once it is complete and has at least one row.
      */
     public void exportTranscriptCsv(SessionContext session, File destinationFile) throws Exception {
         accessManager.ensureStudent(session);
 
-        List<StudentGradeRow> grades = studentViewDao.getGradesForStudent(session.getUserId());
-
-        if (grades.isEmpty()) {
-            throw new RuntimeException("No grades found to export.");
-        }
+        Path target = destinationFile.toPath().toAbsolutePath();
+        Path part = target.resolveSibling(target.getFileName() + ".part");
 
+        // rows go straight from the result set to the file
+        int rows;
         try {
-            CsvUtil.writeTranscriptCsv(grades, destinationFile);
+            try (CsvStreamWriter csv = CsvStreamWriter.open(part.toFile())) {
+                CsvUtil.writeTranscriptHeader(csv);
+                rows = studentViewDao.streamGradesForStudent(session.getUserId(),
+                        row -> CsvUtil.writeTranscriptRow(csv, row));
+            }
+            if (rows > 0) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
         } catch (Exception e) {
+            Files.deleteIfExists(part);
             throw new RuntimeException("Failed to export CSV: " + e.getMessage(), e);
         }
-    }
 
-    // -----------------------
-    // Helper: find section in catalog
-    // -----------------------
-    private CatalogSectionRow findCatalogSectionRow(int sectionId) throws SQLException {
-        List<CatalogSectionRow> full = catalogDao.listCatalog();
-        Optional<CatalogSectionRow> opt = full.stream()
-                .filter(r -> r.getSectionId() == sectionId)
-                .findFirst();
-        return opt.orElse(null);
+        if (rows == 0) {
+            Files.deleteIfExists(part);
+            throw new RuntimeException("No grades found to export.");
+        }
     }
-}
\ No newline at end of file
+}
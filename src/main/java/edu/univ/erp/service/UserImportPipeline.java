@@ -0,0 +1,291 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.auth.PasswordHasher;
+import edu.univ.erp.data.AdminDao;
+import edu.univ.erp.data.AdminDao.InstructorProfile;
+import edu.univ.erp.data.AdminDao.NewAuthUser;
+import edu.univ.erp.data.AdminDao.StudentProfile;
+import edu.univ.erp.domain.Role;
+import edu.univ.erp.domain.UserImportResult;
+import edu.univ.erp.util.ServiceExecutor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Bulk user import from CSV, used by AdminService.importUsersCsv.
+ *
+ * Columns (header row required, case-insensitive):
+ *   role, username, password, roll_no, program, year, department
+ * role is STUDENT (needs roll_no, program, year) or INSTRUCTOR (needs department).
+ *
+ * The file is streamed in chunks of CHUNK_SIZE rows. Per chunk: rows are validated
+ * (including usernames / roll numbers already in the file or the database; the auth and ERP
+ * lookups run concurrently), passwords are hashed in parallel on one thread per core, then users_auth and the profile tables are
+ * written in one batched transaction each. If a chunk's batch fails, that chunk is retried
+ * row by row so only the offending rows are reported. A bad row never aborts the import.
+ */
+class UserImportPipeline {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private record Row(long line, Role role, String username, String password,
+                       String rollNo, String program, int year, String department) {
+    }
+
+    private final AdminDao adminDao;
+    private final List<UserImportResult.Failure> failures = new ArrayList<>();
+    private final Set<String> seenUsernames = new HashSet<>();
+    private final Set<String> seenRollNos = new HashSet<>();
+    private int rows;
+    private int created;
+
+    UserImportPipeline(AdminDao adminDao) {
+        this.adminDao = adminDao;
+    }
+
+    /** Imports every row; {@code progress} receives the number of rows processed so far. */
+    UserImportResult run(Reader reader, IntConsumer progress) throws IOException, SQLException {
+        ExecutorService hashPool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), daemonThreads());
+        try (CSVParser csv = CSVFormat.DEFAULT.builder()
+                .setHeader().setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true).setTrim(true).setIgnoreEmptyLines(true)
+                .build().parse(reader)) {
+
+            for (String required : List.of("role", "username", "password")) {
+                if (!csv.getHeaderMap().containsKey(required)) {
+                    throw new IOException("CSV header must include: role, username, password "
+                            + "(and roll_no, program, year / department).");
+                }
+            }
+
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (CSVRecord rec : csv) {
+                rows++;
+                Row row = parse(rec);
+                if (row != null) chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, hashPool);
+                    chunk.clear();
+                    progress.accept(rows);
+                }
+            }
+            importChunk(chunk, hashPool);
+            progress.accept(rows);
+        } finally {
+            hashPool.shutdownNow();
+        }
+        failures.sort(Comparator.comparingLong(UserImportResult.Failure::line));
+        return new UserImportResult(rows, created, List.copyOf(failures));
+    }
+
+    // ===== validation =====
+
+    private Row parse(CSVRecord rec) {
+        long line = rec.getRecordNumber() + 1; // + header
+        String username = field(rec, "username");
+        try {
+            if (username.isEmpty()) throw new IllegalArgumentException("username is required");
+            String password = field(rec, "password");
+            if (password.isEmpty()) throw new IllegalArgumentException("password is required");
+
+            Role role;
+            try {
+                role = Role.valueOf(field(rec, "role").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("role must be STUDENT or INSTRUCTOR");
+            }
+
+            Row row = switch (role) {
+                case STUDENT -> {
+                    String rollNo = field(rec, "roll_no");
+                    String program = field(rec, "program");
+                    if (rollNo.isEmpty() || program.isEmpty()) {
+                        throw new IllegalArgumentException("roll_no and program are required for students");
+                    }
+                    int year;
+                    try {
+                        year = Integer.parseInt(field(rec, "year"));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("year must be a number");
+                    }
+                    if (year < 1 || year > 10) throw new IllegalArgumentException("year must be between 1 and 10");
+                    yield new Row(line, role, username, password, rollNo, program, year, null);
+                }
+                case INSTRUCTOR -> {
+                    String department = field(rec, "department");
+                    if (department.isEmpty()) {
+                        throw new IllegalArgumentException("department is required for instructors");
+                    }
+                    yield new Row(line, role, username, password, null, null, 0, department);
+                }
+                default -> throw new IllegalArgumentException("role must be STUDENT or INSTRUCTOR");
+            };
+
+            if (!seenUsernames.add(username)) {
+                throw new IllegalArgumentException("duplicate username in file");
+            }
+            if (row.rollNo() != null && !seenRollNos.add(row.rollNo())) {
+                throw new IllegalArgumentException("duplicate roll_no in file");
+            }
+            return row;
+        } catch (IllegalArgumentException e) {
+            fail(line, username, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String field(CSVRecord rec, String column) {
+        if (!rec.isMapped(column) || !rec.isSet(column)) return "";
+        String v = rec.get(column);
+        return v == null ? "" : v.trim();
+    }
+
+    private void fail(long line, String username, String reason) {
+        failures.add(new UserImportResult.Failure(line, username, reason));
+    }
+
+    // ===== import =====
+
+    private void importChunk(List<Row> chunk, ExecutorService hashPool) throws SQLException {
+        if (chunk.isEmpty()) return;
+
+        // already in the database (the two databases are checked at the same time)
+        List<String> usernames = new ArrayList<>(chunk.size());
+        List<String> rollNos = new ArrayList<>();
+        for (Row r : chunk) {
+            usernames.add(r.username());
+            if (r.rollNo() != null) rollNos.add(r.rollNo());
+        }
+        Future<Set<String>> rollNoCheck = ServiceExecutor.submit(ServiceExecutor.Db.ERP,
+                () -> adminDao.findExistingRollNos(rollNos));
+        Set<String> takenUsernames;
+        try {
+            takenUsernames = adminDao.findExistingUsernames(usernames);
+        } catch (SQLException e) {
+            rollNoCheck.cancel(true);
+            throw e;
+        }
+        Set<String> takenRollNos = ServiceExecutor.await(rollNoCheck);
+
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            if (takenUsernames.contains(r.username())) {
+                fail(r.line(), r.username(), "username already exists");
+            } else if (r.rollNo() != null && takenRollNos.contains(r.rollNo())) {
+                fail(r.line(), r.username(), "roll_no already exists");
+            } else {
+                fresh.add(r);
+            }
+        }
+        if (fresh.isEmpty()) return;
+
+        List<String> hashes = hashAll(fresh, hashPool);
+
+        try {
+            insertBatch(fresh, hashes);
+            created += fresh.size();
+        } catch (SQLException batchFailure) {
+            // isolate the bad rows (e.g. a username taken concurrently)
+            for (int i = 0; i < fresh.size(); i++) {
+                insertOne(fresh.get(i), hashes.get(i));
+            }
+        }
+    }
+
+    private List<String> hashAll(List<Row> chunk, ExecutorService hashPool) throws SQLException {
+        List<Callable<String>> tasks = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            tasks.add(() -> PasswordHasher.hash(r.password()));
+        }
+        try {
+            List<String> hashes = new ArrayList<>(chunk.size());
+            for (Future<String> f : hashPool.invokeAll(tasks)) {
+                hashes.add(f.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("User import interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        }
+    }
+
+    private void insertBatch(List<Row> chunk, List<String> hashes) throws SQLException {
+        List<NewAuthUser> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Row r = chunk.get(i);
+            users.add(new NewAuthUser(r.username(), r.role(), hashes.get(i)));
+        }
+        Map<String, Integer> ids = adminDao.insertAuthUsers(users);
+
+        List<StudentProfile> students = new ArrayList<>();
+        List<InstructorProfile> instructors = new ArrayList<>();
+        for (Row r : chunk) {
+            int userId = ids.get(r.username());
+            if (r.role() == Role.STUDENT) {
+                students.add(new StudentProfile(userId, r.rollNo(), r.program(), r.year()));
+            } else {
+                instructors.add(new InstructorProfile(userId, r.department()));
+            }
+        }
+
+        try {
+            adminDao.insertProfiles(students, instructors);
+        } catch (SQLException ex) {
+            adminDao.deleteAuthUsers(ids.values()); // separate databases: compensate
+            throw ex;
+        }
+    }
+
+    private void insertOne(Row r, String hash) {
+        int userId = -1;
+        try {
+            userId = adminDao.createAuthUserWithHash(r.username(), r.role(), hash);
+            if (r.role() == Role.STUDENT) {
+                adminDao.insertProfiles(List.of(new StudentProfile(userId, r.rollNo(), r.program(), r.year())), List.of());
+            } else {
+                adminDao.insertProfiles(List.of(), List.of(new InstructorProfile(userId, r.department())));
+            }
+            created++;
+        } catch (SQLException ex) {
+            if (userId != -1) {
+                try {
+                    adminDao.deleteAuthUser(userId);
+                } catch (SQLException ignored) {
+                    System.err.println("User import: could not remove auth user " + userId + " after failure.");
+                }
+            }
+            fail(r.line(), r.username(), ex.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "user-import-hash-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package edu.univ.erp.tools;
+
+import edu.univ.erp.auth.PasswordHasher;
+
+/**
+ * Measures bcrypt verify time on this machine and recommends auth.bcrypt.cost: the highest
+ * cost whose verify stays within the target (default 250 ms; --targetMs=N to change).
+ * Run it on the production hardware. Raising the cost later is safe: existing users are
+ * re-hashed at the new cost on their next successful login.
+ */
+public class CalibrateBcryptCost {
+
+    public static void main(String[] args) {
+        long targetMs = new ToolArgs(args, "calibrate.").getLong("targetMs", 250);
+
+        System.out.printf("Timing bcrypt verify (target %d ms, %d cores)...%n",
+                targetMs, Runtime.getRuntime().availableProcessors());
+        PasswordHasher.Calibration result = PasswordHasher.calibrate(targetMs);
+
+        result.measuredMillis().forEach((cost, millis) ->
+                System.out.printf("  cost %2d: %8.1f ms%s%n", cost, millis, millis > targetMs ? "  (over target)" : ""));
+
+        System.out.println();
+        System.out.println("auth.bcrypt.cost=" + result.cost()
+                + String.format("   # %.1f ms per verify", result.millis()));
+        if (result.cost() < PasswordHasher.DEFAULT_COST) {
+            System.out.println("Warning: below the default cost of " + PasswordHasher.DEFAULT_COST
+                    + "; consider a higher target rather than weaker hashes.");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.univ.erp.tools;
+
+import edu.univ.erp.util.SchemaMigrator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies pending schema scripts (the same runner the application runs at startup) or shows
+ * where each database stands.
+ *
+ *   (no options)                 migrate auth and erp
+ *   --db=erp                     migrate one database
+ *   --status                     list scripts and whether they are applied
+ *   --db=erp --baseline=5        record V1..V5 as applied without running them
+ *                                (a database that was upgraded by hand before the runner existed)
+ */
+public class MigrateDatabase {
+
+    public static void main(String[] args) throws Exception {
+        ToolArgs opts = new ToolArgs(args, "migrate.");
+        String db = opts.get("db", null);
+        List<String> databases = db == null ? SchemaMigrator.DATABASES : List.of(db);
+
+        int baseline = opts.getInt("baseline", -1);
+        if (baseline >= 0) {
+            if (db == null) {
+                throw new IllegalArgumentException("--baseline needs --db=auth or --db=erp");
+            }
+            SchemaMigrator.baseline(db, baseline);
+            System.out.println(db + ": baselined at V" + baseline);
+            return;
+        }
+
+        if (opts.getBoolean("status")) {
+            for (String database : databases) {
+                printStatus(database);
+            }
+            return;
+        }
+
+        for (String database : databases) {
+            int applied = SchemaMigrator.migrate(database);
+            System.out.println(database + ": " + (applied == 0 ? "up to date" : applied + " script(s) applied"));
+        }
+    }
+
+    private static void printStatus(String database) throws Exception {
+        Map<Integer, SchemaMigrator.AppliedVersion> applied = SchemaMigrator.appliedVersions(database);
+        System.out.println(database + ":");
+        for (SchemaMigrator.Script script : SchemaMigrator.scripts(database)) {
+            SchemaMigrator.AppliedVersion v = applied.get(script.version());
+            String state;
+            if (v == null) {
+                state = "pending";
+            } else if (v.baseline()) {
+                state = "baseline";
+            } else if (!v.checksum().equals(script.checksum())) {
+                state = "applied (script changed since)";
+            } else {
+                state = "applied";
+            }
+            System.out.printf("  V%-3d %-40s %s%n", script.version(), script.description(), state);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package edu.univ.erp.tools;
+
+import edu.univ.erp.access.AccessDeniedException;
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.data.EnrollmentDao;
+import edu.univ.erp.domain.Role;
+import edu.univ.erp.service.StudentService;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registration-day rehearsal: many simulated students hit StudentService at once
+ * (viewCatalog / register / drop on the current term) and the driver reports throughput,
+ * latency percentiles per operation and the mix of errors.
+ *
+ * Students are the synthetic ones created by SyntheticDataGenerator (matched by username
+ * prefix). Each student runs {@code actions} operations; {@code concurrency} students are
+ * active at a time. Popular courses are picked more often (Zipf), so some sections fill up
+ * and the FULL path is exercised as it would be on the day.
+ *
+ * Usage:
+ *   java -cp ... edu.univ.erp.tools.RegistrationLoadDriver --students=5000 --concurrency=200
+ * Options (also readable as -Dload.&lt;name&gt;): prefix, students, concurrency, actions,
+ * catalogRatio, dropRatio, thinkMs, semester, year, seed, reset (clears the synthetic
+ * students' current-term enrollments first).
+ */
+public final class RegistrationLoadDriver {
+
+    enum Op { VIEW_CATALOG, REGISTER, DROP }
+
+    private final StudentService studentService = new StudentService();
+
+    private final int actions;
+    private final double catalogRatio;
+    private final double dropRatio;
+    private final long thinkMs;
+    private final long seed;
+
+    private final List<SessionContext> students;
+    private final int[] sectionIds;   // current-term sections; earlier = more popular
+
+    private final Map<Op, List<long[]>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private RegistrationLoadDriver(ToolArgs a, List<SessionContext> students, int[] sectionIds) {
+        this.actions = a.getInt("actions", 10);
+        this.catalogRatio = a.getDouble("catalogRatio", 0.3);
+        this.dropRatio = a.getDouble("dropRatio", 0.1);
+        this.thinkMs = a.getLong("thinkMs", 0);
+        this.seed = a.getLong("seed", 7L);
+        this.students = students;
+        this.sectionIds = sectionIds;
+        for (Op op : Op.values()) {
+            latencies.put(op, new ArrayList<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ToolArgs a = new ToolArgs(args, "load.");
+        String prefix = a.get("prefix", "syn");
+        // default term: the generator's current term
+        SyntheticDataGenerator.Config generated = SyntheticDataGenerator.Config.fromSystemProperties("synthetic.");
+        String semester = a.get("semester", generated.semester());
+        int year = a.getInt("year", generated.year());
+        int concurrency = a.getInt("concurrency", 200);
+
+        List<SessionContext> students = loadStudents(prefix, a.getInt("students", 5_000));
+        int[] sections = loadTermSections(semester, year);
+        if (students.isEmpty() || sections.length == 0) {
+            System.err.println("No synthetic students (prefix '" + prefix + "') or no sections in "
+                    + semester + " " + year + ". Run SyntheticDataGenerator first.");
+            System.exit(1);
+        }
+        if (a.getBoolean("reset")) {
+            System.out.println("Reset: removed " + resetEnrollments(students, semester, year) + " enrollments.");
+        }
+
+        RegistrationLoadDriver driver = new RegistrationLoadDriver(a, students, sections);
+        System.out.printf("Load: %d students x %d actions, concurrency %d, %d sections in %s %d%n",
+                students.size(), driver.actions, concurrency, sections.length, semester, year);
+
+        long elapsed = driver.run(concurrency);
+        driver.report(elapsed);
+        checkSeatCounts(semester, year);
+    }
+
+    // ===== setup =====
+
+    private static List<SessionContext> loadStudents(String prefix, int limit) throws SQLException {
+        String sql = """
+                SELECT user_id, username
+                FROM users_auth
+                WHERE role = 'STUDENT' AND username LIKE ?
+                ORDER BY user_id
+                LIMIT ?
+                """;
+        List<SessionContext> list = new ArrayList<>();
+        try (Connection c = DbUtil.getAuthConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, prefix.replace("_", "\\_").replace("%", "\\%") + "stu%");
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new SessionContext(rs.getInt("user_id"), rs.getString("username"), Role.STUDENT));
+                }
+            }
+        }
+        return list;
+    }
+
+    /** Section ids of the term, grouped by course in catalog order (lower course ids first). */
+    private static int[] loadTermSections(String semester, int year) throws SQLException {
+        String sql = """
+                SELECT section_id
+                FROM sections
+                WHERE semester = ? AND year = ?
+                ORDER BY course_id, section_id
+                """;
+        List<Integer> ids = new ArrayList<>();
+        try (Connection c = DbUtil.getErpConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, semester);
+            ps.setInt(2, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int resetEnrollments(List<SessionContext> students, String semester, int year)
+            throws SQLException {
+        String sql = """
+                DELETE FROM enrollments
+                WHERE student_id = ?
+                  AND section_id IN (SELECT section_id FROM sections WHERE semester = ? AND year = ?)
+                """;
+        int removed = 0;
+        try (Connection c = DbUtil.getErpConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            c.setAutoCommit(false);
+            int n = 0;
+            for (SessionContext s : students) {
+                ps.setInt(1, s.getUserId());
+                ps.setString(2, semester);
+                ps.setInt(3, year);
+                ps.addBatch();
+                if (++n % 500 == 0) removed += sum(ps.executeBatch());
+            }
+            removed += sum(ps.executeBatch());
+            c.commit();
+            c.setAutoCommit(true);
+        }
+        new EnrollmentDao().reconcileEnrolledCounts();
+        return removed;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int n : counts) {
+            if (n > 0) total += n;
+        }
+        return total;
+    }
+
+    // ===== run =====
+
+    private long run(int concurrency) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < students.size(); i++) {
+            SessionContext student = students.get(i);
+            Random random = new Random(seed + i);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    simulate(student, random);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        return System.nanoTime() - begin;
+    }
+
+    /** One student's session; latencies are kept locally and merged once at the end. */
+    private void simulate(SessionContext student, Random random) throws InterruptedException {
+        SyntheticDataGenerator.ZipfSampler popularity =
+                new SyntheticDataGenerator.ZipfSampler(sectionIds.length, 1.0, random);
+        List<Integer> mine = new ArrayList<>();
+        long[][] local = new long[Op.values().length][actions];
+        int[] count = new int[Op.values().length];
+
+        for (int i = 0; i < actions; i++) {
+            double roll = random.nextDouble();
+            Op op = roll < catalogRatio ? Op.VIEW_CATALOG
+                    : roll < catalogRatio + dropRatio && !mine.isEmpty() ? Op.DROP
+                    : Op.REGISTER;
+            int sectionId = switch (op) {
+                case REGISTER -> sectionIds[popularity.next()];
+                case DROP -> mine.get(random.nextInt(mine.size()));
+                default -> 0;
+            };
+
+            long t0 = System.nanoTime();
+            try {
+                switch (op) {
+                    case VIEW_CATALOG -> studentService.viewCatalog(student);
+                    case REGISTER -> {
+                        studentService.register(student, sectionId);
+                        mine.add(sectionId);
+                    }
+                    case DROP -> {
+                        studentService.drop(student, sectionId);
+                        mine.remove((Integer) sectionId);
+                    }
+                }
+            } catch (AccessDeniedException e) {
+                recordError(op, e.getMessage());
+            } catch (SQLException e) {
+                recordError(op, "SQL " + e.getSQLState() + " " + e.getClass().getSimpleName());
+            } catch (RuntimeException e) {
+                recordError(op, e.getClass().getSimpleName());
+            }
+            local[op.ordinal()][count[op.ordinal()]++] = System.nanoTime() - t0;
+
+            if (thinkMs > 0) Thread.sleep(thinkMs);
+        }
+
+        for (Op op : Op.values()) {
+            List<long[]> all = latencies.get(op);
+            synchronized (all) {
+                all.add(Arrays.copyOf(local[op.ordinal()], count[op.ordinal()]));
+            }
+        }
+    }
+
+    private void recordError(Op op, String message) {
+        // deadline messages carry the date; group them by the text before it
+        String kind = message == null ? "?" : message.split(":")[0];
+        errors.computeIfAbsent(op + " " + kind, k -> new LongAdder()).increment();
+    }
+
+    // ===== report =====
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = 0;
+
+        System.out.printf("%nElapsed %.2f s%n", seconds);
+        System.out.printf("%-13s %9s %9s %9s %9s %9s %9s %9s%n",
+                "op", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Op op : Op.values()) {
+            long[] sorted = latencies.get(op).stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            total += sorted.length;
+            if (sorted.length == 0) continue;
+            System.out.printf("%-13s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    op, sorted.length, sorted.length / seconds,
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    percentile(sorted, 99.9), sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.printf("%-13s %9d %9.1f%n", "total", total, total / seconds);
+
+        long failed = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.printf("%nErrors: %d (%.1f%%)%n", failed, total == 0 ? 0 : 100.0 * failed / total);
+        new TreeMap<>(errors).forEach((kind, n) -> System.out.printf("  %-60s %d%n", kind, n.sum()));
+    }
+
+    /** Nearest-rank percentile of sorted nanosecond values, in milliseconds. */
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    /** After the rush: no section may be over capacity or have a drifted enrolled_count. */
+    private static void checkSeatCounts(String semester, int year) throws SQLException {
+        String sql = """
+                SELECT
+                    SUM(CASE WHEN s.enrolled_count > s.capacity THEN 1 ELSE 0 END) AS over_capacity,
+                    SUM(CASE WHEN s.enrolled_count <> (
+                            SELECT COUNT(*) FROM enrollments e
+                            WHERE e.section_id = s.section_id AND e.status = 'ENROLLED')
+                        THEN 1 ELSE 0 END) AS drifted
+                FROM sections s
+                WHERE s.semester = ? AND s.year = ?
+                """;
+        try (Connection c = DbUtil.getErpConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, semester);
+            ps.setInt(2, year);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    System.out.printf("%nSeat check: %d sections over capacity, %d with drifted enrolled_count%n",
+                            rs.getInt("over_capacity"), rs.getInt("drifted"));
+                }
+            }
+        }
+    }
+}
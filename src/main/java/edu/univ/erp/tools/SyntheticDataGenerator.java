@@ -0,0 +1,481 @@
+package edu.univ.erp.tools;
+
+import edu.univ.erp.auth.PasswordHasher;
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.util.DbUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Populates univ_auth / univ_erp with a synthetic university: instructors, students,
+ * courses, sections over several past terms (with enrollments and component scores) and
+ * an empty current term, ready for a registration-day rehearsal (see RegistrationLoadDriver).
+ *
+ * Everything is written with batched inserts. New ids start after the highest existing
+ * ones and usernames / course codes carry a prefix, so it can run against a database that
+ * already holds data. Enrollment demand is skewed: course popularity follows a Zipf
+ * distribution and the number of courses per student varies around the configured mean.
+ *
+ * Usage:
+ *   java -cp ... edu.univ.erp.tools.SyntheticDataGenerator --students=20000 --courses=800
+ * Options (also readable as -Dsynthetic.&lt;name&gt;): prefix, instructors, students, courses,
+ * sectionsPerCourse, sectionCapacity, enrollmentsPerStudent, historicTerms, semester, year, seed.
+ */
+public final class SyntheticDataGenerator {
+
+    /** Password of every generated user. */
+    public static final String PASSWORD = "synthetic-pass";
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final String[] DEPARTMENTS = {"CS", "MA", "PH", "EC", "BI", "HS", "EE", "ME"};
+    private static final String[] DAYS = {"MON", "TUE", "WED", "THU", "FRI"};
+
+    private static final String SECTION_SQL = """
+            INSERT INTO sections(section_id, course_id, instructor_id, day_of_week, start_time, end_time,
+                                 room, capacity, semester, year)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ENROLL_SQL =
+            "INSERT INTO enrollments(student_id, section_id, status) VALUES (?, ?, 'ENROLLED')";
+
+    /** Size and shape of the generated university. */
+    public record Config(String prefix,
+                         int instructors,
+                         int students,
+                         int courses,
+                         int sectionsPerCourse,
+                         int sectionCapacity,
+                         int enrollmentsPerStudent,
+                         int historicTerms,
+                         String semester,      // current (registration) term
+                         int year,
+                         long seed) {
+
+        public static Config fromArgs(String[] args, String propertyPrefix) {
+            ToolArgs a = new ToolArgs(args, propertyPrefix);
+            LocalDate today = LocalDate.now();
+            return new Config(
+                    a.get("prefix", "syn"),
+                    a.getInt("instructors", 100),
+                    a.getInt("students", 5_000),
+                    a.getInt("courses", 400),
+                    a.getInt("sectionsPerCourse", 8),
+                    a.getInt("sectionCapacity", 60),
+                    a.getInt("enrollmentsPerStudent", 5),
+                    a.getInt("historicTerms", 3),
+                    a.get("semester", today.getMonthValue() >= 7 ? "MONSOON" : "WINTER"),
+                    a.getInt("year", today.getYear()),
+                    a.getLong("seed", 42L));
+        }
+
+        /** Reads every option from system properties {@code <propertyPrefix><name>}. */
+        public static Config fromSystemProperties(String propertyPrefix) {
+            return fromArgs(new String[0], propertyPrefix);
+        }
+    }
+
+    private final Config config;
+    private final Random random;
+
+    private int firstUserId;      // instructors first, then students
+    private int firstCourseId;
+    private int firstSectionId;
+    private int sectionCount;
+    private int nextSectionId;
+
+    // per generated section (index = section_id - firstSectionId)
+    private int[] sectionCourse;
+    private boolean[] sectionIsCurrent;
+
+    private SyntheticDataGenerator(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromArgs(args, "synthetic.");
+        System.out.println("Generating " + config);
+        SyntheticDataGenerator u = generate(config);
+        System.out.printf("Users %d..%d (password '%s'), sections %d..%d, current term %s %d.%n",
+                u.firstUserId, u.studentId(config.students() - 1), PASSWORD,
+                u.firstSectionId, u.firstSectionId + u.sectionCount - 1, config.semester(), config.year());
+    }
+
+    /** Generates a full university with the given config and returns a handle to it. */
+    public static SyntheticDataGenerator generate(Config config) throws SQLException {
+        SyntheticDataGenerator u = new SyntheticDataGenerator(config);
+        long start = System.nanoTime();
+        u.allocateIds();
+        u.insertUsers();
+        u.insertCoursesAndSections();
+        int enrollments = u.insertHistoricEnrollmentsAndGrades();
+        CatalogCache.getInstance().invalidate();
+        System.err.printf("[synthetic] %d students, %d sections, %d enrollments in %d ms%n",
+                config.students(), u.sectionCount, enrollments, (System.nanoTime() - start) / 1_000_000);
+        return u;
+    }
+
+    public Config config() {
+        return config;
+    }
+
+    public int instructorId(int index) {
+        return firstUserId + (index % config.instructors());
+    }
+
+    public String instructorUsername(int index) {
+        return config.prefix() + "inst" + (index % config.instructors());
+    }
+
+    /** User id of the i-th student (0-based, wraps around). */
+    public int studentId(int index) {
+        return firstUserId + config.instructors() + (index % config.students());
+    }
+
+    public String studentUsername(int index) {
+        return config.prefix() + "stu" + (index % config.students());
+    }
+
+    public int studentCount() {
+        return config.students();
+    }
+
+    public int firstSectionId() {
+        return firstSectionId;
+    }
+
+    /** Number of generated catalog sections (ids firstSectionId() .. +sectionCount()-1). */
+    public int sectionCount() {
+        return sectionCount;
+    }
+
+    // ===== ids =====
+
+    private void allocateIds() throws SQLException {
+        int maxUser;
+        try (Connection auth = DbUtil.getAuthConnection()) {
+            maxUser = maxId(auth, "SELECT MAX(user_id) FROM users_auth");
+        }
+        try (Connection erp = DbUtil.getErpConnection()) {
+            maxUser = Math.max(maxUser, maxId(erp, "SELECT MAX(user_id) FROM students"));
+            maxUser = Math.max(maxUser, maxId(erp, "SELECT MAX(user_id) FROM instructors"));
+            firstCourseId = maxId(erp, "SELECT MAX(course_id) FROM courses") + 1;
+            firstSectionId = maxId(erp, "SELECT MAX(section_id) FROM sections") + 1;
+        }
+        firstUserId = maxUser + 1;
+    }
+
+    private static int maxId(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // ===== users =====
+
+    private void insertUsers() throws SQLException {
+        // bcrypt is deliberately slow: hash once, reuse for every user
+        String hash = PasswordHasher.hash(PASSWORD);
+
+        try (Connection auth = DbUtil.getAuthConnection();
+             PreparedStatement ps = auth.prepareStatement(
+                     "INSERT INTO users_auth(user_id, username, role, password_hash, status) VALUES (?, ?, ?, ?, 'ACTIVE')")) {
+            auth.setAutoCommit(false);
+            int n = 0;
+            for (int i = 0; i < config.instructors(); i++) {
+                addUser(ps, instructorId(i), instructorUsername(i), "INSTRUCTOR", hash);
+                if (++n % BATCH_SIZE == 0) ps.executeBatch();
+            }
+            for (int i = 0; i < config.students(); i++) {
+                addUser(ps, studentId(i), studentUsername(i), "STUDENT", hash);
+                if (++n % BATCH_SIZE == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+            auth.commit();
+            auth.setAutoCommit(true);
+        }
+
+        String rollPrefix = config.prefix().toUpperCase();
+        try (Connection erp = DbUtil.getErpConnection();
+             PreparedStatement inst = erp.prepareStatement("INSERT INTO instructors(user_id, department) VALUES (?, ?)");
+             PreparedStatement stu = erp.prepareStatement("INSERT INTO students(user_id, roll_no, program, year) VALUES (?, ?, ?, ?)")) {
+            erp.setAutoCommit(false);
+            for (int i = 0; i < config.instructors(); i++) {
+                inst.setInt(1, instructorId(i));
+                inst.setString(2, DEPARTMENTS[i % DEPARTMENTS.length]);
+                inst.addBatch();
+            }
+            inst.executeBatch();
+            for (int i = 0; i < config.students(); i++) {
+                stu.setInt(1, studentId(i));
+                stu.setString(2, rollPrefix + String.format("%07d", i));
+                stu.setString(3, "B.Tech " + DEPARTMENTS[i % DEPARTMENTS.length]);
+                stu.setInt(4, 1 + i % 4);
+                stu.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) stu.executeBatch();
+            }
+            stu.executeBatch();
+            erp.commit();
+            erp.setAutoCommit(true);
+        }
+    }
+
+    private static void addUser(PreparedStatement ps, int id, String username, String role, String hash)
+            throws SQLException {
+        ps.setInt(1, id);
+        ps.setString(2, username);
+        ps.setString(3, role);
+        ps.setString(4, hash);
+        ps.addBatch();
+    }
+
+    // ===== catalog =====
+
+    /**
+     * Each course gets sectionsPerCourse sections spread round-robin over the current term
+     * and historicTerms earlier terms.
+     */
+    private void insertCoursesAndSections() throws SQLException {
+        String codePrefix = config.prefix().toUpperCase();
+        int total = config.courses() * config.sectionsPerCourse();
+        sectionCourse = new int[total];
+        sectionIsCurrent = new boolean[total];
+
+        try (Connection erp = DbUtil.getErpConnection();
+             PreparedStatement course = erp.prepareStatement(
+                     "INSERT INTO courses(course_id, code, title, credits) VALUES (?, ?, ?, ?)");
+             PreparedStatement section = erp.prepareStatement(SECTION_SQL)) {
+            erp.setAutoCommit(false);
+
+            int n = 0;
+            for (int c = 0; c < config.courses(); c++) {
+                String dept = DEPARTMENTS[c % DEPARTMENTS.length];
+                course.setInt(1, firstCourseId + c);
+                course.setString(2, codePrefix + dept + (100 + c));
+                course.setString(3, dept + " course " + c);
+                course.setInt(4, 2 + c % 3);
+                course.addBatch();
+
+                for (int k = 0; k < config.sectionsPerCourse(); k++) {
+                    int termsBack = k % (config.historicTerms() + 1);
+                    sectionCourse[n] = c;
+                    sectionIsCurrent[n] = termsBack == 0;
+                    addSection(section, firstSectionId + n, firstCourseId + c, instructorId(random.nextInt(config.instructors())),
+                            config.sectionCapacity(), semesterBack(termsBack), yearBack(termsBack), random);
+                    if (++n % BATCH_SIZE == 0) section.executeBatch();
+                }
+            }
+            course.executeBatch();
+            section.executeBatch();
+            erp.commit();
+            erp.setAutoCommit(true);
+        }
+        sectionCount = total;
+        nextSectionId = firstSectionId + total;
+    }
+
+    // WINTER (Jan-Apr) precedes MONSOON (Aug-Dec) of the same year
+    private String semesterBack(int termsBack) {
+        boolean currentIsMonsoon = "MONSOON".equalsIgnoreCase(config.semester());
+        boolean monsoon = (termsBack % 2 == 0) == currentIsMonsoon;
+        return monsoon ? "MONSOON" : "WINTER";
+    }
+
+    private int yearBack(int termsBack) {
+        boolean currentIsMonsoon = "MONSOON".equalsIgnoreCase(config.semester());
+        int halfYears = termsBack + (currentIsMonsoon ? 0 : 1);
+        return config.year() - halfYears / 2;
+    }
+
+    private static void addSection(PreparedStatement ps, int sectionId, int courseId, int instructorId,
+                                   int capacity, String semester, int year, Random random) throws SQLException {
+        int hour = 8 + random.nextInt(9);
+        ps.setInt(1, sectionId);
+        ps.setInt(2, courseId);
+        ps.setInt(3, instructorId);
+        ps.setString(4, DAYS[random.nextInt(DAYS.length)]);
+        ps.setTime(5, Time.valueOf(String.format("%02d:00:00", hour)));
+        ps.setTime(6, Time.valueOf(String.format("%02d:30:00", hour + 1)));
+        ps.setString(7, "R" + (100 + random.nextInt(400)));
+        ps.setInt(8, capacity);
+        ps.setString(9, semester);
+        ps.setInt(10, year);
+        ps.addBatch();
+    }
+
+    // ===== enrollments =====
+
+    /**
+     * Historic enrollments: each student takes about enrollmentsPerStudent courses, chosen
+     * by Zipf popularity, in a past-term section of that course with a free seat.
+     */
+    private int insertHistoricEnrollmentsAndGrades() throws SQLException {
+        if (config.historicTerms() == 0) return 0;
+
+        // past-term sections of each course
+        int[][] historicByCourse = new int[config.courses()][];
+        int[] counts = new int[config.courses()];
+        for (int s = 0; s < sectionCount; s++) {
+            if (!sectionIsCurrent[s]) counts[sectionCourse[s]]++;
+        }
+        for (int c = 0; c < counts.length; c++) {
+            historicByCourse[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+        for (int s = 0; s < sectionCount; s++) {
+            if (!sectionIsCurrent[s]) historicByCourse[sectionCourse[s]][counts[sectionCourse[s]]++] = s;
+        }
+
+        ZipfSampler popularity = new ZipfSampler(config.courses(), ZIPF_EXPONENT, random);
+        int[] enrolled = new int[sectionCount];
+        int total = 0;
+
+        try (Connection erp = DbUtil.getErpConnection();
+             PreparedStatement ps = erp.prepareStatement(ENROLL_SQL)) {
+            erp.setAutoCommit(false);
+            for (int i = 0; i < config.students(); i++) {
+                int wanted = Math.max(1, (int) Math.round(config.enrollmentsPerStudent() + random.nextGaussian()));
+                int[] mine = new int[wanted];
+                int picked = 0;
+                for (int tries = 0; picked < wanted && tries < wanted * 20; tries++) {
+                    int[] candidates = historicByCourse[popularity.next()];
+                    if (candidates.length == 0) continue;
+                    int s = candidates[random.nextInt(candidates.length)];
+                    if (enrolled[s] >= config.sectionCapacity() || contains(mine, picked, s)) continue;
+                    mine[picked++] = s;
+                    enrolled[s]++;
+
+                    ps.setInt(1, studentId(i));
+                    ps.setInt(2, firstSectionId + s);
+                    ps.addBatch();
+                    if (++total % BATCH_SIZE == 0) ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+
+            try (PreparedStatement seats = erp.prepareStatement(
+                    "UPDATE sections SET enrolled_count = ? WHERE section_id = ?")) {
+                int n = 0;
+                for (int s = 0; s < sectionCount; s++) {
+                    if (enrolled[s] == 0) continue;
+                    seats.setInt(1, enrolled[s]);
+                    seats.setInt(2, firstSectionId + s);
+                    seats.addBatch();
+                    if (++n % BATCH_SIZE == 0) seats.executeBatch();
+                }
+                seats.executeBatch();
+            }
+            try (Statement st = erp.createStatement()) {
+                gradeEnrollments(st, firstSectionId, firstSectionId + sectionCount - 1);
+            }
+            erp.commit();
+            erp.setAutoCommit(true);
+        }
+        return total;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Deterministic pseudo-random component scores for every enrollment in the section range,
+     * plus the matching grade_summaries rows.
+     */
+    private static void gradeEnrollments(Statement st, int fromSectionId, int toSectionId) throws SQLException {
+        String[][] components = {{"QUIZ", "37"}, {"MIDTERM", "53"}, {"ENDSEM", "71"}};
+        String range = "FROM enrollments WHERE section_id BETWEEN " + fromSectionId + " AND " + toSectionId;
+        for (String[] comp : components) {
+            st.executeUpdate("INSERT INTO grades(enrollment_id, component, score) "
+                    + "SELECT enrollment_id, '" + comp[0] + "', " + score(comp[1]) + " " + range);
+        }
+        st.executeUpdate("INSERT INTO grade_summaries(enrollment_id, quiz_score, midterm_score, endsem_score) "
+                + "SELECT enrollment_id, " + score(components[0][1]) + ", " + score(components[1][1]) + ", "
+                + score(components[2][1]) + " " + range);
+    }
+
+    private static String score(String multiplier) {
+        return "MOD(enrollment_id * " + multiplier + ", 61) + 40";
+    }
+
+    // ===== extra sections =====
+
+    /**
+     * Adds a current-term section taught by the first generated instructor and enrolls the
+     * first {@code students} students in it (optionally with component scores).
+     * Returns the new section id.
+     */
+    public synchronized int createSection(int capacity, int students, boolean withGrades) throws SQLException {
+        if (students > config.students()) {
+            throw new IllegalArgumentException("Only " + config.students() + " students were generated.");
+        }
+        int sectionId = nextSectionId++;
+        try (Connection erp = DbUtil.getErpConnection()) {
+            erp.setAutoCommit(false);
+            try (PreparedStatement ps = erp.prepareStatement(SECTION_SQL)) {
+                addSection(ps, sectionId, firstCourseId, instructorId(0), capacity,
+                        config.semester(), config.year(), new Random(sectionId));
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = erp.prepareStatement(ENROLL_SQL)) {
+                for (int i = 0; i < students; i++) {
+                    ps.setInt(1, studentId(i));
+                    ps.setInt(2, sectionId);
+                    ps.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            try (Statement st = erp.createStatement()) {
+                st.executeUpdate("UPDATE sections SET enrolled_count = " + students + " WHERE section_id = " + sectionId);
+                if (withGrades) {
+                    gradeEnrollments(st, sectionId, sectionId);
+                }
+            }
+            erp.commit();
+            erp.setAutoCommit(true);
+        }
+        CatalogCache.getInstance().invalidate();
+        return sectionId;
+    }
+
+    // ===== sampling =====
+
+    /** Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent. */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+        private final Random random;
+
+        ZipfSampler(int n, double exponent, Random random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next() {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+        }
+    }
+}
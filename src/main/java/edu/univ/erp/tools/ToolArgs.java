@@ -0,0 +1,54 @@
+package edu.univ.erp.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options of the form {@code --key=value} for the tools in this package.
+ * A key missing from the command line falls back to the system property
+ * {@code <propertyPrefix><key>}, then to the given default.
+ */
+final class ToolArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final String propertyPrefix;
+
+    ToolArgs(String[] args, String propertyPrefix) {
+        this.propertyPrefix = propertyPrefix;
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg + " (expected --key=value)");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");  // bare flag
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+
+    String get(String key, String defaultValue) {
+        String v = values.get(key);
+        return v != null ? v : System.getProperty(propertyPrefix + key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        String v = get(key, null);
+        return v == null ? defaultValue : Integer.parseInt(v.trim());
+    }
+
+    long getLong(String key, long defaultValue) {
+        String v = get(key, null);
+        return v == null ? defaultValue : Long.parseLong(v.trim());
+    }
+
+    double getDouble(String key, double defaultValue) {
+        String v = get(key, null);
+        return v == null ? defaultValue : Double.parseDouble(v.trim());
+    }
+
+    boolean getBoolean(String key) {
+        return Boolean.parseBoolean(get(key, "false"));
+    }
+}
@@ -0,0 +1,38 @@
+package edu.univ.erp.tools;
+
+import edu.univ.erp.data.QueryPlanVerifier;
+
+import java.util.List;
+
+/**
+ * EXPLAINs the DAO hot-path queries against the configured databases and flags full scans
+ * (see QueryPlanVerifier). Run it after migrating; exits with 1 when any query is flagged.
+ * --verbose prints every plan, not only the flagged ones.
+ */
+public class VerifyQueryPlans {
+
+    public static void main(String[] args) throws Exception {
+        boolean verbose = new ToolArgs(args, "verifyPlans.").getBoolean("verbose");
+
+        List<QueryPlanVerifier.Result> results = new QueryPlanVerifier().verify();
+        int flagged = 0;
+        for (QueryPlanVerifier.Result r : results) {
+            System.out.printf("%-4s %-50s [%s]%n", r.ok() ? "OK" : "FAIL", r.name(), r.database());
+            if (r.error() != null) {
+                System.out.println("       error: " + r.error());
+            }
+            r.problems().forEach(p -> System.out.println("       " + p));
+            r.notes().forEach(n -> System.out.println("       note: " + n));
+            if (verbose || !r.ok()) {
+                r.plan().forEach(line -> System.out.println("         | " + line));
+            }
+            if (!r.ok()) flagged++;
+        }
+
+        System.out.println();
+        System.out.println(flagged == 0
+                ? "All " + results.size() + " queries use an index."
+                : flagged + " of " + results.size() + " queries need attention.");
+        if (flagged > 0) System.exit(1);
+    }
+}
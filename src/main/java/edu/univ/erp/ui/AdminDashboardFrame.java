@@ -1,14 +1,18 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.access.AccessDeniedException;
+import edu.univ.erp.auth.AuthService;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.data.SettingsDao;
+import edu.univ.erp.domain.BulkExportOptions;
+import edu.univ.erp.domain.BulkExportResult;
 import edu.univ.erp.domain.CourseOption;
 import edu.univ.erp.domain.InstructorOption;
+import edu.univ.erp.domain.UserImportResult;
 import edu.univ.erp.service.AdminService;
-import edu.univ.erp.service.AuthService; // NEW IMPORT
 import edu.univ.erp.ui.common.UserProfileDialog;
 import edu.univ.erp.util.DatabaseBackupUtil;
+import edu.univ.erp.util.ServiceExecutor;
 import edu.univ.erp.ui.common.ChangePasswordDialog;
 import edu.univ.erp.ui.common.CourseActionRenderer;
 import edu.univ.erp.ui.common.CourseActionEditor;
@@ -21,8 +25,10 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.WindowAdapter; // NEW IMPORT
 import java.awt.event.WindowEvent; // NEW IMPORT
+import java.io.File;
 import java.sql.Time;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Admin dashboard:
@@ -52,6 +58,9 @@ public class AdminDashboardFrame extends JFrame {
     private JTextField txtAdmUsername;
     private JPasswordField txtAdmPassword;
 
+    private JButton btnImportUsers;
+    private JProgressBar importProgress;
+
     // ------ Courses & sections tab ------
     private JTextField txtCourseCode;
     private JTextField txtCourseTitle;
@@ -73,6 +82,16 @@ public class AdminDashboardFrame extends JFrame {
     private JLabel lblMaintStatus;
     private JCheckBox chkMaintenance;
 
+    // ------ Exports tab ------
+    private JButton btnExportGrades;
+    private JCheckBox chkExportGradebooks;
+    private JCheckBox chkExportTranscripts;
+    private JCheckBox chkExportZip;
+    private JButton btnBulkExport;
+    private JButton btnCancelBulkExport;
+    private JProgressBar bulkExportProgress;
+    private SwingWorker<BulkExportResult, BulkExportResult.Progress> bulkExportWorker;
+
     public AdminDashboardFrame(SessionContext session) {
         this.session = session;
 
@@ -138,6 +157,7 @@ public class AdminDashboardFrame extends JFrame {
         JTabbedPane tabs = new JTabbedPane();
         tabs.addTab("Users", buildUsersTab());
         tabs.addTab("Courses & Sections", buildCoursesTab());
+        tabs.addTab("Exports", buildExportsTab());
         tabs.addTab("Maintenance", buildMaintenanceTab());
         return tabs;
     }
@@ -156,6 +176,8 @@ public class AdminDashboardFrame extends JFrame {
         innerPanel.add(buildAdminUserPanel());
 
         root.add(innerPanel);
+        root.add(Box.createVerticalStrut(10));
+        root.add(buildBulkImportPanel());
 
         // Add vertical glue to push content to the top
         root.add(Box.createVerticalGlue());
@@ -358,6 +380,87 @@ public class AdminDashboardFrame extends JFrame {
         }
     }
 
+    private JComponent buildBulkImportPanel() {
+        JPanel p = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        p.setBorder(new TitledBorder("Bulk import (CSV)"));
+
+        btnImportUsers = new JButton("Import users from CSV...");
+        btnImportUsers.addActionListener(e -> onImportUsers());
+
+        importProgress = new JProgressBar();
+        importProgress.setStringPainted(true);
+        importProgress.setString("");
+        importProgress.setVisible(false);
+
+        p.add(btnImportUsers);
+        p.add(new JLabel("Columns: role, username, password, roll_no, program, year, department"));
+        p.add(importProgress);
+        p.setMaximumSize(new Dimension(Integer.MAX_VALUE, p.getPreferredSize().height + 30));
+        return p;
+    }
+
+    private void onImportUsers() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import users from CSV");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        btnImportUsers.setEnabled(false);
+        importProgress.setIndeterminate(true);
+        importProgress.setString("Importing...");
+        importProgress.setVisible(true);
+
+        // hashing thousands of passwords takes a while: run off the EDT, report rows done
+        new SwingWorker<UserImportResult, Integer>() {
+            @Override
+            protected UserImportResult doInBackground() throws Exception {
+                return adminService.importUsersCsv(session, file, this::publish);
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                importProgress.setString(chunks.get(chunks.size() - 1) + " rows processed");
+            }
+
+            @Override
+            protected void done() {
+                btnImportUsers.setEnabled(true);
+                importProgress.setIndeterminate(false);
+                importProgress.setVisible(false);
+                try {
+                    showImportResult(get());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showError("User import failed: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void showImportResult(UserImportResult result) {
+        String summary = "Rows: " + result.rows()
+                + "\nCreated: " + result.created()
+                + "\nFailed: " + result.failed();
+        if (result.failures().isEmpty()) {
+            JOptionPane.showMessageDialog(this, summary, "User import", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder report = new StringBuilder();
+        for (UserImportResult.Failure f : result.failures()) {
+            report.append("Line ").append(f.line()).append(" (").append(f.username()).append("): ")
+                    .append(f.reason()).append('\n');
+        }
+        JTextArea area = new JTextArea(report.toString(), 15, 60);
+        area.setEditable(false);
+        area.setCaretPosition(0);
+
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.add(new JLabel("<html>" + summary.replace("\n", "<br>") + "</html>"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(area), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(this, panel, "User import", JOptionPane.WARNING_MESSAGE);
+    }
+
     // ------------------- Courses & sections tab -------------------
 
     private JComponent buildCoursesTab() {
@@ -623,9 +726,11 @@ public class AdminDashboardFrame extends JFrame {
 
     private void refreshCombos() {
         try {
-            // Fetch once
-            List<CourseOption> courses = adminService.listCourses(session);
+            // Fetch once, both lists at the same time
+            Future<List<CourseOption>> courseList = ServiceExecutor.submit(ServiceExecutor.Db.ERP,
+                    () -> adminService.listCourses(session));
             List<InstructorOption> instructors = adminService.listInstructors(session);
+            List<CourseOption> courses = ServiceExecutor.await(courseList);
 
             // Courses
             cbSectionCourse.removeAllItems();
@@ -708,6 +813,9 @@ public class AdminDashboardFrame extends JFrame {
         JButton btnRestore = new JButton("Restore DBs...");
         btnRestore.addActionListener(e -> onRestore());
 
+        JButton btnReconcile = new JButton("Repair seat counts");
+        btnReconcile.addActionListener(e -> onReconcileSeatCounts());
+
         int row = 0;
 
         gbc.gridx = 0; gbc.gridy = row++;
@@ -719,9 +827,12 @@ public class AdminDashboardFrame extends JFrame {
         gbc.gridy = row++;
         p.add(btnBackup, gbc);
 
-        gbc.gridy = row;
+        gbc.gridy = row++;
         p.add(btnRestore, gbc);
 
+        gbc.gridy = row;
+        p.add(btnReconcile, gbc);
+
         // Vertical glue to push content to the top
         gbc.gridy = row + 1;
         gbc.weighty = 1.0;
@@ -774,6 +885,197 @@ public class AdminDashboardFrame extends JFrame {
         }
     }
 
+    private void onReconcileSeatCounts() {
+        try {
+            int repaired = adminService.reconcileSeatCounts(session);
+            JOptionPane.showMessageDialog(this, repaired == 0
+                    ? "Seat counts are consistent."
+                    : "Repaired seat counts for " + repaired + " section(s).");
+        } catch (Exception ex) {
+            showError("Seat count repair failed: " + ex.getMessage());
+        }
+    }
+
+    // ---------------------- Exports tab ---------------------------
+
+    private JComponent buildExportsTab() {
+        JPanel root = new JPanel();
+        root.setLayout(new BoxLayout(root, BoxLayout.Y_AXIS));
+        root.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel single = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        single.setBorder(new TitledBorder("All grades in one file"));
+        btnExportGrades = new JButton("Export all grades (CSV)...");
+        btnExportGrades.addActionListener(e -> onExportAllGrades());
+        single.add(btnExportGrades);
+        single.setMaximumSize(new Dimension(Integer.MAX_VALUE, single.getPreferredSize().height + 30));
+
+        JPanel bulk = new JPanel(new GridBagLayout());
+        bulk.setBorder(new TitledBorder("End-of-term export (one file per section / student)"));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(4, 4, 4, 4);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        chkExportGradebooks = new JCheckBox("Gradebooks (one CSV per section)", true);
+        chkExportTranscripts = new JCheckBox("Transcripts (one CSV per student)", true);
+        chkExportZip = new JCheckBox("Pack into a single .zip when done");
+
+        btnBulkExport = new JButton("Export to folder...");
+        btnBulkExport.addActionListener(e -> onBulkExport());
+        btnCancelBulkExport = new JButton("Stop");
+        btnCancelBulkExport.setEnabled(false);
+        btnCancelBulkExport.addActionListener(e -> {
+            if (bulkExportWorker != null) bulkExportWorker.cancel(true);
+        });
+
+        bulkExportProgress = new JProgressBar();
+        bulkExportProgress.setStringPainted(true);
+        bulkExportProgress.setString("");
+
+        int row = 0;
+        gbc.gridx = 0; gbc.gridy = row++; gbc.gridwidth = 2;
+        bulk.add(chkExportGradebooks, gbc);
+        gbc.gridy = row++;
+        bulk.add(chkExportTranscripts, gbc);
+        gbc.gridy = row++;
+        bulk.add(chkExportZip, gbc);
+        gbc.gridy = row++;
+        bulk.add(new JLabel("Interrupted exports resume when run again on the same folder."), gbc);
+
+        gbc.gridy = row++; gbc.gridwidth = 1;
+        bulk.add(btnBulkExport, gbc);
+        gbc.gridx = 1;
+        bulk.add(btnCancelBulkExport, gbc);
+
+        gbc.gridx = 0; gbc.gridy = row; gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.HORIZONTAL; gbc.weightx = 1.0;
+        bulk.add(bulkExportProgress, gbc);
+        bulk.setMaximumSize(new Dimension(Integer.MAX_VALUE, bulk.getPreferredSize().height + 30));
+
+        root.add(single);
+        root.add(Box.createVerticalStrut(10));
+        root.add(bulk);
+        root.add(Box.createVerticalGlue());
+        return root;
+    }
+
+    private void onExportAllGrades() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export all grades");
+        chooser.setSelectedFile(new File("all_grades.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        btnExportGrades.setEnabled(false);
+        btnExportGrades.setText("Exporting...");
+
+        // every grade in the university: stream it off the EDT
+        new SwingWorker<Long, Long>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return adminService.exportAllGradesCsv(session, file, this::publish);
+            }
+
+            @Override
+            protected void process(List<Long> chunks) {
+                btnExportGrades.setText("Exporting... " + chunks.get(chunks.size() - 1) + " rows");
+            }
+
+            @Override
+            protected void done() {
+                btnExportGrades.setEnabled(true);
+                btnExportGrades.setText("Export all grades (CSV)...");
+                try {
+                    JOptionPane.showMessageDialog(AdminDashboardFrame.this,
+                            "Exported " + get() + " grade rows to " + file.getName() + ".");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showError("Grade export failed: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void onBulkExport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export folder (choose the same folder to resume)");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        BulkExportOptions options = new BulkExportOptions(chooser.getSelectedFile(),
+                chkExportGradebooks.isSelected(), chkExportTranscripts.isSelected(), chkExportZip.isSelected());
+
+        btnBulkExport.setEnabled(false);
+        btnCancelBulkExport.setEnabled(true);
+        bulkExportProgress.setValue(0);
+        bulkExportProgress.setIndeterminate(true);
+        bulkExportProgress.setString("Preparing...");
+
+        bulkExportWorker = new SwingWorker<>() {
+            @Override
+            protected BulkExportResult doInBackground() throws Exception {
+                return adminService.bulkExport(session, options, this::publish);
+            }
+
+            @Override
+            protected void process(List<BulkExportResult.Progress> chunks) {
+                BulkExportResult.Progress last = chunks.get(chunks.size() - 1);
+                bulkExportProgress.setIndeterminate(false);
+                bulkExportProgress.setMaximum(Math.max(1, last.total()));
+                bulkExportProgress.setValue(last.done());
+                bulkExportProgress.setString(last.done() + " / " + last.total() + " files");
+            }
+
+            @Override
+            protected void done() {
+                btnBulkExport.setEnabled(true);
+                btnCancelBulkExport.setEnabled(false);
+                bulkExportProgress.setIndeterminate(false);
+                if (isCancelled()) {
+                    bulkExportProgress.setString("Stopped");
+                    JOptionPane.showMessageDialog(AdminDashboardFrame.this,
+                            "Export stopped. Run it again on the same folder to resume.");
+                    return;
+                }
+                try {
+                    showBulkExportResult(get());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    bulkExportProgress.setString("Failed");
+                    showError("Bulk export failed: " + cause.getMessage());
+                }
+            }
+        };
+        bulkExportWorker.execute();
+    }
+
+    private void showBulkExportResult(BulkExportResult result) {
+        bulkExportProgress.setString("Done");
+        String summary = "Files: " + result.files()
+                + " (written " + result.written() + ", already done " + result.skipped() + ")"
+                + "\nRows: " + result.rows()
+                + "\nFailed: " + result.failed()
+                + "\nOutput: " + result.output().getAbsolutePath();
+        if (result.failures().isEmpty()) {
+            JOptionPane.showMessageDialog(this, summary, "Bulk export", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder report = new StringBuilder();
+        for (BulkExportResult.Failure f : result.failures()) {
+            report.append(f.file()).append(": ").append(f.reason()).append('\n');
+        }
+        JTextArea area = new JTextArea(report.toString(), 15, 60);
+        area.setEditable(false);
+        area.setCaretPosition(0);
+
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.add(new JLabel("<html>" + summary.replace("\n", "<br>")
+                + "<br>Run the export again on the same folder to retry the failed files.</html>"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(area), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(this, panel, "Bulk export", JOptionPane.WARNING_MESSAGE);
+    }
+
     // ------------------- Utils -------------------
 
     private void showError(String msg) {
@@ -4,11 +4,16 @@ import edu.univ.erp.access.AccessDeniedException;
 import edu.univ.erp.access.AccessManager;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.domain.InstructorSectionRow;
+import edu.univ.erp.domain.GradeImportResult;
 import edu.univ.erp.domain.GradeRow;
+import edu.univ.erp.domain.GradebookSaveResult;
 import edu.univ.erp.service.InstructorService;
 import edu.univ.erp.ui.common.ChangePasswordDialog;
 import edu.univ.erp.ui.common.UserProfileDialog;
 import edu.univ.erp.ui.instructor.GradebookTableModel;
+import edu.univ.erp.ui.instructor.GradingSchemeDialog;
+import edu.univ.erp.ui.instructor.SectionStatsDialog;
+import edu.univ.erp.util.ServiceExecutor;
 import edu.univ.erp.ui.common.ChangePasswordDialog;
 
 import javax.swing.*;
@@ -25,8 +30,10 @@ import java.util.concurrent.ExecutionException;
  * - View "my sections"
  * - Enter scores per student
  * - Compute final grades
- * - View simple stats
+ * - View section statistics (per-component distribution, letter grades)
  * - Export grades CSV
+ * - Import grades CSV (validated, previewed as a diff, saved in one transaction)
+ * - Edit the section's grading scheme (weights, letter cutoffs, curve)
  */
 public class InstructorDashboardFrame extends JFrame {
 
@@ -172,9 +179,17 @@ public class InstructorDashboardFrame extends JFrame {
         JButton btnSaveAndCompute = new JButton("Save & Compute Final Grades");
         btnSaveAndCompute.addActionListener(e -> onSaveAndCompute());
 
-        JButton btnViewStats = new JButton("View Class Average");
+        JButton btnViewStats = new JButton("Section statistics...");
         btnViewStats.addActionListener(e -> onViewStats());
 
+        JButton btnImport = new JButton("Import grades CSV...");
+        btnImport.addActionListener(e -> onImportGrades());
+
+        JButton btnScheme = new JButton("Grading scheme...");
+        btnScheme.addActionListener(e -> onEditGradingScheme());
+
+        buttons.add(btnScheme);
+        buttons.add(btnImport);
         buttons.add(btnSaveAndCompute);
         buttons.add(btnViewStats);
 
@@ -187,7 +202,7 @@ public class InstructorDashboardFrame extends JFrame {
     // ======================= ACTIONS =======================
 
     private void refreshMaintenanceBanner() {
-        new SwingWorker<Boolean, Void>() {
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, new SwingWorker<Boolean, Void>() {
             @Override
             protected Boolean doInBackground() throws Exception {
                 return accessManager.isReadOnly(session);
@@ -203,11 +218,11 @@ public class InstructorDashboardFrame extends JFrame {
                     lblMaintenanceBanner.setVisible(true);
                 }
             }
-        }.execute();
+        });
     }
 
     private void loadSections() {
-        new SwingWorker<List<InstructorSectionRow>, Void>() {
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, new SwingWorker<List<InstructorSectionRow>, Void>() {
             @Override
             protected List<InstructorSectionRow> doInBackground() throws Exception {
                 return instructorService.getMySections(session);
@@ -237,7 +252,7 @@ public class InstructorDashboardFrame extends JFrame {
                     showError("Failed to load sections: " + cause.getMessage());
                 }
             }
-        }.execute();
+        });
     }
 
     private Integer getSelectedSectionId() {
@@ -254,7 +269,7 @@ public class InstructorDashboardFrame extends JFrame {
             return;
         }
 
-        new SwingWorker<List<GradeRow>, Void>() {
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, new SwingWorker<List<GradeRow>, Void>() {
             @Override
             protected List<GradeRow> doInBackground() throws Exception {
                 return instructorService.getGradebook(session, sectionId);
@@ -270,7 +285,7 @@ public class InstructorDashboardFrame extends JFrame {
                     showError("Failed to load grades: " + cause.getMessage());
                 }
             }
-        }.execute();
+        });
     }
 
     private void onSaveAndCompute() {
@@ -286,20 +301,22 @@ public class InstructorDashboardFrame extends JFrame {
 
         List<GradeRow> rowsToSave = gradesTableModel.getData();
 
-        new SwingWorker<Void, Void>() {
+        new SwingWorker<GradebookSaveResult, Void>() {
             @Override
-            protected Void doInBackground() throws Exception {
-                instructorService.saveScoresAndComputeFinal(session, sectionId, rowsToSave);
-                return null;
+            protected GradebookSaveResult doInBackground() throws Exception {
+                return instructorService.saveScoresAndComputeFinal(session, sectionId, rowsToSave);
             }
 
             @Override
             protected void done() {
                 try {
-                    get();
+                    GradebookSaveResult result = get();
                     loadGradesForSelectedSection();
                     JOptionPane.showMessageDialog(InstructorDashboardFrame.this,
-                            "Scores saved and final grades computed successfully.");
+                            "Scores saved and final grades computed successfully.\n"
+                                    + result.changed() + " score(s) changed ("
+                                    + result.inserted() + " new, " + result.updated() + " updated), "
+                                    + result.unchanged() + " unchanged.");
                 } catch (InterruptedException | ExecutionException e) {
                     Throwable cause = e.getCause() != null ? e.getCause() : e;
                     showError("Operation failed: " + cause.getMessage());
@@ -308,36 +325,23 @@ public class InstructorDashboardFrame extends JFrame {
         }.execute();
     }
 
-    private void onViewStats() {
+    private void onEditGradingScheme() {
         Integer sectionId = getSelectedSectionId();
         if (sectionId == null) {
             JOptionPane.showMessageDialog(this, "Select a section first.");
             return;
         }
+        new GradingSchemeDialog(this, session, instructorService, sectionId,
+                this::loadGradesForSelectedSection).setVisible(true);
+    }
 
-        new SwingWorker<Double, Void>() {
-            @Override
-            protected Double doInBackground() throws Exception {
-                return instructorService.computeClassAverage(session, sectionId);
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    Double average = get();
-                    String msg = (average != null)
-                            ? String.format("Class Average (based on calculated final scores): %.2f", average)
-                            : "No final scores available to calculate the class average.";
-                    JOptionPane.showMessageDialog(InstructorDashboardFrame.this,
-                            msg, "Class Statistics",
-                            JOptionPane.INFORMATION_MESSAGE);
-
-                } catch (InterruptedException | ExecutionException e) {
-                    Throwable cause = e.getCause() != null ? e.getCause() : e;
-                    showError("Failed to compute class average: " + cause.getMessage());
-                }
-            }
-        }.execute();
+    private void onViewStats() {
+        Integer sectionId = getSelectedSectionId();
+        if (sectionId == null) {
+            JOptionPane.showMessageDialog(this, "Select a section first.");
+            return;
+        }
+        new SectionStatsDialog(this, session, instructorService, sectionId).setVisible(true);
     }
 
     private void onExportGrades() {
@@ -376,6 +380,123 @@ public class InstructorDashboardFrame extends JFrame {
         }.execute();
     }
 
+    private void onImportGrades() {
+        Integer sectionId = getSelectedSectionId();
+        if (sectionId == null) {
+            JOptionPane.showMessageDialog(this, "Select a section first.");
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import grades CSV (same layout as the export)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        // 1. dry run: validate and diff, nothing is written
+        new SwingWorker<GradeImportResult, Void>() {
+            @Override
+            protected GradeImportResult doInBackground() throws Exception {
+                return instructorService.importGradesCsv(session, sectionId, file, true);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    GradeImportResult preview = get();
+                    if (confirmGradeImport(preview)) {
+                        applyGradeImport(sectionId, file);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    showError("Failed to read grades CSV: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /** Shows problems or the diff; returns true if the user chose to apply the changes. */
+    private boolean confirmGradeImport(GradeImportResult preview) {
+        String summary = preview.rows() + " row(s), " + preview.students() + " student(s), "
+                + preview.changes().size() + " score change(s)";
+
+        if (!preview.valid()) {
+            StringBuilder report = new StringBuilder();
+            for (GradeImportResult.Problem p : preview.problems()) {
+                report.append("Line ").append(p.line());
+                if (p.rollNo() != null && !p.rollNo().isEmpty()) report.append(" (").append(p.rollNo()).append(')');
+                report.append(": ").append(p.reason()).append('\n');
+            }
+            if (preview.problemCount() > preview.problems().size()) {
+                report.append("... and ").append(preview.problemCount() - preview.problems().size()).append(" more\n");
+            }
+            JTextArea area = new JTextArea(report.toString(), 15, 60);
+            area.setEditable(false);
+            area.setCaretPosition(0);
+
+            JPanel panel = new JPanel(new BorderLayout(4, 4));
+            panel.add(new JLabel("<html>" + summary + "<br>" + preview.problemCount()
+                    + " problem(s) found. Fix the file and import again; nothing was saved.</html>"), BorderLayout.NORTH);
+            panel.add(new JScrollPane(area), BorderLayout.CENTER);
+            JOptionPane.showMessageDialog(this, panel, "Import grades", JOptionPane.WARNING_MESSAGE);
+            return false;
+        }
+
+        if (preview.changes().isEmpty()) {
+            JOptionPane.showMessageDialog(this, summary + "\nThe file matches the current gradebook; nothing to import.");
+            return false;
+        }
+
+        DefaultTableModel diff = new DefaultTableModel(new String[]{"Roll No", "Component", "Current", "New"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        for (GradeImportResult.Change c : preview.changes()) {
+            diff.addRow(new Object[]{c.rollNo(), c.component(), formatScore(c.before()), formatScore(c.after())});
+        }
+        JTable table = new JTable(diff);
+        table.setPreferredScrollableViewportSize(new Dimension(480, 260));
+
+        JPanel panel = new JPanel(new BorderLayout(4, 4));
+        panel.add(new JLabel(summary + ". Apply these changes?"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return JOptionPane.showConfirmDialog(this, panel, "Import grades - preview",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) == JOptionPane.OK_OPTION;
+    }
+
+    // 2. apply: the file is validated again, then saved in one transaction
+    private void applyGradeImport(int sectionId, File file) {
+        new SwingWorker<GradeImportResult, Void>() {
+            @Override
+            protected GradeImportResult doInBackground() throws Exception {
+                return instructorService.importGradesCsv(session, sectionId, file, false);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    GradeImportResult result = get();
+                    loadGradesForSelectedSection();
+                    if (!result.applied()) {
+                        showError("The gradebook changed since the preview and the file no longer validates; "
+                                + "nothing was saved. Import it again to see the problems.");
+                        return;
+                    }
+                    GradebookSaveResult saved = result.saved();
+                    JOptionPane.showMessageDialog(InstructorDashboardFrame.this,
+                            "Grades imported for " + result.students() + " student(s).\n"
+                                    + saved.changed() + " score(s) changed ("
+                                    + saved.inserted() + " new, " + saved.updated() + " updated).");
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    showError("Grade import failed: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private static String formatScore(Double d) {
+        return d == null ? "" : String.format("%.2f", d);
+    }
+
     private void showError(String msg) {
         JOptionPane.showMessageDialog(this, msg,
                 "Error", JOptionPane.ERROR_MESSAGE);
@@ -1,13 +1,14 @@
 package edu.univ.erp.ui;
 
+import edu.univ.erp.auth.AuthService;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.domain.Role;
-import edu.univ.erp.service.AuthService;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Handles the user login process for the ERP system.
@@ -68,19 +69,32 @@ public class LoginFrame extends JFrame implements ActionListener {
         }
 
         btnLogin.setEnabled(false);
-
-        try {
-            SessionContext session = authService.login(username, password);
-            openDashboard(session);
-            dispose();
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Login failed: " + ex.getMessage(),
-                    "Login Error",
-                    JOptionPane.ERROR_MESSAGE);
-        } finally {
-            btnLogin.setEnabled(true);
-        }
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        // password check can queue behind other logins: keep the EDT free
+        new SwingWorker<SessionContext, Void>() {
+            @Override
+            protected SessionContext doInBackground() throws Exception {
+                return authService.login(username, password);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    openDashboard(get());
+                    dispose();
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(LoginFrame.this,
+                            "Login failed: " + cause.getMessage(),
+                            "Login Error",
+                            JOptionPane.ERROR_MESSAGE);
+                } finally {
+                    btnLogin.setEnabled(true);
+                }
+            }
+        }.execute();
     }
 
     private void openDashboard(SessionContext session) {
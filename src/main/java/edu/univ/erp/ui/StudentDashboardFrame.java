@@ -4,6 +4,7 @@ import com.formdev.flatlaf.FlatDarkLaf;
 import com.formdev.flatlaf.FlatLightLaf;
 import edu.univ.erp.auth.SessionContext;
 import edu.univ.erp.domain.CatalogSectionRow;
+import edu.univ.erp.domain.CatalogFilter;
 import edu.univ.erp.domain.StudentGradeRow;
 import edu.univ.erp.domain.StudentTimetableRow;
 import edu.univ.erp.service.StudentService;
@@ -12,6 +13,7 @@ import edu.univ.erp.ui.common.UserProfileDialog;
 import edu.univ.erp.ui.student.CatalogTableModel;
 import edu.univ.erp.ui.student.GradesTableModel;
 import edu.univ.erp.ui.student.TimetableTableModel;
+import edu.univ.erp.util.ServiceExecutor;
 import edu.univ.erp.ui.common.ChangePasswordDialog;
 
 import javax.swing.*;
@@ -19,6 +21,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class StudentDashboardFrame extends JFrame {
 
@@ -31,9 +34,29 @@ public class StudentDashboardFrame extends JFrame {
     private JTable timetableTable;
     private JTable gradesTable;
 
+    private CatalogTableModel catalogModel;
     private TimetableTableModel timetableModel;
     private GradesTableModel gradesModel;
 
+    // catalog filters
+    private JTextField tfSemester;
+    private JTextField tfYear;
+    private JTextField tfCodePrefix;
+    private JTextField tfInstructor;
+    private JComboBox<String> cbDay;
+    private JCheckBox chkHasSeats;
+
+    // per-tab "loading" indicators, visible while a background load for the tab runs
+    private JProgressBar catalogLoading;
+    private JProgressBar registrationsLoading;
+    private JProgressBar timetableLoading;
+    private JProgressBar gradesLoading;
+
+    // latest in-flight load per tab group; older ones are cancelled and their results dropped
+    private TabLoad<?> registrationsLoad;
+    private TabLoad<?> timetableLoad;
+    private TabLoad<?> gradesLoad;
+
     public StudentDashboardFrame(SessionContext session) {
         this.session = session;
         setTitle("Student Dashboard - " + session.getUsername());
@@ -44,6 +67,7 @@ public class StudentDashboardFrame extends JFrame {
         setJMenuBar(buildMenuBar());
         initUi();
 
+        // the loads run concurrently off the EDT
         refreshCatalog();
         refreshRegistrations();
         refreshTimetable();
@@ -122,21 +146,28 @@ public class StudentDashboardFrame extends JFrame {
     private JPanel buildCatalogPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
-        catalogTable = new JTable();
-        catalogTable.setModel(new DefaultTableModel(
-                new Object[][]{},
-                new String[]{"Section ID", "Code", "Title", "Instructor", "Day",
-                        "Time", "Room", "Capacity", "Enrolled", "Seats Left", "Sem", "Year"}
-        ) {
-            @Override
-            public boolean isCellEditable(int r, int c) {
-                return false;
-            }
+        // rows arrive page by page in (code, section) order, so no client-side sorting
+        catalogModel = new CatalogTableModel(CatalogTableModel.DEFAULT_PAGE_SIZE);
+        catalogTable = new JTable(catalogModel);
+
+        catalogLoading = newLoadingIndicator();
+        catalogModel.setLoadingListener(catalogLoading::setVisible);
+        catalogModel.setErrorListener(error ->
+                JOptionPane.showMessageDialog(this, "Failed to load catalog: " + error.getMessage()));
+
+        JScrollPane scroll = new JScrollPane(catalogTable);
+        scroll.getViewport().addChangeListener(e -> {
+            Rectangle view = scroll.getViewport().getViewRect();
+            int lastVisible = catalogTable.rowAtPoint(new Point(0, view.y + view.height - 1));
+            catalogModel.loadMoreIfNeeded(lastVisible == -1 ? catalogModel.getRowCount() : lastVisible);
         });
 
-        catalogTable.setAutoCreateRowSorter(true);
+        JPanel north = new JPanel(new BorderLayout());
+        north.add(buildCatalogFilterBar(), BorderLayout.CENTER);
+        north.add(catalogLoading, BorderLayout.SOUTH);
 
-        panel.add(new JScrollPane(catalogTable), BorderLayout.CENTER);
+        panel.add(north, BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
 
         JButton registerBtn = new JButton("Register in selected section");
         registerBtn.addActionListener(e -> doRegister());
@@ -145,6 +176,66 @@ public class StudentDashboardFrame extends JFrame {
         return panel;
     }
 
+    private JPanel buildCatalogFilterBar() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        tfSemester = new JTextField(8);
+        tfYear = new JTextField(5);
+        tfCodePrefix = new JTextField(8);
+        tfInstructor = new JTextField(8);
+        cbDay = new JComboBox<>(new String[]{"Any", "MON", "TUE", "WED", "THU", "FRI"});
+        chkHasSeats = new JCheckBox("Seats available");
+
+        JButton applyBtn = new JButton("Apply");
+        applyBtn.addActionListener(e -> refreshCatalog());
+        JButton clearBtn = new JButton("Clear");
+        clearBtn.addActionListener(e -> {
+            tfSemester.setText("");
+            tfYear.setText("");
+            tfCodePrefix.setText("");
+            tfInstructor.setText("");
+            cbDay.setSelectedIndex(0);
+            chkHasSeats.setSelected(false);
+            refreshCatalog();
+        });
+
+        bar.add(new JLabel("Semester:"));
+        bar.add(tfSemester);
+        bar.add(new JLabel("Year:"));
+        bar.add(tfYear);
+        bar.add(new JLabel("Code:"));
+        bar.add(tfCodePrefix);
+        bar.add(new JLabel("Instructor:"));
+        bar.add(tfInstructor);
+        bar.add(new JLabel("Day:"));
+        bar.add(cbDay);
+        bar.add(chkHasSeats);
+        bar.add(applyBtn);
+        bar.add(clearBtn);
+        return bar;
+    }
+
+    /** Current filter bar values; null when the year is not a number. */
+    private CatalogFilter readCatalogFilter() {
+        Integer year = null;
+        String yearText = tfYear.getText().trim();
+        if (!yearText.isEmpty()) {
+            try {
+                year = Integer.parseInt(yearText);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        String day = (String) cbDay.getSelectedItem();
+        return new CatalogFilter(
+                tfSemester.getText(),
+                year,
+                tfCodePrefix.getText(),
+                tfInstructor.getText(),
+                "Any".equals(day) ? null : day,
+                chkHasSeats.isSelected());
+    }
+
     private void doRegister() {
         int row = catalogTable.getSelectedRow();
         if (row == -1) {
@@ -152,18 +243,30 @@ public class StudentDashboardFrame extends JFrame {
             return;
         }
 
-        int modelRow = catalogTable.convertRowIndexToModel(row);
-        int sectionId = (Integer) catalogTable.getModel().getValueAt(modelRow, 0);
+        int sectionId = catalogModel.getRow(catalogTable.convertRowIndexToModel(row)).getSectionId();
 
-        try {
-            studentService.register(session, sectionId);
-            JOptionPane.showMessageDialog(this, "Registration successful.");
-            refreshCatalog();
-            refreshRegistrations();
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(),
-                    "Registration failed", JOptionPane.ERROR_MESSAGE);
-        }
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                studentService.register(session, sectionId);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(StudentDashboardFrame.this, "Registration successful.");
+                    refreshCatalog();
+                    refreshRegistrations();
+                    refreshTimetable();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(StudentDashboardFrame.this, cause.getMessage(),
+                            "Registration failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     // ---------- Registrations tab ----------
@@ -186,6 +289,8 @@ public class StudentDashboardFrame extends JFrame {
 
         registrationsTable.setAutoCreateRowSorter(true);
 
+        registrationsLoading = newLoadingIndicator();
+        panel.add(registrationsLoading, BorderLayout.NORTH);
         panel.add(new JScrollPane(registrationsTable), BorderLayout.CENTER);
 
         JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -213,15 +318,28 @@ public class StudentDashboardFrame extends JFrame {
         int modelRow = registrationsTable.convertRowIndexToModel(row);
         int sectionId = (Integer) registrationsTable.getModel().getValueAt(modelRow, 0);
 
-        try {
-            studentService.drop(session, sectionId);
-            JOptionPane.showMessageDialog(this, "Drop successful.");
-            refreshCatalog();
-            refreshRegistrations();
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(),
-                    "Drop failed", JOptionPane.ERROR_MESSAGE);
-        }
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                studentService.drop(session, sectionId);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(StudentDashboardFrame.this, "Drop successful.");
+                    refreshCatalog();
+                    refreshRegistrations();
+                    refreshTimetable();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(StudentDashboardFrame.this, cause.getMessage(),
+                            "Drop failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
     private void doExportTranscript() {
@@ -248,6 +366,8 @@ public class StudentDashboardFrame extends JFrame {
         timetableModel = new TimetableTableModel(List.of());
         timetableTable = new JTable(timetableModel);
         timetableTable.setAutoCreateRowSorter(true);
+        timetableLoading = newLoadingIndicator();
+        panel.add(timetableLoading, BorderLayout.NORTH);
         panel.add(new JScrollPane(timetableTable), BorderLayout.CENTER);
         return panel;
     }
@@ -259,79 +379,165 @@ public class StudentDashboardFrame extends JFrame {
         gradesModel = new GradesTableModel(List.of());
         gradesTable = new JTable(gradesModel);
         gradesTable.setAutoCreateRowSorter(true);
+        gradesLoading = newLoadingIndicator();
+        panel.add(gradesLoading, BorderLayout.NORTH);
         panel.add(new JScrollPane(gradesTable), BorderLayout.CENTER);
         return panel;
     }
 
+    private JProgressBar newLoadingIndicator() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setStringPainted(true);
+        bar.setString("Loading...");
+        bar.setVisible(false);
+        return bar;
+    }
+
     // ---------- Data loading ----------
 
-    private void refreshCatalog() {
-        try {
-            List<CatalogSectionRow> rows = studentService.viewCatalog(session);
-            DefaultTableModel model = (DefaultTableModel) catalogTable.getModel();
-            model.setRowCount(0);
-            for (CatalogSectionRow r : rows) {
-                model.addRow(new Object[]{
-                        r.getSectionId(),
-                        r.getCourseCode(),
-                        r.getCourseTitle(),
-                        r.getInstructorName(),
-                        r.getDayOfWeek(),
-                        r.getTimeRange(),
-                        r.getRoom(),
-                        r.getCapacity(),
-                        r.getEnrolled(),
-                        r.getSeatsLeft(),
-                        r.getSemester(),
-                        r.getYear()
-                });
+    /**
+     * Background load for one tab, run on the shared ServiceExecutor (ERP).
+     * Shows the tab's loading indicator while it runs; when it finishes, the result is
+     * applied only if this is still the latest load for that tab.
+     */
+    private abstract class TabLoad<T> extends SwingWorker<T, Void> {
+        private final String what;
+        private final JProgressBar[] indicators;
+
+        TabLoad(String what, JProgressBar... indicators) {
+            this.what = what;
+            this.indicators = indicators;
+            for (JProgressBar bar : indicators) {
+                bar.setVisible(true);
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to load catalog: " + ex.getMessage());
         }
+
+        /** True while no newer load for the same tabs has been started. */
+        protected abstract boolean isLatest();
+
+        /** Runs on the EDT with the loaded data. */
+        protected abstract void apply(T result);
+
+        @Override
+        protected void done() {
+            if (isCancelled() || !isLatest()) return;
+
+            for (JProgressBar bar : indicators) {
+                bar.setVisible(false);
+            }
+            try {
+                apply(get());
+            } catch (InterruptedException | ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                JOptionPane.showMessageDialog(StudentDashboardFrame.this,
+                        "Failed to load " + what + ": " + cause.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cancels a superseded load. Not interrupting: the JDBC call finishes normally and
+     * its connection goes back to the pool; only its result is discarded.
+     */
+    private static void cancelStale(TabLoad<?> load) {
+        if (load != null && !load.isDone()) {
+            load.cancel(false);
+        }
+    }
+
+    /** Restarts catalog paging with the current filters (first page loads in the background). */
+    private void refreshCatalog() {
+        CatalogFilter filter = readCatalogFilter();
+        if (filter == null) {
+            JOptionPane.showMessageDialog(this, "Year must be a number.");
+            return;
+        }
+        catalogModel.reset((after, pageSize) ->
+                studentService.browseCatalog(session, filter, after, pageSize));
     }
 
     private void refreshRegistrations() {
-        try {
-            List<CatalogSectionRow> rows = studentService.viewMyRegistrations(session);
-            DefaultTableModel model = (DefaultTableModel) registrationsTable.getModel();
-            model.setRowCount(0);
-            for (CatalogSectionRow r : rows) {
-                model.addRow(new Object[]{
-                        r.getSectionId(),
-                        r.getCourseCode(),
-                        r.getCourseTitle(),
-                        r.getInstructorName(),
-                        r.getDayOfWeek(),
-                        r.getTimeRange(),
-                        r.getRoom(),
-                        r.getCapacity(),
-                        r.getEnrolled(),
-                        r.getSeatsLeft(),
-                        r.getSemester(),
-                        r.getYear()
-                });
+        cancelStale(registrationsLoad);
+        registrationsLoad = new TabLoad<List<CatalogSectionRow>>("registrations", registrationsLoading) {
+            @Override
+            protected List<CatalogSectionRow> doInBackground() throws Exception {
+                return studentService.viewMyRegistrations(session);
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to load registrations: " + ex.getMessage());
-        }
+
+            @Override
+            protected boolean isLatest() {
+                return registrationsLoad == this;
+            }
+
+            @Override
+            protected void apply(List<CatalogSectionRow> rows) {
+                fillSectionTable(registrationsTable, rows);
+            }
+        };
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, registrationsLoad);
     }
 
     private void refreshTimetable() {
-        try {
-            List<StudentTimetableRow> rows = studentService.viewTimetable(session);
-            timetableModel.setData(rows);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to load timetable: " + ex.getMessage());
-        }
+        cancelStale(timetableLoad);
+        timetableLoad = new TabLoad<List<StudentTimetableRow>>("timetable", timetableLoading) {
+            @Override
+            protected List<StudentTimetableRow> doInBackground() throws Exception {
+                return studentService.viewTimetable(session);
+            }
+
+            @Override
+            protected boolean isLatest() {
+                return timetableLoad == this;
+            }
+
+            @Override
+            protected void apply(List<StudentTimetableRow> rows) {
+                timetableModel.setData(rows);
+            }
+        };
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, timetableLoad);
     }
 
     private void refreshGrades() {
-        try {
-            List<StudentGradeRow> rows = studentService.viewGrades(session);
-            gradesModel.setData(rows);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to load grades: " + ex.getMessage());
+        cancelStale(gradesLoad);
+        gradesLoad = new TabLoad<List<StudentGradeRow>>("grades", gradesLoading) {
+            @Override
+            protected List<StudentGradeRow> doInBackground() throws Exception {
+                return studentService.viewGrades(session);
+            }
+
+            @Override
+            protected boolean isLatest() {
+                return gradesLoad == this;
+            }
+
+            @Override
+            protected void apply(List<StudentGradeRow> rows) {
+                gradesModel.setData(rows);
+            }
+        };
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, gradesLoad);
+    }
+
+    private void fillSectionTable(JTable table, List<CatalogSectionRow> rows) {
+        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        model.setRowCount(0);
+        for (CatalogSectionRow r : rows) {
+            model.addRow(new Object[]{
+                    r.getSectionId(),
+                    r.getCourseCode(),
+                    r.getCourseTitle(),
+                    r.getInstructorName(),
+                    r.getDayOfWeek(),
+                    r.getTimeRange(),
+                    r.getRoom(),
+                    r.getCapacity(),
+                    r.getEnrolled(),
+                    r.getSeatsLeft(),
+                    r.getSemester(),
+                    r.getYear()
+            });
         }
     }
 }
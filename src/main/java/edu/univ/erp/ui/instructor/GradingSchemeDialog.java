@@ -0,0 +1,267 @@
+package edu.univ.erp.ui.instructor;
+
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.GradebookSaveResult;
+import edu.univ.erp.domain.GradingScheme;
+import edu.univ.erp.service.InstructorService;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Edits one section's grading scheme: component weights / max scores, letter cutoffs and the
+ * curve. Saving recomputes every final of the section; {@code onSaved} runs afterwards so the
+ * dashboard can reload the gradebook.
+ */
+public class GradingSchemeDialog extends JDialog {
+
+    private final SessionContext session;
+    private final InstructorService instructorService;
+    private final int sectionId;
+    private final Runnable onSaved;
+
+    private final DefaultTableModel componentsModel =
+            new DefaultTableModel(new String[]{"Component", "Weight", "Max score"}, 0);
+    private final DefaultTableModel cutoffsModel =
+            new DefaultTableModel(new String[]{"Letter", "Min final"}, 0);
+
+    private JTable tblComponents;
+    private JTable tblCutoffs;
+    private JComboBox<GradingScheme.Curve> cmbCurve;
+    private JTextField txtCurveTarget;
+    private JButton btnSave;
+    private JButton btnReset;
+
+    public GradingSchemeDialog(Frame owner, SessionContext session, InstructorService instructorService,
+                               int sectionId, Runnable onSaved) {
+        super(owner, "Grading scheme - section " + sectionId, true);
+        this.session = session;
+        this.instructorService = instructorService;
+        this.sectionId = sectionId;
+        this.onSaved = onSaved;
+
+        setSize(520, 480);
+        setLocationRelativeTo(owner);
+
+        initUi();
+        loadScheme();
+    }
+
+    private void initUi() {
+        tblComponents = new JTable(componentsModel);
+        // only the gradebook's score columns can be graded
+        tblComponents.getColumnModel().getColumn(0).setCellEditor(new DefaultCellEditor(
+                new JComboBox<>(GradingScheme.COMPONENT_NAMES.toArray(new String[0]))));
+        tblCutoffs = new JTable(cutoffsModel);
+
+        JPanel components = new JPanel(new BorderLayout(4, 4));
+        components.setBorder(BorderFactory.createTitledBorder("Components (final = weighted % of max score)"));
+        components.add(new JScrollPane(tblComponents), BorderLayout.CENTER);
+        components.add(rowButtons(tblComponents, componentsModel, new Object[]{"", "", "100"}), BorderLayout.SOUTH);
+
+        JPanel cutoffs = new JPanel(new BorderLayout(4, 4));
+        cutoffs.setBorder(BorderFactory.createTitledBorder("Letter grades"));
+        cutoffs.add(new JScrollPane(tblCutoffs), BorderLayout.CENTER);
+        cutoffs.add(rowButtons(tblCutoffs, cutoffsModel, new Object[]{"", ""}), BorderLayout.SOUTH);
+
+        JPanel tables = new JPanel(new GridLayout(2, 1, 4, 4));
+        tables.add(components);
+        tables.add(cutoffs);
+
+        cmbCurve = new JComboBox<>(GradingScheme.Curve.values());
+        txtCurveTarget = new JTextField(5);
+        cmbCurve.addActionListener(e -> txtCurveTarget.setEnabled(cmbCurve.getSelectedItem() != GradingScheme.Curve.NONE));
+
+        JPanel curve = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        curve.add(new JLabel("Curve:"));
+        curve.add(cmbCurve);
+        curve.add(new JLabel("Target:"));
+        curve.add(txtCurveTarget);
+
+        btnSave = new JButton("Save & Recompute");
+        btnSave.addActionListener(e -> onSave(false));
+        btnReset = new JButton("Reset to default");
+        btnReset.addActionListener(e -> onSave(true));
+        JButton btnCancel = new JButton("Cancel");
+        btnCancel.addActionListener(e -> dispose());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(btnReset);
+        buttons.add(btnSave);
+        buttons.add(btnCancel);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(curve, BorderLayout.NORTH);
+        south.add(buttons, BorderLayout.SOUTH);
+
+        JPanel content = new JPanel(new BorderLayout(4, 4));
+        content.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        content.add(tables, BorderLayout.CENTER);
+        content.add(south, BorderLayout.SOUTH);
+        setContentPane(content);
+    }
+
+    private static JPanel rowButtons(JTable table, DefaultTableModel model, Object[] blankRow) {
+        JButton add = new JButton("Add");
+        add.addActionListener(e -> model.addRow(blankRow.clone()));
+        JButton remove = new JButton("Remove");
+        remove.addActionListener(e -> {
+            int row = table.getSelectedRow();
+            if (row < 0) return;
+            if (table.isEditing()) table.getCellEditor().cancelCellEditing();
+            model.removeRow(row);
+        });
+        JPanel p = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        p.add(add);
+        p.add(remove);
+        return p;
+    }
+
+    // ======================= LOAD / SAVE =======================
+
+    private void loadScheme() {
+        setButtonsEnabled(false);
+        new SwingWorker<GradingScheme, Void>() {
+            @Override
+            protected GradingScheme doInBackground() throws Exception {
+                return instructorService.getGradingScheme(session, sectionId);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    fill(get());
+                    setButtonsEnabled(true);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    showError("Failed to load grading scheme: " + cause.getMessage());
+                    dispose();
+                }
+            }
+        }.execute();
+    }
+
+    private void fill(GradingScheme scheme) {
+        componentsModel.setRowCount(0);
+        for (GradingScheme.Component c : scheme.components()) {
+            componentsModel.addRow(new Object[]{c.name(), format(c.weight()), format(c.maxScore())});
+        }
+        cutoffsModel.setRowCount(0);
+        for (GradingScheme.Cutoff c : scheme.cutoffs()) {
+            cutoffsModel.addRow(new Object[]{c.letter(), format(c.minScore())});
+        }
+        cmbCurve.setSelectedItem(scheme.curve());
+        txtCurveTarget.setText(scheme.curve() == GradingScheme.Curve.NONE ? "" : format(scheme.curveTarget()));
+        txtCurveTarget.setEnabled(scheme.curve() != GradingScheme.Curve.NONE);
+    }
+
+    private void onSave(boolean resetToDefault) {
+        GradingScheme scheme = null;
+        if (resetToDefault) {
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "Go back to the default scheme (20% quiz, 30% midterm, 50% end-sem)\n"
+                            + "and recompute all final grades of this section?",
+                    "Reset grading scheme", JOptionPane.OK_CANCEL_OPTION);
+            if (choice != JOptionPane.OK_OPTION) return;
+        } else {
+            try {
+                scheme = readScheme();
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage());
+                return;
+            }
+        }
+
+        GradingScheme toSave = scheme;
+        setButtonsEnabled(false);
+        new SwingWorker<GradebookSaveResult, Void>() {
+            @Override
+            protected GradebookSaveResult doInBackground() throws Exception {
+                return instructorService.saveGradingScheme(session, sectionId, toSave);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    GradebookSaveResult result = get();
+                    JOptionPane.showMessageDialog(GradingSchemeDialog.this,
+                            "Grading scheme saved; final grades recomputed ("
+                                    + result.changed() + " changed).");
+                    dispose();
+                    if (onSaved != null) onSaved.run();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    showError("Failed to save grading scheme: " + cause.getMessage());
+                    setButtonsEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    // the service validates the rest; this only parses the tables
+    private GradingScheme readScheme() {
+        stopEditing(tblComponents);
+        stopEditing(tblCutoffs);
+
+        List<GradingScheme.Component> components = new ArrayList<>();
+        for (int r = 0; r < componentsModel.getRowCount(); r++) {
+            String name = text(componentsModel, r, 0).toUpperCase();
+            if (name.isEmpty()) continue;
+            components.add(new GradingScheme.Component(name,
+                    number(componentsModel, r, 1, "Weight of " + name),
+                    number(componentsModel, r, 2, "Max score of " + name)));
+        }
+
+        List<GradingScheme.Cutoff> cutoffs = new ArrayList<>();
+        for (int r = 0; r < cutoffsModel.getRowCount(); r++) {
+            String letter = text(cutoffsModel, r, 0);
+            if (letter.isEmpty()) continue;
+            cutoffs.add(new GradingScheme.Cutoff(letter, number(cutoffsModel, r, 1, "Min final of " + letter)));
+        }
+
+        GradingScheme.Curve curve = (GradingScheme.Curve) cmbCurve.getSelectedItem();
+        double target = 0;
+        if (curve != GradingScheme.Curve.NONE) {
+            target = parse(txtCurveTarget.getText(), "Curve target");
+        }
+        return new GradingScheme(components, cutoffs, curve, target);
+    }
+
+    private static void stopEditing(JTable table) {
+        if (table.isEditing()) table.getCellEditor().stopCellEditing();
+    }
+
+    private static String text(DefaultTableModel model, int row, int column) {
+        Object v = model.getValueAt(row, column);
+        return v == null ? "" : v.toString().trim();
+    }
+
+    private static double number(DefaultTableModel model, int row, int column, String what) {
+        return parse(text(model, row, column), what);
+    }
+
+    private static double parse(String text, String what) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " must be a number.");
+        }
+    }
+
+    private static String format(double d) {
+        return d == Math.rint(d) ? String.valueOf((long) d) : String.valueOf(d);
+    }
+
+    private void setButtonsEnabled(boolean enabled) {
+        btnSave.setEnabled(enabled);
+        btnReset.setEnabled(enabled);
+    }
+
+    private void showError(String msg) {
+        JOptionPane.showMessageDialog(this, msg, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+}
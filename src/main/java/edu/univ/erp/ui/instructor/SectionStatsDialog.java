@@ -0,0 +1,181 @@
+package edu.univ.erp.ui.instructor;
+
+import edu.univ.erp.auth.SessionContext;
+import edu.univ.erp.domain.SectionStats;
+import edu.univ.erp.service.InstructorService;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Section statistics: one row per component (count, mean, median, spread, percentiles), the
+ * histogram of the selected component and the letter-grade distribution.
+ */
+public class SectionStatsDialog extends JDialog {
+
+    private static final String[] COLUMNS = {
+            "Component", "Graded", "Mean", "Median", "Std dev", "Min", "P10", "P25", "P75", "P90", "Max"
+    };
+
+    private final SessionContext session;
+    private final InstructorService instructorService;
+    private final int sectionId;
+
+    private final DefaultTableModel statsModel = new DefaultTableModel(COLUMNS, 0) {
+        @Override public boolean isCellEditable(int r, int c) { return false; }
+    };
+    private final HistogramPanel histogramPanel = new HistogramPanel();
+    private final JLabel lblSummary = new JLabel("Loading...");
+    private final JLabel lblLetters = new JLabel(" ");
+
+    private JTable tblStats;
+    private SectionStats stats;
+
+    public SectionStatsDialog(Frame owner, SessionContext session, InstructorService instructorService, int sectionId) {
+        super(owner, "Section statistics - section " + sectionId, true);
+        this.session = session;
+        this.instructorService = instructorService;
+        this.sectionId = sectionId;
+
+        setSize(820, 480);
+        setLocationRelativeTo(owner);
+
+        initUi();
+        loadStats();
+    }
+
+    private void initUi() {
+        tblStats = new JTable(statsModel);
+        tblStats.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tblStats.setPreferredScrollableViewportSize(new Dimension(780, 120));
+        tblStats.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showHistogram();
+        });
+
+        histogramPanel.setBorder(BorderFactory.createTitledBorder("Histogram"));
+
+        JButton btnClose = new JButton("Close");
+        btnClose.addActionListener(e -> dispose());
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(lblLetters, BorderLayout.CENTER);
+        south.add(btnClose, BorderLayout.EAST);
+
+        JPanel content = new JPanel(new BorderLayout(4, 4));
+        content.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        content.add(lblSummary, BorderLayout.NORTH);
+        JPanel center = new JPanel(new BorderLayout(4, 4));
+        center.add(new JScrollPane(tblStats), BorderLayout.NORTH);
+        center.add(histogramPanel, BorderLayout.CENTER);
+        content.add(center, BorderLayout.CENTER);
+        content.add(south, BorderLayout.SOUTH);
+        setContentPane(content);
+    }
+
+    private void loadStats() {
+        new SwingWorker<SectionStats, Void>() {
+            @Override
+            protected SectionStats doInBackground() throws Exception {
+                return instructorService.getSectionStats(session, sectionId);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    fill(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(SectionStatsDialog.this,
+                            "Failed to load statistics: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    dispose();
+                }
+            }
+        }.execute();
+    }
+
+    private void fill(SectionStats s) {
+        this.stats = s;
+        statsModel.setRowCount(0);
+        for (SectionStats.ComponentStats c : s.components()) {
+            statsModel.addRow(new Object[]{
+                    c.component(), c.count(), fmt(c.mean()), fmt(c.median()), fmt(c.stdDev()),
+                    fmt(c.min()), fmt(c.p10()), fmt(c.p25()), fmt(c.p75()), fmt(c.p90()), fmt(c.max())
+            });
+        }
+
+        SectionStats.ComponentStats finals = s.component("FINAL");
+        lblSummary.setText(finals == null
+                ? "No final scores yet; compute final grades to see the class average."
+                : "Class average (final): " + fmt(finals.mean()) + " over " + finals.count() + " student(s)");
+
+        StringBuilder letters = new StringBuilder();
+        for (Map.Entry<String, Integer> e : s.letterCounts().entrySet()) {
+            if (letters.length() > 0) letters.append("   ");
+            letters.append(e.getKey()).append(": ").append(e.getValue());
+        }
+        lblLetters.setText(letters.length() == 0 ? " " : "Letter grades - " + letters);
+
+        if (statsModel.getRowCount() > 0) {
+            int row = s.components().indexOf(finals);
+            tblStats.setRowSelectionInterval(Math.max(row, 0), Math.max(row, 0));
+        }
+    }
+
+    private void showHistogram() {
+        int row = tblStats.getSelectedRow();
+        histogramPanel.setStats(stats == null || row < 0 ? null : stats.components().get(row));
+    }
+
+    private static String fmt(double d) {
+        return String.format("%.1f", d);
+    }
+
+    /** Bar chart of one component's histogram. */
+    private static class HistogramPanel extends JPanel {
+
+        private SectionStats.ComponentStats stats;
+
+        HistogramPanel() {
+            setPreferredSize(new Dimension(780, 220));
+        }
+
+        void setStats(SectionStats.ComponentStats stats) {
+            this.stats = stats;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (stats == null) return;
+
+            Insets in = getInsets();
+            int[] bins = stats.histogram();
+            int peak = 1;
+            for (int b : bins) peak = Math.max(peak, b);
+
+            FontMetrics fm = g.getFontMetrics();
+            int labelHeight = fm.getHeight();
+            int x0 = in.left + 8;
+            int width = getWidth() - in.left - in.right - 16;
+            int top = in.top + labelHeight + 4;
+            int bottom = getHeight() - in.bottom - labelHeight - 4;
+            int barWidth = width / bins.length;
+            double binWidth = stats.histogramMax() / bins.length;
+
+            for (int i = 0; i < bins.length; i++) {
+                int h = (int) Math.round((bottom - top) * (bins[i] / (double) peak));
+                int x = x0 + i * barWidth;
+                g.setColor(new Color(70, 130, 180));
+                g.fillRect(x + 2, bottom - h, barWidth - 4, h);
+                g.setColor(getForeground());
+                String count = String.valueOf(bins[i]);
+                g.drawString(count, x + (barWidth - fm.stringWidth(count)) / 2, bottom - h - 2);
+                String range = String.format("%.0f-%.0f", i * binWidth, (i + 1) * binWidth);
+                g.drawString(range, x + (barWidth - fm.stringWidth(range)) / 2, bottom + labelHeight);
+            }
+        }
+    }
+}
@@ -1,12 +1,37 @@
 package edu.univ.erp.ui.student;
 
+import edu.univ.erp.domain.CatalogPage;
 import edu.univ.erp.domain.CatalogSectionRow;
+import edu.univ.erp.util.ServiceExecutor;
 
+import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
+/**
+ * Catalog table model.
+ *
+ * Either holds a fixed list ({@link #setData(List)}) or pages lazily: after
+ * {@link #reset(PageLoader)} it loads the first page, and {@link #loadMoreIfNeeded(int)}
+ * (called as the table scrolls) fetches the next page in the background when the user
+ * gets close to the last loaded row. All methods must be called on the EDT.
+ */
 public class CatalogTableModel extends AbstractTableModel {
 
+    /** Fetches one page starting after the cursor (null = first page). Runs off the EDT. */
+    @FunctionalInterface
+    public interface PageLoader {
+        CatalogPage load(CatalogPage.Cursor after, int pageSize) throws Exception;
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // start fetching the next page when this close to the end of the loaded rows
+    private static final int PREFETCH_ROWS = 25;
+
     private final String[] columns = {
             "Section ID", "Code", "Title", "Credits",
             "Instructor", "Day", "Time", "Room",
@@ -15,15 +40,117 @@ public class CatalogTableModel extends AbstractTableModel {
 
     private List<CatalogSectionRow> data;
 
+    // paging state (unused for fixed lists)
+    private final int pageSize;
+    private PageLoader loader;
+    private CatalogPage.Cursor nextCursor;
+    private boolean hasMore;
+    private SwingWorker<CatalogPage, Void> pending;
+    private int generation; // bumped by reset / setData so late pages of an old query are dropped
+
+    private Consumer<Boolean> loadingListener = loading -> { };
+    private Consumer<Throwable> errorListener = error -> { };
+
     public CatalogTableModel(List<CatalogSectionRow> data) {
         this.data = data;
+        this.pageSize = DEFAULT_PAGE_SIZE;
+    }
+
+    public CatalogTableModel(int pageSize) {
+        this.data = new ArrayList<>();
+        this.pageSize = pageSize;
     }
 
     public void setData(List<CatalogSectionRow> data) {
+        stopPaging();
         this.data = data;
         fireTableDataChanged();
     }
 
+    /** Notified with true when a page load starts and false when it ends. */
+    public void setLoadingListener(Consumer<Boolean> loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
+    /** Notified when a page load fails; paging stops until the next reset. */
+    public void setErrorListener(Consumer<Throwable> errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /** Clears the table and starts paging through a new query. */
+    public void reset(PageLoader loader) {
+        stopPaging();
+        this.loader = loader;
+        this.data = new ArrayList<>();
+        this.hasMore = true;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    /** Fetches the next page if {@code lastVisibleRow} is near the end of the loaded rows. */
+    public void loadMoreIfNeeded(int lastVisibleRow) {
+        if (loader != null && hasMore && pending == null
+                && lastVisibleRow >= data.size() - PREFETCH_ROWS) {
+            loadNextPage();
+        }
+    }
+
+    public boolean isLoading() {
+        return pending != null;
+    }
+
+    private void stopPaging() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false); // let the query finish; its page is ignored
+            pending = null;
+            loadingListener.accept(false);
+        }
+        loader = null;
+        nextCursor = null;
+        hasMore = false;
+    }
+
+    private void loadNextPage() {
+        final int gen = generation;
+        final PageLoader pageLoader = loader;
+        final CatalogPage.Cursor after = nextCursor;
+
+        loadingListener.accept(true);
+        pending = new SwingWorker<>() {
+            @Override
+            protected CatalogPage doInBackground() throws Exception {
+                return pageLoader.load(after, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return; // superseded by reset / setData
+
+                pending = null;
+                loadingListener.accept(false);
+                try {
+                    appendPage(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    hasMore = false;
+                    errorListener.accept(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        };
+        ServiceExecutor.execute(ServiceExecutor.Db.ERP, pending);
+    }
+
+    private void appendPage(CatalogPage page) {
+        nextCursor = page.next();
+        hasMore = page.hasMore();
+
+        int first = data.size();
+        data.addAll(page.rows());
+        if (data.size() > first) {
+            fireTableRowsInserted(first, data.size() - 1);
+        }
+    }
+
     public CatalogSectionRow getRow(int rowIndex) {
         return data.get(rowIndex);
     }
@@ -64,4 +191,3 @@ public class CatalogTableModel extends AbstractTableModel {
         };
     }
 }
-
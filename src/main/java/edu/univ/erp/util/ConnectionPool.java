@@ -0,0 +1,506 @@
+package edu.univ.erp.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small bounded JDBC connection pool (one instance per datasource).
+ *
+ * Features:
+ *  - min / max sizing, callers wait up to maxWait when all connections are busy
+ *  - validation on borrow (Connection.isValid), skipped for recently validated connections
+ *  - idle eviction down to minSize, refill up to minSize
+ *  - leak detection: connections held longer than leakThreshold are reported with the borrowing stack
+ *  - metrics through {@link #stats()}; per-DAO-method metrics (DaoMetrics) and the slow-query
+ *    log (SlowQueryLog) when enabled
+ *
+ * Callers keep using try-with-resources: closing the handed-out connection returns it to the pool.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Immutable pool settings. All durations are in milliseconds; 0 disables the feature
+     * (leakThresholdMillis, idleTimeoutMillis).
+     */
+    public record Config(String url,
+                         String user,
+                         String password,
+                         int minSize,
+                         int maxSize,
+                         long maxWaitMillis,
+                         long idleTimeoutMillis,
+                         boolean validateOnBorrow,
+                         long validationIntervalMillis,
+                         int validationTimeoutSeconds,
+                         long leakThresholdMillis,
+                         long housekeepingIntervalMillis) {
+
+        public Config {
+            if (maxSize <= 0) throw new IllegalArgumentException("Pool maxSize must be > 0.");
+            if (minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool minSize must be between 0 and maxSize.");
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool metrics.
+     */
+    public record Stats(String name,
+                        int active,
+                        int idle,
+                        int total,
+                        int maxSize,
+                        int waiting,
+                        long borrowCount,
+                        double avgWaitMillis,
+                        double maxWaitMillis,
+                        long timeouts,
+                        long created,
+                        long destroyed,
+                        long leaksDetected) {
+
+        @Override
+        public String toString() {
+            return String.format("%s pool: active=%d idle=%d total=%d/%d waiting=%d borrows=%d " +
+                            "avgWait=%.2fms maxWait=%.2fms timeouts=%d created=%d destroyed=%d leaks=%d",
+                    name, active, idle, total, maxSize, waiting, borrowCount,
+                    avgWaitMillis, maxWaitMillis, timeouts, created, destroyed, leaksDetected);
+        }
+    }
+
+    private static final ScheduledExecutorService HOUSEKEEPER =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "db-pool-housekeeper");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final String name;
+    private final Config config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();   // guarded by lock
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private int total;                                                   // guarded by lock
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+
+    public ConnectionPool(String name, Config config) {
+        this.name = name;
+        this.config = config;
+        fillToMinimum();
+        if (config.housekeepingIntervalMillis() > 0) {
+            HOUSEKEEPER.scheduleWithFixedDelay(this::housekeep,
+                    config.housekeepingIntervalMillis(),
+                    config.housekeepingIntervalMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public String getName() { return name; }
+    public int getMaxSize() { return config.maxSize(); }
+
+    // ===================== borrow / return =====================
+
+    /**
+     * Borrows a connection, waiting up to maxWait if the pool is exhausted.
+     * The returned connection goes back to the pool when closed.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.maxWaitMillis());
+
+        while (true) {
+            PooledConnection entry = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("Connection pool '" + name + "' is closed.");
+                    }
+                    entry = idle.pollFirst();
+                    if (entry != null) break;
+                    if (total < config.maxSize()) {
+                        total++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.incrementAndGet();
+                        throw new SQLTimeoutException("Timed out after " + config.maxWaitMillis()
+                                + " ms waiting for a connection from pool '" + name + "' (max "
+                                + config.maxSize() + " connections in use).");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                entry = createPhysical();
+            } else if (!validate(entry)) {
+                destroy(entry);
+                continue;
+            }
+
+            long waitNanos = System.nanoTime() - start;
+            recordWait(waitNanos);
+            return entry.lease(DaoMetrics.ENABLED ? DaoMetrics.begin(name, waitNanos) : null);
+        }
+    }
+
+    private PooledConnection createPhysical() throws SQLException {
+        try {
+            Connection physical = DriverManager.getConnection(config.url(), config.user(), config.password());
+            created.incrementAndGet();
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean validate(PooledConnection entry) {
+        if (!config.validateOnBorrow()) return true;
+        long sinceCheck = System.currentTimeMillis() - entry.lastValidatedAt;
+        if (sinceCheck < config.validationIntervalMillis()) return true;
+        try {
+            if (entry.physical.isValid(config.validationTimeoutSeconds())) {
+                entry.lastValidatedAt = System.currentTimeMillis();
+                return true;
+            }
+        } catch (SQLException ignored) {
+            // fall through: treat as broken
+        }
+        return false;
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Called by the proxy when the application closes its connection.
+     */
+    private void release(PooledConnection entry) {
+        borrowed.remove(entry);
+
+        boolean healthy = resetState(entry);
+        if (!healthy || closed) {
+            destroy(entry);
+            return;
+        }
+
+        entry.lastUsedAt = System.currentTimeMillis();
+        lock.lock();
+        try {
+            idle.addFirst(entry);   // LIFO keeps the hottest connections in use
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rolls back any transaction left open and restores auto-commit so the next borrower
+     * sees a clean connection. Returns false if the connection is unusable.
+     */
+    private boolean resetState(PooledConnection entry) {
+        try {
+            Connection c = entry.physical;
+            if (c.isClosed()) return false;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException ignored) {
+        }
+        destroyed.incrementAndGet();
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ===================== housekeeping =====================
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println("[" + name + " pool] housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        if (config.idleTimeoutMillis() <= 0) return;
+        long cutoff = System.currentTimeMillis() - config.idleTimeoutMillis();
+        List<PooledConnection> evicted = new ArrayList<>();
+
+        lock.lock();
+        try {
+            // oldest idle connections sit at the tail of the deque
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total - evicted.size() > config.minSize()) {
+                PooledConnection entry = it.next();
+                if (entry.lastUsedAt > cutoff) break;
+                it.remove();
+                evicted.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection entry : evicted) {
+            destroy(entry);
+        }
+    }
+
+    private void detectLeaks() {
+        if (config.leakThresholdMillis() <= 0) return;
+        long cutoff = System.currentTimeMillis() - config.leakThresholdMillis();
+        for (PooledConnection entry : borrowed) {
+            if (!entry.leakReported && entry.borrowedAt < cutoff) {
+                entry.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("[" + name + " pool] possible connection leak: connection held for "
+                        + (System.currentTimeMillis() - entry.borrowedAt) + " ms");
+                if (entry.borrowStack != null) {
+                    entry.borrowStack.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed) {
+            lock.lock();
+            try {
+                if (total >= config.minSize()) return;
+                total++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledConnection entry;
+            try {
+                entry = createPhysical();
+            } catch (SQLException e) {
+                // DB not reachable yet; borrowers will retry on demand
+                return;
+            }
+            entry.lastUsedAt = System.currentTimeMillis();
+            lock.lock();
+            try {
+                idle.addLast(entry);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ===================== metrics / lifecycle =====================
+
+    public Stats stats() {
+        int idleCount;
+        int totalCount;
+        int waiting;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+            totalCount = total;
+            waiting = lock.getWaitQueueLength(available);
+        } finally {
+            lock.unlock();
+        }
+
+        long borrows = borrowCount.get();
+        double avgWait = borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+
+        return new Stats(name,
+                borrowed.size(),
+                idleCount,
+                totalCount,
+                config.maxSize(),
+                waiting,
+                borrows,
+                avgWait,
+                maxWaitNanos.get() / 1_000_000.0,
+                timeouts.get(),
+                created.get(),
+                destroyed.get(),
+                leaksDetected.get());
+    }
+
+    /**
+     * Closes all idle connections. Borrowed connections are closed as they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection entry : toClose) {
+            destroy(entry);
+        }
+    }
+
+    // ===================== pooled connection =====================
+
+    /**
+     * One physical connection plus its bookkeeping. Each borrow hands out a fresh proxy,
+     * so a stale reference kept after close() cannot touch the next borrower's session.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsedAt = System.currentTimeMillis();
+        volatile long lastValidatedAt = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease(DaoMetrics.Call call) {
+            borrowedAt = System.currentTimeMillis();
+            leakReported = false;
+            borrowStack = config.leakThresholdMillis() > 0
+                    ? new Throwable("Connection borrowed from pool '" + name + "' here")
+                    : null;
+            borrowed.add(this);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this, call));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection entry;
+        private final DaoMetrics.Call call;   // null unless metrics are enabled
+        private boolean returned;
+
+        LeaseHandler(PooledConnection entry, DaoMetrics.Call call) {
+            this.entry = entry;
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String m = method.getName();
+            switch (m) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        if (call != null) call.end();
+                        release(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + name + "] " + entry.physical;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                if (call != null && e.getCause() instanceof SQLException) call.error();
+                throw e.getCause();
+            }
+            if (InstrumentedJdbc.ENABLED && result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return InstrumentedJdbc.statement(result, method.getReturnType(), name, sql, call);
+            }
+            return result;
+        }
+    }
+}
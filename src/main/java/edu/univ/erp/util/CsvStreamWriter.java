@@ -0,0 +1,180 @@
+package edu.univ.erp.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/**
+ * Small CSV writer for exports that may run to millions of rows.
+ *
+ * Writes straight into a 64 KB buffer, quotes a field only when it has to, and formats
+ * scores to two decimals by hand instead of String.format (one Formatter, a few strings and
+ * a locale lookup per cell). Output follows CSVFormat.DEFAULT (comma, CRLF, minimal
+ * quoting), so commons-csv reads the files back unchanged.
+ *
+ * Fields are written in order; {@link #endRow()} finishes the current record.
+ */
+public final class CsvStreamWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // below this, value * 100 is within 1e-6 of the value's decimal form, so rounding it by
+    // hand agrees with String.format except right at a half cent (those go through BigDecimal)
+    private static final double MAX_FAST_SCORE = 1e7;
+    private static final double HALF_CENT_TOLERANCE = 1e-6;
+
+    private final Writer out;
+    private final char[] digits = new char[20];
+    private boolean rowStarted;
+    private long rows;
+
+    public CsvStreamWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE);
+    }
+
+    /** Creates (or truncates) the file and writes UTF-8 to it. */
+    public static CsvStreamWriter open(File file) throws IOException {
+        return new CsvStreamWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /** Writes a whole record of text fields, e.g. the header. */
+    public CsvStreamWriter row(String... values) throws IOException {
+        for (String v : values) {
+            text(v);
+        }
+        endRow();
+        return this;
+    }
+
+    /** A text field; null is written as an empty field. */
+    public CsvStreamWriter text(String value) throws IOException {
+        boolean first = !rowStarted;
+        separator();
+        if (value == null) return this;
+
+        if (value.isEmpty()) {
+            // a record that is a single empty field would otherwise read back as a blank line
+            if (first) out.write("\"\"");
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, from, i - from + 1);
+                out.write('"');
+                from = i + 1;
+            }
+        }
+        out.write(value, from, value.length() - from);
+        out.write('"');
+        return this;
+    }
+
+    public CsvStreamWriter number(long value) throws IOException {
+        separator();
+        writeLong(value);
+        return this;
+    }
+
+    /** A score with exactly two decimals (half-up), or an empty field for null. */
+    public CsvStreamWriter score(Double value) throws IOException {
+        separator();
+        if (value == null) return this;
+
+        double d = value;
+        if (!Double.isFinite(d) || Math.abs(d) >= MAX_FAST_SCORE) {
+            out.write(String.format(Locale.ROOT, "%.2f", d));
+            return this;
+        }
+        double scaled = Math.abs(d) * 100;
+        if (Math.abs(scaled - Math.floor(scaled) - 0.5) < HALF_CENT_TOLERANCE) {
+            // e.g. 1.005 is stored as 1.00499999...; String.format rounds its decimal form up
+            out.write(BigDecimal.valueOf(d).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            return this;
+        }
+        long cents = Math.round(scaled);
+        if (d < 0 || (d == 0 && 1 / d < 0)) out.write('-');
+        writeLong(cents / 100);
+        int fraction = (int) (cents % 100);
+        out.write('.');
+        out.write('0' + fraction / 10);
+        out.write('0' + fraction % 10);
+        return this;
+    }
+
+    /** Ends the current record. */
+    public void endRow() throws IOException {
+        out.write("\r\n");
+        rowStarted = false;
+        rows++;
+    }
+
+    /** Records written so far, including any header. */
+    public long rows() {
+        return rows;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (rowStarted) {
+            out.write(',');
+        } else {
+            rowStarted = true;
+        }
+    }
+
+    // same rules as commons-csv QuoteMode.MINIMAL
+    private static boolean needsQuotes(String value) {
+        if (value.charAt(0) <= '#' || value.charAt(value.length() - 1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, pos, digits.length - pos);
+    }
+}
@@ -1,67 +1,91 @@
 package edu.univ.erp.util;
 
+import edu.univ.erp.domain.GradeExportRow;
 import edu.univ.erp.domain.StudentGradeRow;
 import edu.univ.erp.domain.GradeRow;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * CSV layouts for transcript / gradebook exports. Each layout has a header and a row
+ * writer so the same format can be fed from a list or from a streaming DAO query.
+ */
 public class CsvUtil {
 
     /**
      * Student transcript export: one row per course.
      */
     public static void writeTranscriptCsv(List<StudentGradeRow> grades, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file);
-             CSVPrinter csv = new CSVPrinter(writer, CSVFormat.DEFAULT
-                     .withHeader("Course Code", "Title", "Semester", "Year",
-                             "Quiz", "Midterm", "End-Sem", "Final Score", "Final Grade"))) {
-
+        try (CsvStreamWriter csv = CsvStreamWriter.open(file)) {
+            writeTranscriptHeader(csv);
             for (StudentGradeRow row : grades) {
-                csv.printRecord(
-                        row.getCourseCode(),
-                        row.getCourseTitle(),
-                        row.getSemester(),
-                        row.getYear(),
-                        safe(row.getQuizScore()),
-                        safe(row.getMidtermScore()),
-                        safe(row.getEndsemScore()),
-                        safe(row.getFinalScore()),
-                        row.getFinalGradeText()
-                );
+                writeTranscriptRow(csv, row);
             }
         }
     }
 
+    public static void writeTranscriptHeader(CsvStreamWriter csv) throws IOException {
+        csv.row("Course Code", "Title", "Semester", "Year",
+                "Quiz", "Midterm", "End-Sem", "Final Score", "Final Grade");
+    }
+
+    public static void writeTranscriptRow(CsvStreamWriter csv, StudentGradeRow row) throws IOException {
+        csv.text(row.getCourseCode())
+                .text(row.getCourseTitle())
+                .text(row.getSemester())
+                .number(row.getYear())
+                .score(row.getQuizScore())
+                .score(row.getMidtermScore())
+                .score(row.getEndsemScore())
+                .score(row.getFinalScore())
+                .text(row.getFinalGradeText())
+                .endRow();
+    }
+
     /**
      * Instructor gradebook export: one row per student (per section).
      */
     public static void writeGradesCsv(List<GradeRow> grades, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file);
-             CSVPrinter csv = new CSVPrinter(writer, CSVFormat.DEFAULT
-                     .withHeader("Enrollment ID", "Roll No", "Name",
-                             "Quiz", "Midterm", "End-Sem", "Final Score", "Final Grade"))) {
-
+        try (CsvStreamWriter csv = CsvStreamWriter.open(file)) {
+            csv.row("Enrollment ID", "Roll No", "Name",
+                    "Quiz", "Midterm", "End-Sem", "Final Score", "Final Grade");
             for (GradeRow row : grades) {
-                csv.printRecord(
-                        row.getEnrollmentId(),
-                        row.getRollNo(),
-                        row.getStudentName(),
-                        safe(row.getQuizScore()),
-                        safe(row.getMidtermScore()),
-                        safe(row.getEndsemScore()),
-                        safe(row.getFinalScore()),
-                        row.getFinalGradeText()
-                );
+                csv.number(row.getEnrollmentId())
+                        .text(row.getRollNo())
+                        .text(row.getStudentName())
+                        .score(row.getQuizScore())
+                        .score(row.getMidtermScore())
+                        .score(row.getEndsemScore())
+                        .score(row.getFinalScore())
+                        .text(row.getFinalGradeText())
+                        .endRow();
             }
         }
     }
 
-    private static String safe(Double d) {
-        return d == null ? "" : String.format("%.2f", d);
+    /**
+     * Registrar-wide grade export: one row per enrollment, any section.
+     */
+    public static void writeGradeExportHeader(CsvStreamWriter csv) throws IOException {
+        csv.row("Enrollment ID", "Section ID", "Course Code", "Semester", "Year", "Roll No", "Name",
+                "Quiz", "Midterm", "End-Sem", "Final Score", "Final Grade");
+    }
+
+    public static void writeGradeExportRow(CsvStreamWriter csv, GradeExportRow row) throws IOException {
+        csv.number(row.getEnrollmentId())
+                .number(row.getSectionId())
+                .text(row.getCourseCode())
+                .text(row.getSemester())
+                .number(row.getYear())
+                .text(row.getRollNo())
+                .text(row.getStudentName())
+                .score(row.getQuizScore())
+                .score(row.getMidtermScore())
+                .score(row.getEndsemScore())
+                .score(row.getFinalScore())
+                .text(row.getFinalGradeText())
+                .endRow();
     }
 }
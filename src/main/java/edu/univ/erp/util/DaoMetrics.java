@@ -0,0 +1,224 @@
+package edu.univ.erp.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process registry of per-DAO-method database metrics.
+ *
+ * Every DAO method borrows its own pooled connection (try-with-resources), so one connection
+ * lease is one DAO call: the pool resolves the calling method once per borrow (first frame
+ * outside this package, e.g. "CatalogDao.findCatalogPage") and the lease records how long the
+ * borrow waited, how long the connection was held, the statements run, the rows read from
+ * their result sets and whether any statement failed.
+ *
+ * Disabled (metrics.enabled=false, the default) no stack is walked and nothing is recorded.
+ * Unless the slow-query log is on as well (db.slowQuery.thresholdMs &gt; 0, off by default),
+ * the pool then hands out connections exactly as before, with nothing wrapped. Read the numbers with {@link #snapshot()};
+ * MetricsExporter writes them to a file and serves them in Prometheus format.
+ */
+public final class DaoMetrics {
+
+    /** Read once: when off (and SlowQueryLog too), ConnectionPool skips instrumentation entirely. */
+    public static final boolean ENABLED = DbUtil.getBoolean("metrics.enabled", false);
+
+    /** Upper bounds of the latency histogram buckets, in milliseconds (plus +Inf). */
+    public static final double[] BUCKET_BOUNDS_MS =
+            {0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000};
+
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MS.length];
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS_MS[i] * 1_000_000);
+        }
+    }
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String UTIL_PACKAGE = DaoMetrics.class.getPackageName() + ".";
+
+    private static final ConcurrentMap<String, MethodStats> METHODS = new ConcurrentHashMap<>();
+    private static final long STARTED_AT = System.currentTimeMillis();
+
+    private DaoMetrics() {
+        // static registry
+    }
+
+    /**
+     * Point-in-time numbers of one DAO method. Durations are in milliseconds; buckets[i] counts
+     * calls up to BUCKET_BOUNDS_MS[i] (not cumulative), the last one everything slower.
+     */
+    public record MethodSnapshot(String pool,
+                                 String method,
+                                 long calls,
+                                 long errors,
+                                 long statements,
+                                 long rows,
+                                 double totalMillis,
+                                 double maxMillis,
+                                 double acquireTotalMillis,
+                                 double acquireMaxMillis,
+                                 long[] buckets) {
+
+        public double avgMillis() {
+            return calls == 0 ? 0 : totalMillis / calls;
+        }
+
+        public double avgAcquireMillis() {
+            return calls == 0 ? 0 : acquireTotalMillis / calls;
+        }
+
+        /** Estimated from the histogram: the upper bound of the bucket holding the percentile. */
+        public double percentileMillis(double p) {
+            long rank = (long) Math.ceil(p / 100.0 * calls);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMillis) : maxMillis;
+                }
+            }
+            return 0;
+        }
+    }
+
+    // ===== recording (called by ConnectionPool) =====
+
+    /** Starts a call for a connection just borrowed from {@code pool} after waiting acquireNanos. */
+    static Call begin(String pool, long acquireNanos) {
+        String method = callerMethod();
+        MethodStats stats = METHODS.computeIfAbsent(pool + '|' + method, k -> new MethodStats(pool, method));
+        return new Call(stats, acquireNanos);
+    }
+
+    // first frame outside edu.univ.erp.util (pool, DbUtil, proxies) and the JDK
+    private static String callerMethod() {
+        Optional<String> caller = WALKER.walk(frames -> frames
+                .filter(f -> {
+                    String cls = f.getClassName();
+                    return !cls.startsWith(UTIL_PACKAGE) && !cls.startsWith("java.")
+                            && !cls.startsWith("jdk.") && !cls.startsWith("com.sun.proxy.");
+                })
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName()));
+        return caller.orElse("unknown");
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int inner = name.indexOf('$');
+        return inner > 0 ? name.substring(0, inner) : name;
+    }
+
+    /**
+     * One connection lease. Used by the borrowing thread only, so the counters are plain
+     * fields; they are added to the shared totals once, when the connection is closed.
+     */
+    static final class Call {
+        private final MethodStats stats;
+        private final long acquireNanos;
+        private final long startedAt = System.nanoTime();
+        private int statements;
+        private long rows;
+        private boolean failed;
+        private boolean ended;
+
+        private Call(MethodStats stats, long acquireNanos) {
+            this.stats = stats;
+            this.acquireNanos = acquireNanos;
+        }
+
+        void statement() {
+            statements++;
+        }
+
+        void row() {
+            rows++;
+        }
+
+        void error() {
+            failed = true;
+        }
+
+        String method() {
+            return stats.method;
+        }
+
+        void end() {
+            if (ended) return;
+            ended = true;
+            stats.record(System.nanoTime() - startedAt, acquireNanos, statements, rows, failed);
+        }
+    }
+
+    private static final class MethodStats {
+        final String pool;
+        final String method;
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder acquireNanos = new LongAdder();
+        final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+
+        MethodStats(String pool, String method) {
+            this.pool = pool;
+            this.method = method;
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        void record(long nanos, long acquire, int stmts, long rowCount, boolean failed) {
+            calls.increment();
+            if (failed) errors.increment();
+            statements.add(stmts);
+            rows.add(rowCount);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            acquireNanos.add(acquire);
+            acquireMaxNanos.accumulate(acquire);
+            int b = 0;
+            while (b < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[b]) b++;
+            buckets[b].increment();
+        }
+
+        MethodSnapshot snapshot() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < counts.length; i++) counts[i] = buckets[i].sum();
+            return new MethodSnapshot(pool, method, calls.sum(), errors.sum(), statements.sum(), rows.sum(),
+                    millis(totalNanos.sum()), millis(maxNanos.get()),
+                    millis(acquireNanos.sum()), millis(acquireMaxNanos.get()), counts);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // ===== reading =====
+
+    /** All methods called so far, busiest (total time) first. */
+    public static List<MethodSnapshot> snapshot() {
+        List<MethodSnapshot> list = new ArrayList<>();
+        for (MethodStats stats : METHODS.values()) list.add(stats.snapshot());
+        list.sort(Comparator.comparingDouble(MethodSnapshot::totalMillis).reversed());
+        return list;
+    }
+
+    public static long startedAtMillis() {
+        return STARTED_AT;
+    }
+
+    /** Drops all recorded numbers (e.g. after a warm-up). */
+    public static void reset() {
+        METHODS.clear();
+    }
+}
@@ -3,8 +3,11 @@ package edu.univ.erp.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class DbUtil {
@@ -12,6 +15,13 @@ public class DbUtil {
     private static final Properties PROPS = new Properties();
     private static boolean initialized = false;
 
+    private static final int AUTH_POOL_DEFAULT_MAX = 5;
+    private static final int ERP_POOL_DEFAULT_MAX = 10;
+
+    private static volatile ConnectionPool authPool;
+    private static volatile ConnectionPool erpPool;
+    private static boolean shutdownHookAdded = false;
+
 
     private static synchronized void init() {
         if (initialized) return;
@@ -27,28 +37,168 @@ public class DbUtil {
         }
     }
 
+    /**
+     * A JVM system property with the same key (-Dkey=value) overrides application.properties,
+     * e.g. to point tools or benchmarks at another database.
+     */
     public static String get(String key) {
         if (!initialized) init();
-        String value = PROPS.getProperty(key);
+        String value = System.getProperty(key, PROPS.getProperty(key));
         if (value == null) {
             throw new RuntimeException("Missing property: " + key);
         }
         return value;
     }
 
+    /** Optional property: returns defaultValue when the key is absent or blank. */
+    public static String get(String key, String defaultValue) {
+        if (!initialized) init();
+        String value = System.getProperty(key, PROPS.getProperty(key));
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String raw = get(key, null);
+        if (raw == null) return defaultValue;
+        try {
+            return Integer.parseInt(raw);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Property " + key + " must be an integer: " + raw, e);
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String raw = get(key, null);
+        if (raw == null) return defaultValue;
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Property " + key + " must be a number: " + raw, e);
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String raw = get(key, null);
+        return raw == null ? defaultValue : Boolean.parseBoolean(raw);
+    }
+
+    // ===== Connections (pooled) =====
+
     public static Connection getAuthConnection() throws SQLException {
-        String url = get("auth.jdbc.url");
-        String user = get("auth.jdbc.user");
-        String pass = get("auth.jdbc.password");
-        // FIX: Should retrieve connection from a pool here instead of DriverManager
-        return DriverManager.getConnection(url, user, pass);
+        return authPool().getConnection();
     }
 
     public static Connection getErpConnection() throws SQLException {
-        String url = get("erp.jdbc.url");
-        String user = get("erp.jdbc.user");
-        String pass = get("erp.jdbc.password");
-        // FIX: Should retrieve connection from a pool here instead of DriverManager
-        return DriverManager.getConnection(url, user, pass);
+        return erpPool().getConnection();
+    }
+
+    /**
+     * Forward-only, read-only statement for reading a large result row by row (exports).
+     * export.fetchSize defaults to Integer.MIN_VALUE, which makes MySQL Connector/J stream
+     * rows instead of loading the whole result into memory; drivers that reject it get a
+     * regular fetch size instead. While such a result set is open the connection cannot run
+     * other statements.
+     */
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            try {
+                ps.setFetchSize(getInt("export.fetchSize", Integer.MIN_VALUE));
+            } catch (SQLException notSupported) {
+                ps.setFetchSize(1000);
+            }
+            return ps;
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+    }
+
+    public static ConnectionPool.Stats getAuthPoolStats() {
+        return authPool().stats();
+    }
+
+    public static ConnectionPool.Stats getErpPoolStats() {
+        return erpPool().stats();
+    }
+
+    /** Stats of the pools opened so far (does not open one). */
+    public static List<ConnectionPool.Stats> getOpenPoolStats() {
+        List<ConnectionPool.Stats> stats = new ArrayList<>();
+        ConnectionPool auth = authPool;
+        ConnectionPool erp = erpPool;
+        if (auth != null) stats.add(auth.stats());
+        if (erp != null) stats.add(erp.stats());
+        return stats;
+    }
+
+    private static ConnectionPool authPool() {
+        ConnectionPool pool = authPool;
+        if (pool == null) {
+            synchronized (DbUtil.class) {
+                if (authPool == null) {
+                    authPool = createPool("auth", 1);
+                }
+                pool = authPool;
+            }
+        }
+        return pool;
+    }
+
+    private static ConnectionPool erpPool() {
+        ConnectionPool pool = erpPool;
+        if (pool == null) {
+            synchronized (DbUtil.class) {
+                if (erpPool == null) {
+                    erpPool = createPool("erp", 2);
+                }
+                pool = erpPool;
+            }
+        }
+        return pool;
+    }
+
+    /** Configured maximum size of the "auth" or "erp" pool (without creating the pool). */
+    static int poolMaxSize(String prefix) {
+        return getInt(prefix + ".pool.maxSize", prefix.equals("auth") ? AUTH_POOL_DEFAULT_MAX : ERP_POOL_DEFAULT_MAX);
+    }
+
+    /**
+     * Builds a pool from the "&lt;prefix&gt;.jdbc.*" and "&lt;prefix&gt;.pool.*" properties.
+     * Must be called while holding the DbUtil class lock.
+     */
+    private static ConnectionPool createPool(String prefix, int defaultMin) {
+        ConnectionPool.Config config = new ConnectionPool.Config(
+                get(prefix + ".jdbc.url"),
+                get(prefix + ".jdbc.user"),
+                get(prefix + ".jdbc.password"),
+                getInt(prefix + ".pool.minSize", defaultMin),
+                poolMaxSize(prefix),
+                getLong(prefix + ".pool.maxWaitMs", 10_000),
+                getLong(prefix + ".pool.idleTimeoutMs", 300_000),
+                getBoolean(prefix + ".pool.validateOnBorrow", true),
+                getLong(prefix + ".pool.validationIntervalMs", 1_000),
+                getInt(prefix + ".pool.validationTimeoutSec", 2),
+                getLong(prefix + ".pool.leakThresholdMs", 0),
+                getLong(prefix + ".pool.housekeepingIntervalMs", 30_000)
+        );
+
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DbUtil::shutdownPools, "db-pool-shutdown"));
+            shutdownHookAdded = true;
+        }
+        return new ConnectionPool(prefix, config);
+    }
+
+    /** Closes both pools (idle connections immediately, borrowed ones on return). */
+    public static synchronized void shutdownPools() {
+        if (authPool != null) {
+            authPool.close();
+            authPool = null;
+        }
+        if (erpPool != null) {
+            erpPool.close();
+            erpPool = null;
+        }
     }
-}
\ No newline at end of file
+}
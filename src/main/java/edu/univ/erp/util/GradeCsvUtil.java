@@ -2,12 +2,10 @@ package edu.univ.erp.util;
 
 import edu.univ.erp.domain.GradeRow;
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
 
@@ -17,33 +15,34 @@ public class GradeCsvUtil {
      * Export grade rows to CSV.
      */
     public static void writeGrades(List<GradeRow> rows, File file) throws IOException {
-        try (FileWriter writer = new FileWriter(file);
-             CSVPrinter csv = new CSVPrinter(writer,
-                     CSVFormat.DEFAULT.withHeader(
-                             "EnrollmentId", "RollNo", "Name",
-                             "Quiz", "Midterm", "EndSem", "Final"))) {
-
+        try (CsvStreamWriter csv = CsvStreamWriter.open(file)) {
+            writeHeader(csv);
             for (GradeRow row : rows) {
-                csv.printRecord(
-                        row.getEnrollmentId(),
-                        row.getRollNo(),
-                        row.getStudentName(),
-                        safe(row.getQuizScore()),
-                        safe(row.getMidtermScore()),
-                        safe(row.getEndsemScore()),
-                        safe(row.getFinalScore())
-                );
+                writeRow(csv, row);
             }
         }
     }
 
-    private static String safe(Double d) {
-        return d == null ? "" : String.format("%.2f", d);
+    /** Header of the re-importable layout read by readGrades. */
+    public static void writeHeader(CsvStreamWriter csv) throws IOException {
+        csv.row("EnrollmentId", "RollNo", "Name", "Quiz", "Midterm", "EndSem", "Final");
+    }
+
+    public static void writeRow(CsvStreamWriter csv, GradeRow row) throws IOException {
+        csv.number(row.getEnrollmentId())
+                .text(row.getRollNo())
+                .text(row.getStudentName())
+                .score(row.getQuizScore())
+                .score(row.getMidtermScore())
+                .score(row.getEndsemScore())
+                .score(row.getFinalScore())
+                .endRow();
     }
 
     /**
      * Import grades from CSV into existing GradeRow list.
-     * Match rows by EnrollmentId.
+     * Match rows by EnrollmentId. Bad rows are skipped without a report; the instructor
+     * import goes through InstructorService.importGradesCsv, which validates every row.
      */
     public static void readGrades(File file, List<GradeRow> rows) throws IOException {
         Map<Integer, GradeRow> byId = new HashMap<>();
@@ -0,0 +1,213 @@
+package edu.univ.erp.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Statement / ResultSet proxies used by ConnectionPool when DaoMetrics or SlowQueryLog is
+ * enabled. For metrics they count executed statements, rows read and failures into the
+ * lease's {@link DaoMetrics.Call}; for the slow-query log they time each execution (a query
+ * until its result set is exhausted or closed, so reading the rows counts) and keep the bound
+ * parameters. Everything else passes straight through to the driver objects.
+ */
+final class InstrumentedJdbc {
+
+    /** Read once: when false, ConnectionPool hands out unwrapped connections. */
+    static final boolean ENABLED = DaoMetrics.ENABLED || SlowQueryLog.ENABLED;
+
+    private InstrumentedJdbc() {
+        // utility class
+    }
+
+    /**
+     * Wraps what Connection.createStatement / prepareStatement / prepareCall returned;
+     * {@code type} is that method's declared return type, {@code sql} the prepared SQL
+     * (null for a plain Statement), {@code call} null when metrics are off.
+     */
+    static Object statement(Object statement, Class<?> type, String pool, String sql, DaoMetrics.Call call) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new StatementHandler((Statement) statement, pool, sql, call));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String pool;
+        private final String preparedSql;
+        private final DaoMetrics.Call call;
+
+        // slow-query log only
+        private Object[] params = new Object[8];   // index = parameter number
+        private int paramCount;
+        private int batchSize;
+        private Execution open;                    // query whose rows are still being read
+
+        StatementHandler(Statement target, String pool, String preparedSql, DaoMetrics.Call call) {
+            this.target = target;
+            this.pool = pool;
+            this.preparedSql = preparedSql;
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String m = method.getName();
+            if (SlowQueryLog.ENABLED) {
+                track(m, args);
+            }
+            if (!m.startsWith("execute")) {
+                Object result = InstrumentedJdbc.invoke(target, method, args);
+                if (result instanceof ResultSet rs && m.equals("getResultSet")) {
+                    return new ResultSetHandler(rs, call, null).proxy();
+                }
+                return result;
+            }
+
+            if (call != null) call.statement();
+            finish(open);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedJdbc.invoke(target, method, args);
+            } catch (SQLException e) {
+                if (call != null) call.error();
+                if (SlowQueryLog.ENABLED) {
+                    slow(sql(args), System.nanoTime() - start, -1, e.getMessage());
+                }
+                throw e;
+            }
+
+            if (result instanceof ResultSet rs) {
+                Execution execution = null;
+                if (SlowQueryLog.ENABLED) {
+                    execution = new Execution(sql(args), start);
+                    open = execution;
+                }
+                return new ResultSetHandler(rs, call, execution).proxy();
+            }
+            if (SlowQueryLog.ENABLED) {
+                long elapsed = System.nanoTime() - start;
+                slow(sql(args), elapsed, affectedRows(result), null);
+            }
+            if (m.equals("executeBatch") || m.equals("executeLargeBatch")) batchSize = 0;
+            return result;
+        }
+
+        // parameters and batches, for the log line
+        private void track(String m, Object[] args) {
+            if (m.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                if (index >= params.length) params = Arrays.copyOf(params, Math.max(index + 1, params.length * 2));
+                params[index] = m.equals("setNull") ? null : args[1];
+                paramCount = Math.max(paramCount, index);
+            } else if (m.equals("clearParameters")) {
+                Arrays.fill(params, null);
+                paramCount = 0;
+            } else if (m.equals("addBatch")) {
+                batchSize++;
+            } else if (m.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (m.equals("close")) {
+                finish(open);
+            }
+        }
+
+        private String sql(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer n) return n;
+            if (result instanceof Long n) return n;
+            long sum = 0;
+            if (result instanceof int[] counts) {
+                for (int c : counts) if (c > 0) sum += c;
+                return sum;
+            }
+            if (result instanceof long[] counts) {
+                for (long c : counts) if (c > 0) sum += c;
+                return sum;
+            }
+            return -1;
+        }
+
+        private void slow(String sql, long nanos, long rows, String error) {
+            if (nanos < SlowQueryLog.THRESHOLD_NANOS) return;
+            SlowQueryLog.record(pool, sql, Arrays.copyOfRange(params, 1, paramCount + 1), batchSize, nanos, rows, error);
+        }
+
+        private void finish(Execution execution) {
+            if (execution == null || execution.done) return;
+            execution.done = true;
+            if (open == execution) open = null;
+            slow(execution.sql, System.nanoTime() - execution.startedAt, execution.rows, null);
+        }
+
+        /** A query from execute until its rows have been read. */
+        private final class Execution {
+            final String sql;
+            final long startedAt;
+            long rows;
+            boolean done;
+
+            Execution(String sql, long startedAt) {
+                this.sql = sql;
+                this.startedAt = startedAt;
+            }
+        }
+
+        private final class ResultSetHandler implements InvocationHandler {
+            private final ResultSet target;
+            private final DaoMetrics.Call call;
+            private final Execution execution;   // null unless the slow-query log is on
+
+            ResultSetHandler(ResultSet target, DaoMetrics.Call call, Execution execution) {
+                this.target = target;
+                this.call = call;
+                this.execution = execution;
+            }
+
+            ResultSet proxy() {
+                return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, this);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String m = method.getName();
+                if (m.equals("next")) {
+                    boolean more;
+                    try {
+                        more = target.next();
+                    } catch (SQLException e) {
+                        if (call != null) call.error();
+                        throw e;
+                    }
+                    if (more) {
+                        if (call != null) call.row();
+                        if (execution != null) execution.rows++;
+                    } else {
+                        finish(execution);
+                    }
+                    return more;
+                }
+                if (m.equals("close")) {
+                    finish(execution);
+                }
+                return InstrumentedJdbc.invoke(target, method, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package edu.univ.erp.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes DaoMetrics (and the connection pool gauges) when metrics.enabled=true:
+ *
+ *  - metrics.snapshot.file: rewritten every metrics.snapshot.intervalMs (and on exit) as
+ *    metrics.snapshot.format = json (default) or text
+ *  - metrics.http.port: Prometheus text format at http://&lt;bindAddress&gt;:&lt;port&gt;/metrics
+ *    (JSON at /metrics.json); bound to metrics.http.bindAddress, 127.0.0.1 by default
+ *
+ * Both are off unless configured. Formatting happens on the exporter's own threads.
+ */
+public final class MetricsExporter {
+
+    private static boolean started;
+    private static ScheduledExecutorService scheduler;
+    private static volatile HttpServer server;
+
+    private MetricsExporter() {
+        // utility class
+    }
+
+    /** Starts the configured exports; does nothing when metrics are disabled or already started. */
+    public static synchronized void startIfEnabled() {
+        if (started || !DaoMetrics.ENABLED) return;
+        started = true;
+
+        String file = DbUtil.get("metrics.snapshot.file", null);
+        if (file != null) {
+            Path path = Paths.get(file);
+            boolean text = "text".equalsIgnoreCase(DbUtil.get("metrics.snapshot.format", "json"));
+            long interval = DbUtil.getLong("metrics.snapshot.intervalMs", 60_000);
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(() -> writeSnapshot(path, text), interval, interval, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writeSnapshot(path, text), "metrics-final-snapshot"));
+            System.out.println("[metrics] writing snapshots to " + path.toAbsolutePath() + " every " + interval + " ms");
+        }
+
+        int port = DbUtil.getInt("metrics.http.port", 0);
+        if (port > 0) {
+            // HttpServer's dispatcher thread inherits the daemon flag of the thread calling
+            // start(); start it from a daemon thread so the endpoint never keeps the JVM alive
+            Thread starter = new Thread(() -> startHttp(port), "metrics-http-start");
+            starter.setDaemon(true);
+            starter.start();
+            try {
+                starter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void startHttp(int port) {
+        String bind = DbUtil.get("metrics.http.bindAddress", "127.0.0.1");
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress(bind, port), 0);
+            http.createContext("/metrics", MetricsExporter::serve);
+            http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-http");
+                t.setDaemon(true);
+                return t;
+            }));
+            http.start();
+            server = http;
+            System.out.println("[metrics] Prometheus endpoint on http://" + bind + ":" + port + "/metrics");
+        } catch (IOException e) {
+            System.err.println("[metrics] could not listen on " + bind + ":" + port + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        if (server != null) server.stop(0);
+        scheduler = null;
+        server = null;
+        started = false;
+    }
+
+    private static void writeSnapshot(Path path, boolean text) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tmp, text ? toText() : toJson(), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[metrics] snapshot to " + path + " failed: " + e.getMessage());
+        }
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            boolean json = exchange.getRequestURI().getPath().endsWith(".json");
+            byte[] body = (json ? toJson() : toPrometheus()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type",
+                    json ? "application/json" : "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // ===== formats =====
+
+    /** One line per DAO method, busiest first, then the pools. */
+    public static String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("DAO metrics since ").append(Instant.ofEpochMilli(DaoMetrics.startedAtMillis()))
+                .append(", at ").append(Instant.now()).append('\n');
+        sb.append(String.format(Locale.ROOT, "%-5s %-48s %9s %6s %9s %9s %9s %9s %9s %9s %10s%n",
+                "pool", "method", "calls", "errors", "avg ms", "p95 ms", "p99 ms", "max ms",
+                "acq avg", "acq max", "rows"));
+        for (DaoMetrics.MethodSnapshot m : DaoMetrics.snapshot()) {
+            sb.append(String.format(Locale.ROOT, "%-5s %-48s %9d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %10d%n",
+                    m.pool(), m.method(), m.calls(), m.errors(), m.avgMillis(),
+                    m.percentileMillis(95), m.percentileMillis(99), m.maxMillis(),
+                    m.avgAcquireMillis(), m.acquireMaxMillis(), m.rows()));
+        }
+        for (ConnectionPool.Stats pool : DbUtil.getOpenPoolStats()) {
+            sb.append(pool).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\"since\":\"").append(Instant.ofEpochMilli(DaoMetrics.startedAtMillis()))
+                .append("\",\"at\":\"").append(Instant.now()).append("\",\"methods\":[");
+        List<DaoMetrics.MethodSnapshot> methods = DaoMetrics.snapshot();
+        for (int i = 0; i < methods.size(); i++) {
+            DaoMetrics.MethodSnapshot m = methods.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("\n {\"pool\":\"").append(m.pool())
+                    .append("\",\"method\":\"").append(escape(m.method()))
+                    .append("\",\"calls\":").append(m.calls())
+                    .append(",\"errors\":").append(m.errors())
+                    .append(",\"statements\":").append(m.statements())
+                    .append(",\"rows\":").append(m.rows())
+                    .append(",\"avgMs\":").append(number(m.avgMillis()))
+                    .append(",\"p95Ms\":").append(number(m.percentileMillis(95)))
+                    .append(",\"p99Ms\":").append(number(m.percentileMillis(99)))
+                    .append(",\"maxMs\":").append(number(m.maxMillis()))
+                    .append(",\"acquireAvgMs\":").append(number(m.avgAcquireMillis()))
+                    .append(",\"acquireMaxMs\":").append(number(m.acquireMaxMillis()))
+                    .append(",\"buckets\":{");
+            long[] buckets = m.buckets();
+            for (int b = 0; b < buckets.length; b++) {
+                if (b > 0) sb.append(',');
+                sb.append('"').append(bucketLabel(b)).append("\":").append(buckets[b]);
+            }
+            sb.append("}}");
+        }
+        sb.append("\n],\"pools\":[");
+        List<ConnectionPool.Stats> pools = DbUtil.getOpenPoolStats();
+        for (int i = 0; i < pools.size(); i++) {
+            ConnectionPool.Stats p = pools.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("\n {\"name\":\"").append(p.name())
+                    .append("\",\"active\":").append(p.active())
+                    .append(",\"idle\":").append(p.idle())
+                    .append(",\"waiting\":").append(p.waiting())
+                    .append(",\"maxSize\":").append(p.maxSize())
+                    .append(",\"timeouts\":").append(p.timeouts())
+                    .append('}');
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    /** Prometheus text exposition format 0.0.4. */
+    public static String toPrometheus() {
+        List<DaoMetrics.MethodSnapshot> methods = DaoMetrics.snapshot();
+        StringBuilder sb = new StringBuilder(8192);
+
+        counter(sb, methods, "erp_dao_calls_total", "DAO method calls (connection leases).", DaoMetrics.MethodSnapshot::calls);
+        counter(sb, methods, "erp_dao_errors_total", "DAO calls with a failed statement.", DaoMetrics.MethodSnapshot::errors);
+        counter(sb, methods, "erp_dao_statements_total", "Statements executed.", DaoMetrics.MethodSnapshot::statements);
+        counter(sb, methods, "erp_dao_rows_total", "Rows read from result sets.", DaoMetrics.MethodSnapshot::rows);
+
+        sb.append("# HELP erp_dao_call_duration_seconds DAO call duration (connection held).\n");
+        sb.append("# TYPE erp_dao_call_duration_seconds histogram\n");
+        for (DaoMetrics.MethodSnapshot m : methods) {
+            long cumulative = 0;
+            long[] buckets = m.buckets();
+            for (int b = 0; b < buckets.length; b++) {
+                cumulative += buckets[b];
+                String le = b < DaoMetrics.BUCKET_BOUNDS_MS.length
+                        ? number(DaoMetrics.BUCKET_BOUNDS_MS[b] / 1000.0) : "+Inf";
+                sb.append("erp_dao_call_duration_seconds_bucket").append(labels(m, "le", le))
+                        .append(' ').append(cumulative).append('\n');
+            }
+            sb.append("erp_dao_call_duration_seconds_sum").append(labels(m, null, null))
+                    .append(' ').append(number(m.totalMillis() / 1000.0)).append('\n');
+            sb.append("erp_dao_call_duration_seconds_count").append(labels(m, null, null))
+                    .append(' ').append(m.calls()).append('\n');
+        }
+
+        sb.append("# HELP erp_dao_connection_acquire_seconds_total Time spent waiting for a pooled connection.\n");
+        sb.append("# TYPE erp_dao_connection_acquire_seconds_total counter\n");
+        for (DaoMetrics.MethodSnapshot m : methods) {
+            sb.append("erp_dao_connection_acquire_seconds_total").append(labels(m, null, null))
+                    .append(' ').append(number(m.acquireTotalMillis() / 1000.0)).append('\n');
+        }
+        sb.append("# HELP erp_dao_connection_acquire_max_seconds Longest wait for a pooled connection.\n");
+        sb.append("# TYPE erp_dao_connection_acquire_max_seconds gauge\n");
+        for (DaoMetrics.MethodSnapshot m : methods) {
+            sb.append("erp_dao_connection_acquire_max_seconds").append(labels(m, null, null))
+                    .append(' ').append(number(m.acquireMaxMillis() / 1000.0)).append('\n');
+        }
+
+        List<ConnectionPool.Stats> pools = DbUtil.getOpenPoolStats();
+        gauge(sb, pools, "erp_pool_active_connections", "Connections borrowed.", ConnectionPool.Stats::active);
+        gauge(sb, pools, "erp_pool_idle_connections", "Idle pooled connections.", ConnectionPool.Stats::idle);
+        gauge(sb, pools, "erp_pool_waiting_threads", "Threads waiting for a connection.", ConnectionPool.Stats::waiting);
+        gauge(sb, pools, "erp_pool_max_connections", "Pool size limit.", ConnectionPool.Stats::maxSize);
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, List<DaoMetrics.MethodSnapshot> methods, String name, String help,
+                                ToLongFunction<DaoMetrics.MethodSnapshot> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (DaoMetrics.MethodSnapshot m : methods) {
+            sb.append(name).append(labels(m, null, null)).append(' ').append(value.applyAsLong(m)).append('\n');
+        }
+    }
+
+    private static void gauge(StringBuilder sb, List<ConnectionPool.Stats> pools, String name, String help,
+                              ToIntFunction<ConnectionPool.Stats> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        for (ConnectionPool.Stats p : pools) {
+            sb.append(name).append("{pool=\"").append(escape(p.name())).append("\"} ")
+                    .append(value.applyAsInt(p)).append('\n');
+        }
+    }
+
+    private static String labels(DaoMetrics.MethodSnapshot m, String extraName, String extraValue) {
+        String s = "{pool=\"" + escape(m.pool()) + "\",method=\"" + escape(m.method()) + "\"";
+        if (extraName != null) s += "," + extraName + "=\"" + extraValue + "\"";
+        return s + "}";
+    }
+
+    private static String bucketLabel(int b) {
+        return b < DaoMetrics.BUCKET_BOUNDS_MS.length ? "le" + number(DaoMetrics.BUCKET_BOUNDS_MS[b]) + "ms" : "inf";
+    }
+
+    private static String number(double d) {
+        if (d == Math.rint(d) && Math.abs(d) < 1e15) return String.valueOf((long) d);
+        return new BigDecimal(String.format(Locale.ROOT, "%.6f", d)).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
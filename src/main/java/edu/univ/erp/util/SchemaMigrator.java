@@ -0,0 +1,371 @@
+package edu.univ.erp.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Applies the versioned schema scripts in db/&lt;database&gt;/V&lt;n&gt;__&lt;description&gt;.sql
+ * (classpath) to univ_auth ("auth") and univ_erp ("erp"), in version order.
+ *
+ * Each database records what it has applied in its own schema_version table; a script runs
+ * once and is recorded right after its last statement succeeds (MySQL DDL is not
+ * transactional, so a failed script stops the run and is retried from the start next time).
+ * Runs are serialized across clients with GET_LOCK. A changed script that was already applied
+ * is reported, not re-run.
+ *
+ * {@code CREATE [UNIQUE] INDEX name ON table (columns)} is skipped when the table already has
+ * an index on those leading columns (e.g. created by hand under another name), so the index
+ * scripts are safe on databases that were tuned before migrations existed.
+ *
+ * Databases upgraded by hand before this runner existed are adopted with
+ * {@link #baseline(String, int)}: versions up to the baseline are recorded without running.
+ */
+public final class SchemaMigrator {
+
+    public static final List<String> DATABASES = List.of("auth", "erp");
+
+    /** One script on the classpath. */
+    public record Script(int version, String description, String resource, String sql, String checksum) {
+    }
+
+    /** One schema_version row. */
+    public record AppliedVersion(int version, String description, String checksum) {
+        public boolean baseline() {
+            return BASELINE_CHECKSUM.equals(checksum);
+        }
+    }
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)",
+            Pattern.CASE_INSENSITIVE);
+    private static final String BASELINE_CHECKSUM = "BASELINE";
+
+    private static final String CREATE_VERSION_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version      INT          NOT NULL PRIMARY KEY,
+                description  VARCHAR(200) NOT NULL,
+                checksum     VARCHAR(64)  NOT NULL,
+                applied_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                duration_ms  BIGINT       NOT NULL DEFAULT 0
+            )
+            """;
+
+    private static final String RECORD_VERSION_SQL =
+            "INSERT INTO schema_version (version, description, checksum, duration_ms) VALUES (?, ?, ?, ?)";
+
+    private SchemaMigrator() {
+        // utility class
+    }
+
+    /** Migrates every database; called at startup unless migrations.enabled=false. */
+    public static void migrateAll() throws SQLException, IOException {
+        for (String database : DATABASES) {
+            migrate(database);
+        }
+    }
+
+    /** Applies the database's pending scripts; returns how many ran. */
+    public static int migrate(String database) throws SQLException, IOException {
+        List<Script> scripts = scripts(database);
+        if (scripts.isEmpty()) return 0;
+
+        try (Connection conn = connection(database)) {
+            ensureVersionTable(conn);
+            boolean locked = lock(conn);
+            try {
+                Map<Integer, AppliedVersion> applied = appliedVersions(conn);
+                int count = 0;
+                for (Script script : scripts) {
+                    AppliedVersion done = applied.get(script.version());
+                    if (done != null) {
+                        if (!done.baseline() && !done.checksum().equals(script.checksum())) {
+                            System.err.println("[migrations] " + database + ": " + script.resource()
+                                    + " changed after it was applied; the change is not applied again.");
+                        }
+                        continue;
+                    }
+                    apply(conn, database, script, applied.isEmpty());
+                    count++;
+                }
+                return count;
+            } finally {
+                if (locked) unlock(conn);
+            }
+        }
+    }
+
+    /** Records versions 1..version as applied without running them (hand-upgraded databases). */
+    public static void baseline(String database, int version) throws SQLException, IOException {
+        try (Connection conn = connection(database)) {
+            ensureVersionTable(conn);
+            Map<Integer, AppliedVersion> applied = appliedVersions(conn);
+            try (PreparedStatement ps = conn.prepareStatement(RECORD_VERSION_SQL)) {
+                for (Script script : scripts(database)) {
+                    if (script.version() > version || applied.containsKey(script.version())) continue;
+                    ps.setInt(1, script.version());
+                    ps.setString(2, script.description() + " (baseline)");
+                    ps.setString(3, BASELINE_CHECKSUM);
+                    ps.setLong(4, 0);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    /** schema_version of the database, by version (empty if it has never been migrated). */
+    public static Map<Integer, AppliedVersion> appliedVersions(String database) throws SQLException {
+        try (Connection conn = connection(database)) {
+            ensureVersionTable(conn);
+            return appliedVersions(conn);
+        }
+    }
+
+    /** The database's scripts on the classpath, in version order. */
+    public static List<Script> scripts(String database) throws IOException {
+        String dir = "db/" + database;
+        URL url = SchemaMigrator.class.getClassLoader().getResource(dir);
+        if (url == null) return List.of();
+
+        try {
+            URI uri = url.toURI();
+            if (!"jar".equals(uri.getScheme())) {
+                return readScripts(Path.of(uri), dir);
+            }
+            try (FileSystem fs = FileSystems.newFileSystem(uri, Map.of())) {
+                return readScripts(fs.getPath(dir), dir);
+            } catch (FileSystemAlreadyExistsException e) {
+                return readScripts(FileSystems.getFileSystem(uri).getPath(dir), dir);
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot list " + url, e);
+        }
+    }
+
+    private static List<Script> readScripts(Path dir, String resourceDir) throws IOException {
+        Map<Integer, Script> byVersion = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher m = SCRIPT_NAME.matcher(name);
+                if (!m.matches()) continue;
+
+                String sql = Files.readString(file, StandardCharsets.UTF_8);
+                Script script = new Script(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '),
+                        resourceDir + "/" + name, sql, sha256(sql.replace("\r\n", "\n")));
+                Script clash = byVersion.put(script.version(), script);
+                if (clash != null) {
+                    throw new IOException("Two scripts for version " + script.version() + ": "
+                            + clash.resource() + ", " + script.resource());
+                }
+            }
+        }
+        return new ArrayList<>(byVersion.values());
+    }
+
+    // ===== applying =====
+
+    private static void apply(Connection conn, String database, Script script, boolean firstRun) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement st = conn.createStatement()) {
+            for (String sql : statements(script.sql())) {
+                Matcher index = CREATE_INDEX.matcher(sql);
+                if (index.matches() && indexExists(conn, index)) {
+                    System.out.println("[migrations] " + database + ": " + index.group(2)
+                            + " skipped, " + index.group(3) + " already has an index on (" + index.group(4).trim() + ")");
+                    continue;
+                }
+                try {
+                    st.execute(sql);
+                } catch (SQLException e) {
+                    String hint = firstRun
+                            ? " If this database was upgraded by hand, record what it already has with"
+                              + " tools.MigrateDatabase --db=" + database + " --baseline=<version>."
+                            : "";
+                    throw new SQLException(script.resource() + " failed: " + e.getMessage() + hint
+                            + "\nStatement: " + sql, e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        try (PreparedStatement ps = conn.prepareStatement(RECORD_VERSION_SQL)) {
+            ps.setInt(1, script.version());
+            ps.setString(2, script.description());
+            ps.setString(3, script.checksum());
+            ps.setLong(4, millis);
+            ps.executeUpdate();
+        }
+        System.out.println("[migrations] " + database + ": applied V" + script.version()
+                + " " + script.description() + " (" + millis + " ms)");
+    }
+
+    /**
+     * Splits a script into statements at semicolons outside quotes; {@code --} line comments
+     * are dropped. Enough for schema scripts (no procedures / custom delimiters).
+     */
+    static List<String> statements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == quote) quote = 0;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                current.append(c);
+            } else if (c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                while (i < script.length() && script.charAt(i) != '\n') i++;
+                current.append('\n');
+            } else if (c == ';') {
+                addStatement(out, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(out, current);
+        return out;
+    }
+
+    private static void addStatement(List<String> out, StringBuilder sb) {
+        String sql = sb.toString().trim();
+        if (!sql.isEmpty()) out.add(sql);
+        sb.setLength(0);
+    }
+
+    /** True if the table already has an index on the requested leading columns (or that name). */
+    private static boolean indexExists(Connection conn, Matcher createIndex) throws SQLException {
+        boolean unique = createIndex.group(1) != null;
+        String name = createIndex.group(2);
+        String table = createIndex.group(3);
+        List<String> wanted = Arrays.stream(createIndex.group(4).split(","))
+                .map(c -> c.trim().toLowerCase())
+                .toList();
+
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        Map<String, Boolean> uniqueness = new LinkedHashMap<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String t : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(), t, false, true)) {
+                List<String[]> rows = new ArrayList<>();
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index == null || column == null) continue;
+                    rows.add(new String[]{index, String.valueOf(rs.getShort("ORDINAL_POSITION")), column});
+                    uniqueness.put(index, !rs.getBoolean("NON_UNIQUE"));
+                }
+                rows.sort(Comparator.<String[], String>comparing(r -> r[0]).thenComparingInt(r -> Integer.parseInt(r[1])));
+                for (String[] r : rows) {
+                    columns.computeIfAbsent(r[0], k -> new ArrayList<>()).add(r[2].toLowerCase());
+                }
+            }
+            if (!columns.isEmpty()) break;
+        }
+
+        for (Map.Entry<String, List<String>> e : columns.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(name)) return true;
+            List<String> have = e.getValue();
+            boolean covers = unique
+                    ? have.equals(wanted) && uniqueness.get(e.getKey())
+                    : have.size() >= wanted.size() && have.subList(0, wanted.size()).equals(wanted);
+            if (covers) return true;
+        }
+        return false;
+    }
+
+    // ===== bookkeeping =====
+
+    private static Connection connection(String database) throws SQLException {
+        return switch (database) {
+            case "auth" -> DbUtil.getAuthConnection();
+            case "erp" -> DbUtil.getErpConnection();
+            default -> throw new IllegalArgumentException("Unknown database: " + database + " (expected auth or erp)");
+        };
+    }
+
+    private static void ensureVersionTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(CREATE_VERSION_TABLE_SQL);
+        }
+    }
+
+    private static Map<Integer, AppliedVersion> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, AppliedVersion> applied = new TreeMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, description, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), new AppliedVersion(
+                        rs.getInt("version"), rs.getString("description"), rs.getString("checksum")));
+            }
+        }
+        return applied;
+    }
+
+    // one client migrates at a time; databases without GET_LOCK (H2) run unlocked
+    private static boolean lock(Connection conn) throws SQLException {
+        int timeout = DbUtil.getInt("migrations.lockTimeoutSec", 60);
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, lockName(conn));
+            ps.setInt(2, timeout);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 1) return true;
+            }
+        } catch (SQLException notSupported) {
+            return false;
+        }
+        throw new SQLException("Timed out after " + timeout + " s waiting for another client's schema migration.");
+    }
+
+    private static void unlock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, lockName(conn));
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("[migrations] could not release lock: " + e.getMessage());
+        }
+    }
+
+    private static String lockName(Connection conn) throws SQLException {
+        return conn.getCatalog() + ".schema_migrations";
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package edu.univ.erp.util;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared executor for blocking service / DAO work that fans out: dashboard loads, bulk
+ * export, bulk provisioning.
+ *
+ * Work is submitted for the datasource it uses. On Java 21+ every task gets its own virtual
+ * thread, so thousands of tasks waiting on JDBC cost no platform threads; on 17 (or with
+ * exec.virtualThreads=false) each datasource has a fixed pool of platform threads instead.
+ * Either way a task only runs while it holds one of its datasource's permits, and there are
+ * &lt;db&gt;.exec.maxConcurrent of them (default: &lt;db&gt;.pool.maxSize), so a burst queues here
+ * instead of timing out in ConnectionPool.borrow.
+ *
+ * A task should hold at most one connection of its datasource at a time, and must not wait
+ * for another task of the same datasource (it would be holding a permit that task needs).
+ */
+public final class ServiceExecutor {
+
+    /** The datasource a task borrows connections from. */
+    public enum Db {
+        AUTH, ERP;
+
+        String prefix() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** Point-in-time numbers for one datasource. */
+    public record Stats(String db,
+                        boolean virtualThreads,
+                        int maxConcurrent,
+                        int running,
+                        int waiting,
+                        long completed,
+                        double avgWaitMillis,
+                        double maxWaitMillis) {
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is Java 21; the build targets 17, so look it up
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = virtualExecutorFactory();
+
+    /** True when tasks run on virtual threads. */
+    public static final boolean VIRTUAL_THREADS = VIRTUAL_EXECUTOR_FACTORY != null;
+
+    private static final Map<Db, Lane> LANES = new EnumMap<>(Db.class);
+
+    static {
+        ExecutorService shared = VIRTUAL_THREADS ? newVirtualThreadExecutor() : null;
+        for (Db db : Db.values()) {
+            int limit = Math.max(1, DbUtil.getInt(db.prefix() + ".exec.maxConcurrent",
+                    DbUtil.poolMaxSize(db.prefix())));
+            LANES.put(db, new Lane(db, limit,
+                    shared != null ? shared : newPlatformExecutor(db.prefix() + "-exec", limit)));
+        }
+    }
+
+    private ServiceExecutor() {
+        // utility class
+    }
+
+    /** Runs the task once a permit for {@code db} is free. */
+    public static <T> Future<T> submit(Db db, Callable<T> task) {
+        return LANES.get(db).submit(task);
+    }
+
+    /**
+     * Runs the task once a permit for {@code db} is free. A SwingWorker can be passed
+     * instead of calling its execute(); done() still runs on the EDT.
+     * The task always runs, even if its thread is interrupted while waiting for the permit.
+     */
+    public static void execute(Db db, Runnable task) {
+        LANES.get(db).execute(task);
+    }
+
+    /**
+     * Runs the task on the calling thread once a permit for {@code db} is free, for callers
+     * that already have a thread per unit of work (HTTP requests). Exceptions pass through
+     * unchanged; InterruptedException if interrupted while waiting for the permit.
+     */
+    public static <T> T call(Db db, Callable<T> task) throws Exception {
+        return LANES.get(db).call(task);
+    }
+
+    /**
+     * Waits for a submitted task. Its SQLException or unchecked exception is rethrown as is;
+     * interruption cancels the task.
+     */
+    public static <T> T await(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database task.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql) throw sql;
+            if (cause instanceof RuntimeException rt) throw rt;
+            if (cause instanceof Error err) throw err;
+            throw new SQLException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * A new executor with a thread per task and no datasource limit: database work on its
+     * threads still has to go through {@link #call} (as the HTTP server does per request).
+     * Virtual threads when available, otherwise a fixed pool of {@code fallbackThreads}
+     * daemon threads named name-1, name-2, ... The caller shuts it down.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name, int fallbackThreads) {
+        return VIRTUAL_THREADS ? newVirtualThreadExecutor() : newPlatformExecutor(name, fallbackThreads);
+    }
+
+    public static Stats stats(Db db) {
+        return LANES.get(db).stats();
+    }
+
+    // ===== lanes =====
+
+    private static final class Lane {
+        private final Db db;
+        private final int limit;
+        private final Semaphore permits;
+        private final ExecutorService executor;
+
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Lane(Db db, int limit, ExecutorService executor) {
+            this.db = db;
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+            this.executor = executor;
+        }
+
+        <T> Future<T> submit(Callable<T> task) {
+            long queuedAt = System.nanoTime();
+            return executor.submit(() -> {
+                acquire(queuedAt);
+                try {
+                    return task.call();
+                } finally {
+                    release();
+                }
+            });
+        }
+
+        <T> T call(Callable<T> task) throws Exception {
+            acquire(System.nanoTime());
+            try {
+                return task.call();
+            } finally {
+                release();
+            }
+        }
+
+        void execute(Runnable task) {
+            long queuedAt = System.nanoTime();
+            executor.execute(() -> {
+                // nobody holds a Future for a Runnable, so it must run: callers release their
+                // own resources (BulkExportJob's slots, SwingWorker's done()) from inside it
+                permits.acquireUninterruptibly();
+                recordWait(queuedAt);
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            });
+        }
+
+        private void acquire(long queuedAt) throws InterruptedException {
+            permits.acquire();
+            recordWait(queuedAt);
+        }
+
+        private void recordWait(long queuedAt) {
+            long waited = System.nanoTime() - queuedAt;
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+
+        private void release() {
+            permits.release();
+            completed.increment();
+        }
+
+        Stats stats() {
+            int waiting = permits.getQueueLength();
+            if (executor instanceof ThreadPoolExecutor pool) waiting += pool.getQueue().size();
+            long done = completed.sum();
+            return new Stats(db.prefix(),
+                    VIRTUAL_THREADS,
+                    limit,
+                    limit - permits.availablePermits(),
+                    waiting,
+                    done,
+                    done == 0 ? 0 : waitNanos.sum() / 1e6 / done,
+                    maxWaitNanos.get() / 1e6);
+        }
+    }
+
+    // ===== executors =====
+
+    private static Method virtualExecutorFactory() {
+        if (!DbUtil.getBoolean("exec.virtualThreads", true)) return null;
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null; // Java 17
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create a virtual thread executor", e);
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(String name, int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
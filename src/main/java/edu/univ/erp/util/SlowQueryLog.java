@@ -0,0 +1,398 @@
+package edu.univ.erp.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs statements slower than db.slowQuery.thresholdMs (0 = off, the default) to a rolling file:
+ * time, elapsed, rows, pool, the calling service and DAO method, the SQL on one line and its
+ * bound parameters.
+ *
+ * The request thread only resolves its caller (slow statements only) and offers the entry to a
+ * bounded queue; a daemon thread formats and writes it. When the queue is full the entry is
+ * dropped and counted rather than making the request wait. The file rolls at
+ * db.slowQuery.maxBytes, keeping db.slowQuery.maxFiles old files (name.1 is the newest).
+ *
+ * Parameters bound to a secret column (password_hash, password, token, secret plus
+ * db.slowQuery.redactColumns) and anything that looks like a bcrypt hash are written as
+ * &lt;redacted&gt;. The column is taken from the SQL: {@code col = ?}, {@code col IN (?, ?)} and
+ * INSERT column lists.
+ */
+public final class SlowQueryLog {
+
+    private static final long THRESHOLD_MS = DbUtil.getLong("db.slowQuery.thresholdMs", 0);
+
+    /**
+     * Read once: when off (threshold 0), nothing is timed or captured. When on, every
+     * statement and result set is proxied (InstrumentedJdbc), so it costs on every row read.
+     */
+    public static final boolean ENABLED = THRESHOLD_MS > 0;
+    static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(THRESHOLD_MS);
+
+    private static final Set<String> DEFAULT_SECRET_COLUMNS = Set.of("password_hash", "password", "token", "secret");
+    private static final int MAX_PARAM_CHARS = 200;
+    private static final int MAX_CACHED_SQL = 1_000;
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String UTIL_PACKAGE = SlowQueryLog.class.getPackageName() + ".";
+    private static final String DATA_PACKAGE = "edu.univ.erp.data.";
+
+    private static final AtomicLong logged = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile Writer writer;
+
+    private SlowQueryLog() {
+        // static log
+    }
+
+    private record Entry(long at, String pool, String caller, String sql, Object[] params,
+                         int batchSize, long nanos, long rows, String error) {
+    }
+
+    // ===== request path =====
+
+    /** Called by the statement proxies for a statement over the threshold. */
+    static void record(String pool, String sql, Object[] params, int batchSize, long nanos, long rows, String error) {
+        Writer w = writer();
+        Entry entry = new Entry(System.currentTimeMillis(), pool, caller(), sql, params, batchSize, nanos, rows, error);
+        if (!w.queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /** "StudentService.browseCatalog:57 > CatalogDao.findCatalogPage:120" */
+    private static String caller() {
+        List<StackWalker.StackFrame> frames = WALKER.walk(s -> s
+                .filter(f -> {
+                    String cls = f.getClassName();
+                    return !cls.startsWith(UTIL_PACKAGE) && !cls.startsWith("java.")
+                            && !cls.startsWith("jdk.") && !cls.startsWith("com.sun.proxy.");
+                })
+                .limit(12)
+                .toList());
+        if (frames.isEmpty()) return "unknown";
+
+        StackWalker.StackFrame dao = frames.get(0);
+        StackWalker.StackFrame service = null;
+        for (StackWalker.StackFrame f : frames) {
+            if (!f.getClassName().startsWith(DATA_PACKAGE)) {
+                service = f;
+                break;
+            }
+        }
+        if (service == null || service == dao) return frame(dao);
+        return frame(service) + " > " + frame(dao);
+    }
+
+    private static String frame(StackWalker.StackFrame f) {
+        String cls = f.getClassName();
+        String simple = cls.substring(cls.lastIndexOf('.') + 1);
+        return simple + "." + f.getMethodName() + ":" + f.getLineNumber();
+    }
+
+    public static long loggedCount() {
+        return logged.get();
+    }
+
+    /** Entries lost because the writer could not keep up. */
+    public static long droppedCount() {
+        return dropped.get();
+    }
+
+    private static Writer writer() {
+        Writer w = writer;
+        if (w == null) {
+            synchronized (SlowQueryLog.class) {
+                if (writer == null) {
+                    writer = new Writer();
+                    writer.start();
+                }
+                w = writer;
+            }
+        }
+        return w;
+    }
+
+    // ===== writer thread =====
+
+    private static final class Writer extends Thread {
+        final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(DbUtil.getInt("db.slowQuery.queueSize", 1_000));
+        final Path file = Paths.get(DbUtil.get("db.slowQuery.file", "logs/slow-queries.log"));
+        final long maxBytes = DbUtil.getLong("db.slowQuery.maxBytes", 10L * 1024 * 1024);
+        final int maxFiles = DbUtil.getInt("db.slowQuery.maxFiles", 5);
+        final Set<String> secretColumns = secretColumns();
+        final Map<String, boolean[]> secretParams = new ConcurrentHashMap<>();
+        BufferedWriter out;
+        long size;
+
+        Writer() {
+            super("slow-query-log");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    Entry entry = queue.poll(1, TimeUnit.SECONDS);
+                    if (entry == null) {
+                        if (out != null) out.flush();
+                        continue;
+                    }
+                    write(format(entry));
+                    logged.incrementAndGet();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("[slow-query-log] " + file + ": " + e.getMessage());
+                    closeQuietly();
+                }
+            }
+        }
+
+        private void write(String line) throws IOException {
+            if (out == null) open();
+            if (size > 0 && size + line.length() > maxBytes) {
+                roll();
+            }
+            out.write(line);
+            out.newLine();
+            size += line.length() + 1;
+            if (queue.isEmpty()) out.flush();
+        }
+
+        private void open() throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            size = Files.size(file);
+        }
+
+        private void roll() throws IOException {
+            out.close();
+            out = null;
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path from = rolled(i);
+                if (Files.exists(from)) Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (maxFiles > 0) {
+                Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(file);
+            }
+            open();
+        }
+
+        private Path rolled(int n) {
+            return file.resolveSibling(file.getFileName() + "." + n);
+        }
+
+        private void closeQuietly() {
+            try {
+                if (out != null) out.close();
+            } catch (IOException ignored) {
+            }
+            out = null;
+        }
+
+        private String format(Entry e) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(Instant.ofEpochMilli(e.at()))
+                    .append(String.format(Locale.ROOT, " %.1f ms", e.nanos() / 1_000_000.0))
+                    .append(" rows=").append(e.rows() < 0 ? "?" : String.valueOf(e.rows()))
+                    .append(" pool=").append(e.pool())
+                    .append(" caller=").append(e.caller());
+            if (e.batchSize() > 0) sb.append(" batch=").append(e.batchSize());
+            if (e.error() != null) sb.append(" error=\"").append(oneLine(e.error())).append('"');
+            sb.append(" sql=\"").append(e.sql() == null ? "?" : oneLine(e.sql())).append('"');
+            if (e.params().length > 0) {
+                boolean[] secret = secretParams(e.sql());
+                sb.append(e.batchSize() > 0 ? " lastRowParams=[" : " params=[");
+                for (int i = 0; i < e.params().length; i++) {
+                    if (i > 0) sb.append(", ");
+                    boolean redact = i < secret.length && secret[i];
+                    sb.append(redact ? "<redacted>" : value(e.params()[i]));
+                }
+                sb.append(']');
+            }
+            return sb.toString();
+        }
+
+        private String value(Object v) {
+            if (v == null) return "NULL";
+            if (v instanceof Number || v instanceof Boolean) return v.toString();
+            if (v instanceof byte[] bytes) return "<" + bytes.length + " bytes>";
+            String s = v.toString();
+            if (looksLikeHash(s)) return "<redacted>";
+            if (s.length() > MAX_PARAM_CHARS) s = s.substring(0, MAX_PARAM_CHARS) + "...";
+            return "'" + oneLine(s).replace("'", "''") + "'";
+        }
+
+        private boolean[] secretParams(String sql) {
+            if (sql == null) return new boolean[0];
+            if (secretParams.size() > MAX_CACHED_SQL) secretParams.clear();
+            return secretParams.computeIfAbsent(sql, s -> parameterColumns(s, secretColumns));
+        }
+    }
+
+    // bcrypt ($2a$10$...) is what password_hash holds; redact it wherever it is bound
+    private static boolean looksLikeHash(String s) {
+        return s.length() == 60 && s.startsWith("$2") && s.charAt(3) == '$';
+    }
+
+    private static String oneLine(String s) {
+        return s.replaceAll("\\s+", " ").trim().replace("\"", "\\\"");
+    }
+
+    private static Set<String> secretColumns() {
+        Set<String> columns = new HashSet<>(DEFAULT_SECRET_COLUMNS);
+        String extra = DbUtil.get("db.slowQuery.redactColumns", null);
+        if (extra != null) {
+            for (String c : extra.split(",")) {
+                if (!c.isBlank()) columns.add(c.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    // ===== which parameter binds which column =====
+
+    /**
+     * secret[i] is true when parameter i+1 of the SQL binds one of the given columns. Good
+     * enough for the DAO SQL: "col = ?" / "col IN (?, ?)" / "SET col = ?" take the column
+     * before the operator; INSERT ... (a, b) VALUES (?, ?) pairs values with the column list.
+     */
+    static boolean[] parameterColumns(String sql, Set<String> secretColumns) {
+        List<String> tokens = tokens(sql);
+        List<Boolean> secret = new ArrayList<>();
+
+        List<String> insertColumns = null;
+        int valuesDepth = -1;   // paren depth of the VALUES list, -1 outside it
+        int valueIndex = 0;
+        boolean afterRow = false;   // just closed a VALUES row: "(" after "," starts the next one
+        int depth = 0;
+
+        for (int k = 0; k < tokens.size(); k++) {
+            String t = tokens.get(k);
+            String prev = k > 0 ? tokens.get(k - 1) : "";
+            if (!t.equals(",") && !t.equals("(")) afterRow = false;
+            switch (t) {
+                case "(" -> {
+                    depth++;
+                    if (insertColumns == null && k >= 2 && tokens.get(k - 2).equalsIgnoreCase("INTO")) {
+                        insertColumns = columnList(tokens, k);
+                    }
+                    if (prev.equalsIgnoreCase("VALUES") || (prev.equals(",") && afterRow)) {
+                        valuesDepth = depth;
+                        valueIndex = 0;
+                    }
+                    afterRow = false;
+                }
+                case ")" -> {
+                    if (depth == valuesDepth) {
+                        valuesDepth = -1;
+                        afterRow = true;
+                    }
+                    depth--;
+                }
+                case "," -> {
+                    if (depth == valuesDepth) valueIndex++;
+                }
+                case "?" -> {
+                    String column;
+                    if (valuesDepth >= 0 && insertColumns != null) {
+                        column = valueIndex < insertColumns.size() ? insertColumns.get(valueIndex) : null;
+                    } else {
+                        column = columnBefore(tokens, k);
+                    }
+                    secret.add(column != null && secretColumns.contains(column));
+                }
+                default -> { }
+            }
+        }
+
+        boolean[] result = new boolean[secret.size()];
+        for (int i = 0; i < result.length; i++) result[i] = secret.get(i);
+        return result;
+    }
+
+    private static final Set<String> SKIP_BACK = Set.of("(", ",", "?", "=", "<", ">", "<=", ">=", "<>", "!=",
+            "LIKE", "IN", "NOT", "IS", "BETWEEN", "AND");
+
+    private static String columnBefore(List<String> tokens, int k) {
+        for (int j = k - 1; j >= 0; j--) {
+            String t = tokens.get(j);
+            if (SKIP_BACK.contains(t.toUpperCase(Locale.ROOT))) continue;
+            return column(t);
+        }
+        return null;
+    }
+
+    private static List<String> columnList(List<String> tokens, int open) {
+        List<String> columns = new ArrayList<>();
+        for (int j = open + 1; j < tokens.size() && !tokens.get(j).equals(")"); j++) {
+            if (!tokens.get(j).equals(",")) columns.add(column(tokens.get(j)));
+        }
+        return columns;
+    }
+
+    private static String column(String identifier) {
+        String c = identifier.substring(identifier.lastIndexOf('.') + 1).replace("`", "");
+        return c.toLowerCase(Locale.ROOT);
+    }
+
+    // identifiers (with dots / backticks), '?', parens, commas and comparison operators;
+    // string literals and comments are skipped
+    private static List<String> tokens(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                i++;
+                while (i < n && sql.charAt(i) != c) i += sql.charAt(i) == '\\' ? 2 : 1;
+                i++;
+                tokens.add("'");
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n') i++;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '`' || c == '.') {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || "_`.".indexOf(sql.charAt(i)) >= 0)) i++;
+                tokens.add(sql.substring(start, i));
+            } else if ((c == '<' || c == '>' || c == '!') && i + 1 < n && "=>".indexOf(sql.charAt(i + 1)) >= 0) {
+                tokens.add(sql.substring(i, i + 2));
+                i += 2;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,5 @@
+-- Login looks users up by username (AuthDao.getUserAuth) and bulk import matches
+-- new users by username, so usernames must be unique and indexed.
+-- Skipped by the migration runner if users_auth already has a unique index on username.
+
+CREATE UNIQUE INDEX uq_users_auth_username ON users_auth (username);
@@ -0,0 +1,15 @@
+-- Denormalized seat counter for sections.
+-- Maintained transactionally by EnrollmentDao (tryEnroll / drop); drift from writes that
+-- bypass it is repaired by EnrollmentDao.reconcileEnrolledCounts(), run on a schedule by
+-- SeatCountReconciler and on demand from the admin Maintenance tab.
+
+ALTER TABLE sections
+    ADD COLUMN enrolled_count INT NOT NULL DEFAULT 0;
+
+UPDATE sections s
+SET s.enrolled_count = (
+    SELECT COUNT(*)
+    FROM enrollments e
+    WHERE e.section_id = s.section_id
+      AND e.status = 'ENROLLED'
+);
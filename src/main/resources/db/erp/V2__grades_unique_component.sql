@@ -0,0 +1,13 @@
+-- One grades row per (enrollment, component), required by the batched
+-- INSERT ... ON DUPLICATE KEY UPDATE in GradebookDao.saveSectionGrades.
+
+-- keep the newest row where the old SELECT-then-INSERT code left duplicates
+DELETE g1
+FROM grades g1
+JOIN grades g2
+  ON g1.enrollment_id = g2.enrollment_id
+ AND g1.component = g2.component
+ AND g1.grade_id < g2.grade_id;
+
+ALTER TABLE grades
+    ADD UNIQUE KEY uq_grades_enrollment_component (enrollment_id, component);
@@ -0,0 +1,7 @@
+-- Indexes for the filtered, keyset-paginated catalog (CatalogDao.findCatalogPage).
+
+-- semester / year filters, walked in section order
+CREATE INDEX idx_sections_term ON sections (semester, year, section_id);
+
+-- join from courses (ordered by code) to their sections in section_id order
+CREATE INDEX idx_sections_course ON sections (course_id, section_id);
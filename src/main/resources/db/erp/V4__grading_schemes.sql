@@ -0,0 +1,35 @@
+-- Per-section grading schemes (InstructorService / GradingEngine).
+-- A section without a grading_schemes row uses GradingScheme.DEFAULT
+-- (QUIZ 20 / MIDTERM 30 / ENDSEM 50, letters A+ .. F).
+
+CREATE TABLE grading_schemes (
+    section_id    INT         NOT NULL PRIMARY KEY,
+    curve         VARCHAR(16) NOT NULL DEFAULT 'NONE',   -- NONE | SHIFT_MEAN | SCALE_MAX
+    curve_target  DOUBLE      NOT NULL DEFAULT 0,
+    updated_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_grading_schemes_section
+        FOREIGN KEY (section_id) REFERENCES sections (section_id) ON DELETE CASCADE
+);
+
+-- weighted components; names match grades.component
+CREATE TABLE grading_scheme_components (
+    section_id  INT         NOT NULL,
+    position    INT         NOT NULL,
+    component   VARCHAR(20) NOT NULL,
+    weight      DOUBLE      NOT NULL,
+    max_score   DOUBLE      NOT NULL DEFAULT 100,
+    PRIMARY KEY (section_id, position),
+    UNIQUE KEY uq_scheme_component (section_id, component),
+    CONSTRAINT fk_scheme_components_scheme
+        FOREIGN KEY (section_id) REFERENCES grading_schemes (section_id) ON DELETE CASCADE
+);
+
+-- letter grade for final scores >= min_score
+CREATE TABLE grading_scheme_cutoffs (
+    section_id  INT        NOT NULL,
+    letter      VARCHAR(4) NOT NULL,
+    min_score   DOUBLE     NOT NULL,
+    PRIMARY KEY (section_id, letter),
+    CONSTRAINT fk_scheme_cutoffs_scheme
+        FOREIGN KEY (section_id) REFERENCES grading_schemes (section_id) ON DELETE CASCADE
+);
@@ -0,0 +1,32 @@
+-- Per-enrollment grade summary: the QUIZ / MIDTERM / ENDSEM / FINAL pivot of grades,
+-- stored so gradebooks, transcripts and exports read one row per enrollment instead of
+-- grouping the grades table. Written by GradebookDao in the same transaction as every
+-- grades write. Enrollments without any grades have no row (read with LEFT JOIN).
+
+CREATE TABLE grade_summaries (
+    enrollment_id  INT         NOT NULL PRIMARY KEY,
+    quiz_score     DOUBLE      NULL,
+    midterm_score  DOUBLE      NULL,
+    endsem_score   DOUBLE      NULL,
+    final_score    DOUBLE      NULL,
+    final_grade    VARCHAR(10) NULL,
+    updated_at     TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_grade_summaries_enrollment
+        FOREIGN KEY (enrollment_id) REFERENCES enrollments (enrollment_id) ON DELETE CASCADE
+);
+
+INSERT INTO grade_summaries (enrollment_id, quiz_score, midterm_score, endsem_score, final_score, final_grade)
+SELECT enrollment_id,
+       MAX(CASE WHEN component = 'QUIZ'    THEN score END),
+       MAX(CASE WHEN component = 'MIDTERM' THEN score END),
+       MAX(CASE WHEN component = 'ENDSEM'  THEN score END),
+       MAX(CASE WHEN component = 'FINAL'   THEN score END),
+       MAX(CASE WHEN component = 'FINAL'   THEN final_grade END)
+FROM grades
+GROUP BY enrollment_id;
+
+-- student views (StudentViewDao): a student's enrollments, filtered by status
+CREATE INDEX idx_enrollments_student_status ON enrollments (student_id, status, section_id);
+
+-- gradebooks (GradebookDao): a section's enrolled students
+CREATE INDEX idx_enrollments_section_status ON enrollments (section_id, status, student_id);